@@ -0,0 +1,161 @@
+package com.symphony.sfs.ms.chat.benchmark;
+
+import com.symphony.oss.models.core.canon.facade.ThreadId;
+import com.symphony.security.helper.ClientCryptoHandler;
+import com.symphony.security.helper.KeyIdentifier;
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.chat.datafeed.DatafeedSessionPool;
+import com.symphony.sfs.ms.starter.config.properties.PodConfiguration;
+import com.symphony.sfs.ms.starter.config.properties.common.PemResource;
+import com.symphony.sfs.ms.starter.health.MeterManager;
+import com.symphony.sfs.ms.starter.security.SessionSupplier;
+import com.symphony.sfs.ms.starter.symphony.auth.SymphonyRsaAuthFunction;
+import com.symphony.sfs.ms.starter.symphony.auth.SymphonySession;
+import com.symphony.sfs.ms.starter.symphony.crypto.ContentKeyManager;
+import com.symphony.sfs.ms.starter.util.RsaUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.codec.binary.Base64;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Fixtures shared by the benchmarks, generated locally like in AbstractIntegrationTest: an RSA key pair for the
+ * sessions and a random content key. Pod calls are replaced by in-memory stand-ins.
+ */
+final class BenchmarkFixtures {
+
+  static final String SYMPHONY_USER_ID = "13469017440257";
+  static final String FEDERATED_USER_ID = "13469017440258";
+  static final String THREAD_ID = "FrgZb/0yPjOuShqA35oAM3///oOQU772dA==";
+  static final String STREAM_ID = "FrgZb_0yPjOuShqA35oAM3___oOQU772dA";
+  static final String MESSAGE_ID = "uXUfu2rsJRLALM0okkK1q3///oOAYQiRbQ==";
+
+  private BenchmarkFixtures() {
+  }
+
+  static KeyPair rsaKeyPair() throws Exception {
+    KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA");
+    kpg.initialize(2048);
+    return kpg.generateKeyPair();
+  }
+
+  static byte[] contentKey() {
+    byte[] contentKey = new byte[32];
+    new SecureRandom().nextBytes(contentKey);
+    return contentKey;
+  }
+
+  static ChatConfiguration chatConfiguration(KeyPair keyPair) throws Exception {
+    ChatConfiguration chatConfiguration = new ChatConfiguration();
+    chatConfiguration.setSharedPrivateKey(new PemResource(RsaUtils.encodeRSAKey(keyPair.getPrivate())));
+    chatConfiguration.setSharedPublicKey(new PemResource(RsaUtils.encodeRSAKey(keyPair.getPublic())));
+    return chatConfiguration;
+  }
+
+  static MeterManager meterManager() {
+    return new MeterManager(new SimpleMeterRegistry(), Optional.empty());
+  }
+
+  /**
+   * @return a content key manager serving the given key for all the streams, without any pod call
+   */
+  static ContentKeyManager contentKeyManager(byte[] contentKey) throws Exception {
+    // stub only: invocations are not recorded and do not pile up during the measurement
+    ContentKeyManager contentKeyManager = mock(ContentKeyManager.class, withSettings().stubOnly());
+    KeyIdentifier keyIdentifier = new KeyIdentifier(Base64.decodeBase64(THREAD_ID), Long.parseLong(SYMPHONY_USER_ID), 0L);
+    when(contentKeyManager.getContentKeyIdentifier(anyString(), anyString(), anyString())).thenReturn(keyIdentifier);
+    when(contentKeyManager.getContentKey(any(ThreadId.class), anyString(), anyString(), anyLong())).thenReturn(contentKey);
+    return contentKeyManager;
+  }
+
+  /**
+   * @return a session pool where every user has a session, without any database or pod call
+   */
+  static DatafeedSessionPool sessionPool(KeyPair keyPair) throws Exception {
+    ChatConfiguration chatConfiguration = chatConfiguration(keyPair);
+    SessionSupplier<SymphonySession> session = new SessionSupplier<>("username", new SymphonyRsaAuthFunction(null, new PodConfiguration(), RsaUtils.parseRSAPrivateKey(chatConfiguration.getSharedPrivateKey().getData())));
+    return new DatafeedSessionPool(chatConfiguration, null, null, null) {
+      @Override
+      public SessionSupplier<SymphonySession> getSessionSupplier(String symphonyId) {
+        return session;
+      }
+    };
+  }
+
+  static String encrypt(ClientCryptoHandler cryptoHandler, byte[] contentKey, String content) throws Exception {
+    return Base64.encodeBase64String(cryptoHandler.encryptMsgWithRotationIdZero(contentKey, content.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  static String presentationML(String text) {
+    return "<div data-format=\"PresentationML\" data-version=\"2.0\" class=\"wysiwyg\"><p>" + text + "</p></div>";
+  }
+
+  static String tablePresentationML(int rows) {
+    StringBuilder table = new StringBuilder("<div data-format=\"PresentationML\" data-version=\"2.0\"><table><tr><th>ID</th><th>Type</th><th>Summary</th></tr>");
+    for (int i = 0; i < rows; i++) {
+      table.append("<tr><td>CES-").append(i).append("</td><td>Story</td><td>Quarterly report line ").append(i).append("</td></tr>");
+    }
+    return table.append("</table></div>").toString();
+  }
+
+  /**
+   * @return the SNS notification of an IM social message, as received on the ingestion queue
+   */
+  static String socialMessageNotification(ClientCryptoHandler cryptoHandler, byte[] contentKey, String text) throws Exception {
+    String socialMessage = "{" +
+      "  \"_type\":\"com.symphony.s2.model.chat.SocialMessage\"," +
+      "  \"_version\":\"1.0\"," +
+      "  \"messageId\":\"" + MESSAGE_ID + "\"," +
+      "  \"threadId\":\"" + THREAD_ID + "\"," +
+      "  \"ingestionDate\":1657584000000," +
+      "  \"version\":\"SOCIALMESSAGE\"," +
+      "  \"chatType\":\"IM\"," +
+      "  \"from\":{" +
+      "    \"id\":" + SYMPHONY_USER_ID + "," +
+      "    \"prettyName\":\"John Doe\"," +
+      "    \"company\":\"Symphony\"" +
+      "  }," +
+      "  \"text\":\"" + encrypt(cryptoHandler, contentKey, text) + "\"," +
+      "  \"presentationML\":\"" + encrypt(cryptoHandler, contentKey, presentationML(text)) + "\"," +
+      "  \"attributes\":{" +
+      "    \"dist\":[" + SYMPHONY_USER_ID + "," + FEDERATED_USER_ID + "]" +
+      "  }" +
+      "}";
+    String envelope = "{" +
+      "  \"_type\":\"com.symphony.s2.model.core.Envelope\"," +
+      "  \"_version\":\"1.0\"," +
+      "  \"createdDate\":\"2020-03-17T12:39:59.117Z\"," +
+      "  \"distributionList\":[" + SYMPHONY_USER_ID + "," + FEDERATED_USER_ID + "]," +
+      "  \"notificationDate\":\"2020-03-17T12:39:59.407Z\"," +
+      "  \"payload\":" + socialMessage + "," +
+      "  \"payloadType\":\"com.symphony.s2.model.chat.SocialMessage\"," +
+      "  \"podId\":196," +
+      "  \"purgeDate\":\"2027-03-16T12:39:59.117Z\"" +
+      "}";
+    return "{" +
+      "  \"Message\":\"{\\\"payload\\\":\\\"" + Base64.encodeBase64String(envelope.getBytes(StandardCharsets.UTF_8)) + "\\\"}\"," +
+      "  \"MessageAttributes\":{" +
+      "    \"payloadType\":{" +
+      "      \"Type\":\"String\"," +
+      "      \"Value\":\"com.symphony.s2.model.chat.SocialMessage\"" +
+      "    }," +
+      "    \"podId\":{" +
+      "      \"Type\":\"Number\"," +
+      "      \"Value\":\"196\"" +
+      "    }" +
+      "  }," +
+      "  \"Type\":\"Notification\"" +
+      "}";
+  }
+}
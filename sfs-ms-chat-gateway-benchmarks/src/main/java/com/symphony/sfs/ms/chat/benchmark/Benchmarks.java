@@ -0,0 +1,22 @@
+package com.symphony.sfs.ms.chat.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar: same command line as the JMH main, with the GC profiler always enabled so that
+ * every suite reports its allocation rate (gc.alloc.rate.norm is the number of bytes allocated per operation).
+ */
+public class Benchmarks {
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+    new Runner(new OptionsBuilder()
+      .parent(commandLineOptions)
+      .addProfiler(GCProfiler.class)
+      .build())
+      .run();
+  }
+}
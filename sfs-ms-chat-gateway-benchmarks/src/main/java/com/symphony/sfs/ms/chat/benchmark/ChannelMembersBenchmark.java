@@ -0,0 +1,77 @@
+package com.symphony.sfs.ms.chat.benchmark;
+
+import com.symphony.oss.models.chat.canon.facade.IUser;
+import com.symphony.oss.models.core.canon.facade.PodAndUserId;
+import com.symphony.sfs.ms.admin.generated.model.EmpEntity;
+import com.symphony.sfs.ms.chat.model.FederatedAccount;
+import com.symphony.sfs.ms.chat.util.ChannelMemberUtils;
+import com.symphony.sfs.ms.emp.generated.model.ChannelMember;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Conversion of the members of a room to EMP channel members.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChannelMembersBenchmark {
+
+  @Param({"2", "20", "200"})
+  private int symphonyUsers;
+
+  private List<FederatedAccount> federatedAccounts;
+  private List<IUser> users;
+  private EmpEntity empEntity;
+
+  @Setup
+  public void setUp() {
+    federatedAccounts = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      federatedAccounts.add(FederatedAccount.builder()
+        .firstName("Federated" + i)
+        .lastName("Doe")
+        .companyName("Acme")
+        .phoneNumber("+3360000000" + i)
+        .federatedUserId("federated" + i)
+        .symphonyUserId(String.valueOf(13469017450000L + i))
+        .build());
+    }
+    users = new ArrayList<>();
+    for (int i = 0; i < symphonyUsers; i++) {
+      IUser user = mock(IUser.class, withSettings().stubOnly());
+      when(user.getId()).thenReturn(PodAndUserId.newBuilder().build(13469017440000L + i));
+      when(user.getFirstName()).thenReturn("User" + i);
+      when(user.getSurname()).thenReturn("Smith");
+      when(user.getPrettyName()).thenReturn(i % 2 == 0 ? "User" + i + " Smith" : "User" + i + " Smith [WHATSAPP]");
+      when(user.getCompany()).thenReturn("Symphony");
+      users.add(user);
+    }
+    empEntity = new EmpEntity().name("WHATSAPP").serviceAccountSuffix("WHATSAPP");
+  }
+
+  @Benchmark
+  public List<ChannelMember> toChannelMembers() {
+    return ChannelMemberUtils.toChannelMembers(federatedAccounts, BenchmarkFixtures.SYMPHONY_USER_ID, users, empEntity);
+  }
+}
@@ -0,0 +1,69 @@
+package com.symphony.sfs.ms.chat.benchmark;
+
+import com.symphony.security.helper.ClientCryptoHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ephemeral key generation and blast attachment encryption of a forwarded message, with a crypto handler and a
+ * secure random created per call versus shared ones. Run with the GC profiler to compare the allocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CryptoHandlerBenchmark {
+
+  @Param({"1024", "1048576"})
+  private int attachmentSize;
+
+  private final ClientCryptoHandler sharedCryptoHandler = new ClientCryptoHandler();
+  private final SecureRandom sharedSecureRandom = new SecureRandom();
+  private byte[] ephemeralKey;
+  private byte[] attachment;
+
+  @Setup
+  public void setUp() {
+    ephemeralKey = BenchmarkFixtures.contentKey();
+    attachment = new byte[attachmentSize];
+    new SecureRandom().nextBytes(attachment);
+  }
+
+  @Benchmark
+  public byte[] ephemeralKey_newSecureRandom() {
+    byte[] key = new byte[32];
+    new SecureRandom().nextBytes(key);
+    return key;
+  }
+
+  @Benchmark
+  public byte[] ephemeralKey_sharedSecureRandom() {
+    byte[] key = new byte[32];
+    sharedSecureRandom.nextBytes(key);
+    return key;
+  }
+
+  @Benchmark
+  public byte[] encryptAttachment_newCryptoHandler() throws Exception {
+    return new ClientCryptoHandler().encryptMsgWithRotationIdZero(ephemeralKey, attachment);
+  }
+
+  @Benchmark
+  public byte[] encryptAttachment_sharedCryptoHandler() throws Exception {
+    return sharedCryptoHandler.encryptMsgWithRotationIdZero(ephemeralKey, attachment);
+  }
+}
@@ -0,0 +1,86 @@
+package com.symphony.sfs.ms.chat.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.symphony.security.helper.ClientCryptoHandler;
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.chat.datafeed.DatafeedDispatcher;
+import com.symphony.sfs.ms.chat.datafeed.DatafeedSessionPool;
+import com.symphony.sfs.ms.chat.datafeed.ForwarderQueueConsumer;
+import com.symphony.sfs.ms.chat.datafeed.MessageDecryptor;
+import com.symphony.sfs.ms.chat.service.ContentKeyPrefetcher;
+import com.symphony.sfs.ms.chat.service.MessageIOMonitor;
+import com.symphony.sfs.ms.starter.config.properties.BotConfiguration;
+import com.symphony.sfs.ms.starter.config.properties.PodConfiguration;
+import com.symphony.sfs.ms.starter.health.MeterManager;
+import com.symphony.sfs.ms.starter.symphony.crypto.ContentKeyManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.KeyPair;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consumption of an IM social message from the ingestion queue: SNS decoding, envelope parsing, session lookup,
+ * decryption and dispatch. The session pool and the content keys are in-memory, no listener is registered.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ForwarderQueueConsumerBenchmark {
+
+  private DatafeedDispatcher datafeedDispatcher;
+  private ContentKeyPrefetcher contentKeyPrefetcher;
+  private ForwarderQueueConsumer forwarderQueueConsumer;
+  private String notification;
+
+  @Setup
+  public void setUp() throws Exception {
+    KeyPair keyPair = BenchmarkFixtures.rsaKeyPair();
+    byte[] contentKey = BenchmarkFixtures.contentKey();
+    ChatConfiguration chatConfiguration = BenchmarkFixtures.chatConfiguration(keyPair);
+    MeterManager meterManager = BenchmarkFixtures.meterManager();
+    PodConfiguration podConfiguration = new PodConfiguration();
+    podConfiguration.setId("196");
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    MessageIOMonitor messageIOMonitor = new MessageIOMonitor(meterManager);
+    ContentKeyManager contentKeyManager = BenchmarkFixtures.contentKeyManager(contentKey);
+    DatafeedSessionPool sessionPool = BenchmarkFixtures.sessionPool(keyPair);
+    MessageDecryptor messageDecryptor = new MessageDecryptor(contentKeyManager, objectMapper, messageIOMonitor);
+    datafeedDispatcher = new DatafeedDispatcher(chatConfiguration, meterManager);
+    contentKeyPrefetcher = new ContentKeyPrefetcher(contentKeyManager, sessionPool, chatConfiguration, meterManager);
+    forwarderQueueConsumer = new ForwarderQueueConsumer(objectMapper, messageDecryptor, sessionPool, messageIOMonitor, meterManager, new BotConfiguration(), podConfiguration, datafeedDispatcher, contentKeyPrefetcher);
+
+    notification = BenchmarkFixtures.socialMessageNotification(new ClientCryptoHandler(), contentKey, "Hello, here is the quarterly report you asked for.");
+  }
+
+  @TearDown
+  public void tearDown() {
+    datafeedDispatcher.shutdown();
+    contentKeyPrefetcher.shutdown();
+  }
+
+  @Benchmark
+  public void consume() throws Exception {
+    // processed once acknowledged by its dispatcher lane
+    CompletableFuture<Void> acknowledged = new CompletableFuture<>();
+    forwarderQueueConsumer.consume(notification, "1", () -> {
+      acknowledged.complete(null);
+      return acknowledged;
+    });
+    acknowledged.get();
+  }
+}
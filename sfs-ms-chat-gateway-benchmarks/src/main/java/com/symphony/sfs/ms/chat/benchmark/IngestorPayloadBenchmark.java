@@ -0,0 +1,108 @@
+package com.symphony.sfs.ms.chat.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.symphony.security.helper.ClientCryptoHandler;
+import com.symphony.sfs.ms.chat.service.symphony.SymphonyService;
+import com.symphony.sfs.ms.starter.symphony.stream.EventUser;
+import com.symphony.sfs.ms.starter.symphony.stream.MessageAttachment;
+import com.symphony.sfs.ms.starter.symphony.stream.SBEEventMessage;
+import org.apache.commons.codec.binary.Base64;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the legacy ingestor payload handling of SymphonyService (new ObjectMapper per call, response read as
+ * Object then converted through a tree) with the shared writer and typed reader.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IngestorPayloadBenchmark {
+
+  private SBEEventMessage message;
+  private byte[] response;
+
+  @Setup
+  public void setUp() throws Exception {
+    byte[] contentKey = new byte[32];
+    new SecureRandom().nextBytes(contentKey);
+    ClientCryptoHandler cryptoHandler = new ClientCryptoHandler();
+
+    String text = "Hello, here is the quarterly report you asked for. ".repeat(20);
+    String presentationML = "<div data-format=\"PresentationML\" data-version=\"2.0\"><p>" + text + "</p></div>";
+    message = SBEEventMessage.builder()
+      .messageId("Rp6N-cRznOWTwnD80vg7OX___oOAgiSfbQ")
+      .threadId("kMjeKULq1N3IZGB4J0uzJ3___o3vNvCcdA")
+      .text(encrypt(cryptoHandler, contentKey, text))
+      .presentationML(encrypt(cryptoHandler, contentKey, presentationML))
+      .encryptedMedia(encrypt(cryptoHandler, contentKey, "{\"content\":[],\"mediaType\":\"JSON\"}"))
+      .encryptedEntities(encrypt(cryptoHandler, contentKey, "{}"))
+      .entityJSON(encrypt(cryptoHandler, contentKey, "{}"))
+      .entities(Map.of("hashtags", List.of(), "userMentions", List.of(), "urls", List.of()))
+      .attachments(List.of(MessageAttachment.builder().fileId("internal_13469017440257%2FAbCdEfGhIjKlMnOp").build()))
+      .msgFeatures(7)
+      .version(SBEEventMessage.Versions.SOCIALMESSAGE.toString())
+      .format("com.symphony.messageml.v2")
+      .from(EventUser.builder().id(13469017440257L).build())
+      .chatType("INSTANT_CHAT")
+      .build();
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    response = objectMapper.writeValueAsBytes(Map.of(message.getMessageId(), Map.of("message", message, "status", "SUCCESS")));
+  }
+
+  @Benchmark
+  public String writeLegacy() throws Exception {
+    ObjectMapper objectMapper = new ObjectMapper();
+    objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    return objectMapper.writeValueAsString(Collections.singletonList(message));
+  }
+
+  @Benchmark
+  public String writeShared() throws Exception {
+    return SymphonyService.writeMessages(message);
+  }
+
+  @Benchmark
+  public SBEEventMessage readLegacy() throws Exception {
+    // WebClient decoded the body to Object with its own mapper
+    Object body = new ObjectMapper().readValue(response, Object.class);
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    JsonNode jsonNode = objectMapper.valueToTree(body);
+    String firstNode = jsonNode.fieldNames().next();
+    JsonNode messageNode = jsonNode.get(firstNode).get("message");
+    return objectMapper.treeToValue(messageNode, SBEEventMessage.class);
+  }
+
+  @Benchmark
+  public SBEEventMessage readTyped() throws Exception {
+    return SymphonyService.readSentMessage(response);
+  }
+
+  private static String encrypt(ClientCryptoHandler cryptoHandler, byte[] contentKey, String content) throws Exception {
+    return Base64.encodeBase64String(cryptoHandler.encryptMsgWithRotationIdZero(contentKey, content.getBytes(StandardCharsets.UTF_8)));
+  }
+}
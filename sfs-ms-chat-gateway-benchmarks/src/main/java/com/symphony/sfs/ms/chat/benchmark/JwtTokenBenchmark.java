@@ -0,0 +1,63 @@
+package com.symphony.sfs.ms.chat.benchmark;
+
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.chat.service.JwtTokenGenerator;
+import com.symphony.sfs.ms.starter.config.properties.common.PemResource;
+import com.symphony.sfs.ms.starter.security.SfsJwtToken;
+import com.symphony.sfs.ms.starter.util.RsaUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.KeyPairGenerator;
+import java.util.concurrent.TimeUnit;
+
+import static com.symphony.sfs.ms.chat.service.JwtTokenGenerator.MICROSERVICE_NAME;
+
+/**
+ * Cost of the microservice token for each EMP/admin request: RSA signature per call versus the cached token
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class JwtTokenBenchmark {
+
+  private JwtTokenGenerator jwtTokenGenerator;
+
+  @Setup
+  public void setUp() throws Exception {
+    KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA");
+    kpg.initialize(2048);
+    ChatConfiguration chatConfiguration = new ChatConfiguration();
+    chatConfiguration.setPrivateKey(new PemResource(RsaUtils.encodeRSAKey(kpg.generateKeyPair().getPrivate())));
+    jwtTokenGenerator = new JwtTokenGenerator(chatConfiguration);
+  }
+
+  @TearDown
+  public void tearDown() {
+    jwtTokenGenerator.shutdown();
+  }
+
+  @Benchmark
+  public String signPerCall() {
+    return SfsJwtToken.generateForMicroservice(MICROSERVICE_NAME, jwtTokenGenerator.getPrivateKey());
+  }
+
+  @Benchmark
+  public String cached() {
+    return jwtTokenGenerator.generateMicroserviceToken();
+  }
+}
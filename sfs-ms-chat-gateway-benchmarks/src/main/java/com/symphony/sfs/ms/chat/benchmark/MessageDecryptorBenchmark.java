@@ -0,0 +1,102 @@
+package com.symphony.sfs.ms.chat.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.symphony.oss.commons.immutable.ImmutableByteArray;
+import com.symphony.oss.models.chat.canon.LiveCurrentMessageType;
+import com.symphony.oss.models.chat.canon.SocialMessageEntity;
+import com.symphony.oss.models.chat.canon.facade.ISocialMessage;
+import com.symphony.oss.models.chat.canon.facade.IUser;
+import com.symphony.oss.models.core.canon.facade.PodAndUserId;
+import com.symphony.oss.models.core.canon.facade.ThreadId;
+import com.symphony.security.helper.ClientCryptoHandler;
+import com.symphony.sfs.ms.chat.datafeed.GatewaySocialMessage;
+import com.symphony.sfs.ms.chat.datafeed.MessageDecryptor;
+import com.symphony.sfs.ms.chat.service.MessageIOMonitor;
+import com.symphony.sfs.ms.starter.symphony.stream.SBEEventMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Decryption of a social message received from the datafeed and of a message retrieved from the pod.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageDecryptorBenchmark {
+
+  private MessageDecryptor messageDecryptor;
+  private ISocialMessage socialMessage;
+  private IUser fromUser;
+  private String text;
+  private String presentationML;
+  private String entityJSON;
+
+  @Setup
+  public void setUp() throws Exception {
+    byte[] contentKey = BenchmarkFixtures.contentKey();
+    ClientCryptoHandler cryptoHandler = new ClientCryptoHandler();
+    messageDecryptor = new MessageDecryptor(BenchmarkFixtures.contentKeyManager(contentKey), new ObjectMapper(), new MessageIOMonitor(BenchmarkFixtures.meterManager()));
+
+    String plainText = "Hello, here is the quarterly report you asked for. ".repeat(20);
+    text = BenchmarkFixtures.encrypt(cryptoHandler, contentKey, plainText);
+    presentationML = BenchmarkFixtures.encrypt(cryptoHandler, contentKey, BenchmarkFixtures.presentationML(plainText));
+    entityJSON = BenchmarkFixtures.encrypt(cryptoHandler, contentKey, "{}");
+
+    socialMessage = new SocialMessageEntity.Builder()
+      .withVersion(LiveCurrentMessageType.SOCIALMESSAGE.toString())
+      .withMessageId(ImmutableByteArray.newInstance(BenchmarkFixtures.MESSAGE_ID))
+      .withIngestionDate(1657584000000L)
+      .withThreadId(ThreadId.newBuilder().build(BenchmarkFixtures.STREAM_ID))
+      .withText(text)
+      .withPresentationML(presentationML)
+      .withEntityJSON(entityJSON)
+      .build();
+    fromUser = mock(IUser.class, withSettings().stubOnly());
+    when(fromUser.getId()).thenReturn(PodAndUserId.newBuilder().build(Long.valueOf(BenchmarkFixtures.SYMPHONY_USER_ID)));
+  }
+
+  @Benchmark
+  public GatewaySocialMessage decryptSocialMessage() throws Exception {
+    GatewaySocialMessage gatewaySocialMessage = GatewaySocialMessage.builder()
+      .streamId(BenchmarkFixtures.STREAM_ID)
+      .messageId(BenchmarkFixtures.MESSAGE_ID)
+      .fromUser(fromUser)
+      .members(List.of(BenchmarkFixtures.SYMPHONY_USER_ID, BenchmarkFixtures.FEDERATED_USER_ID))
+      .chatType("IM")
+      .build();
+    messageDecryptor.decrypt(socialMessage, BenchmarkFixtures.SYMPHONY_USER_ID, "username", gatewaySocialMessage);
+    return gatewaySocialMessage;
+  }
+
+  @Benchmark
+  public SBEEventMessage decryptSBEMessage() throws Exception {
+    // the message is decrypted in place
+    SBEEventMessage message = SBEEventMessage.builder()
+      .messageId(BenchmarkFixtures.MESSAGE_ID)
+      .threadId(BenchmarkFixtures.STREAM_ID)
+      .text(text)
+      .presentationML(presentationML)
+      .entityJSON(entityJSON)
+      .build();
+    messageDecryptor.decrypt(message, BenchmarkFixtures.SYMPHONY_USER_ID, "username");
+    return message;
+  }
+}
@@ -0,0 +1,74 @@
+package com.symphony.sfs.ms.chat.benchmark;
+
+import com.symphony.sfs.ms.chat.sbe.MessageEncryptor;
+import com.symphony.sfs.ms.starter.symphony.stream.EventUser;
+import com.symphony.sfs.ms.starter.symphony.stream.MessageAttachment;
+import com.symphony.sfs.ms.starter.symphony.stream.SBEEventMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encryption of the replies and forwarded messages sent to Symphony on behalf of the federated users.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageEncryptorBenchmark {
+
+  private MessageEncryptor messageEncryptor;
+  private SBEEventMessage parentMessage;
+  private List<MessageAttachment> blastAttachments;
+  private byte[] ephemeralKey;
+  private String text;
+
+  @Setup
+  public void setUp() throws Exception {
+    messageEncryptor = new MessageEncryptor(BenchmarkFixtures.contentKeyManager(BenchmarkFixtures.contentKey()));
+    text = "Sure, I will send it back tomorrow 👍 ".repeat(10);
+    parentMessage = SBEEventMessage.builder()
+      .messageId(BenchmarkFixtures.MESSAGE_ID)
+      .from(EventUser.builder().prettyNameNormalized("USER 1").prettyName("User 1").build())
+      .text("Hello, here is the quarterly report you asked for. ".repeat(20))
+      .ingestionDate(1634118131913L)
+      .build();
+    blastAttachments = Collections.singletonList(MessageAttachment.builder()
+      .fileId("internal_13469017440257%2FAbCdEfGhIjKlMnOp")
+      .name("report.pdf")
+      .contentType("application/pdf")
+      .sizeInBytes(1024L)
+      .encrypted(true)
+      .images(Collections.emptyMap())
+      .build());
+    ephemeralKey = BenchmarkFixtures.contentKey();
+  }
+
+  @Benchmark
+  public SBEEventMessage buildReplyMessage() throws Exception {
+    return messageEncryptor.buildReplyMessage(BenchmarkFixtures.SYMPHONY_USER_ID, "username", BenchmarkFixtures.STREAM_ID, text, parentMessage, Collections.emptyList());
+  }
+
+  @Benchmark
+  public SBEEventMessage buildForwardedMessage() throws Exception {
+    return messageEncryptor.buildForwardedMessage(BenchmarkFixtures.SYMPHONY_USER_ID, "username", BenchmarkFixtures.STREAM_ID, text, "Forwarded by John Doe\n", blastAttachments, ephemeralKey);
+  }
+
+  @Benchmark
+  public SBEEventMessage buildContactMessage() throws Exception {
+    return messageEncryptor.buildContactMessage(BenchmarkFixtures.SYMPHONY_USER_ID, "username", BenchmarkFixtures.STREAM_ID, text, null, BenchmarkFixtures.presentationML(text));
+  }
+}
@@ -0,0 +1,63 @@
+package com.symphony.sfs.ms.chat.benchmark;
+
+import com.symphony.oss.models.chat.canon.facade.IUser;
+import com.symphony.sfs.ms.chat.datafeed.GatewaySocialMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Processing of the decrypted presentationML of a social message (table detection), for a plain text message and
+ * for a message with a table.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PresentationMLBenchmark {
+
+  private IUser fromUser;
+  private String text;
+  private String table;
+
+  @Setup
+  public void setUp() {
+    fromUser = mock(IUser.class, withSettings().stubOnly());
+    text = BenchmarkFixtures.presentationML("Hello, here is the quarterly report you asked for. ".repeat(20));
+    table = BenchmarkFixtures.tablePresentationML(50);
+  }
+
+  @Benchmark
+  public GatewaySocialMessage text() {
+    return setPresentationMLContent(text);
+  }
+
+  @Benchmark
+  public GatewaySocialMessage table() {
+    return setPresentationMLContent(table);
+  }
+
+  private GatewaySocialMessage setPresentationMLContent(String presentationML) {
+    GatewaySocialMessage gatewaySocialMessage = GatewaySocialMessage.builder()
+      .fromUser(fromUser)
+      .members(List.of(BenchmarkFixtures.SYMPHONY_USER_ID, BenchmarkFixtures.FEDERATED_USER_ID))
+      .build();
+    gatewaySocialMessage.setPresentationMLContent(presentationML);
+    return gatewaySocialMessage;
+  }
+}
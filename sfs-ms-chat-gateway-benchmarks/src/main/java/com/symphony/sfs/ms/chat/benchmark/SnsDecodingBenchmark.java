@@ -0,0 +1,82 @@
+package com.symphony.sfs.ms.chat.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.symphony.oss.canon.runtime.IEntityFactory;
+import com.symphony.oss.canon.runtime.ModelRegistry;
+import com.symphony.oss.commons.dom.json.jackson.JacksonAdaptor;
+import com.symphony.oss.commons.immutable.ImmutableByteArray;
+import com.symphony.oss.models.chat.canon.ChatModel;
+import com.symphony.oss.models.chat.canon.ISNSSQSWireObject;
+import com.symphony.oss.models.chat.canon.SNSSQSWireObjectEntity;
+import com.symphony.oss.models.core.canon.CoreModel;
+import com.symphony.oss.models.core.canon.facade.Envelope;
+import com.symphony.oss.models.core.canon.facade.IEnvelope;
+import com.symphony.oss.models.crypto.canon.CryptoModel;
+import com.symphony.sfs.ms.chat.datafeed.SnsNotificationDecoder;
+import com.symphony.sfs.ms.chat.model.FederatedAccount;
+import org.apache.commons.codec.binary.Base64;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.symphony.sfs.ms.chat.api.util.SnsMessageUtil.getAcceptedConnectionRequestMaestroMessage;
+import static com.symphony.sfs.ms.chat.api.util.SnsMessageUtil.getEnvelopeMessage;
+import static com.symphony.sfs.ms.chat.api.util.SnsMessageUtil.getSnsMaestroMessage;
+
+/**
+ * Compares the legacy SNS notification decoding of ForwarderQueueConsumer (tree parsing, canon wire object,
+ * re-serialization of Message, second parsing) with the single pass {@link SnsNotificationDecoder}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnsDecodingBenchmark {
+
+  private ObjectMapper objectMapper;
+  private ModelRegistry modelRegistry;
+  private SnsNotificationDecoder decoder;
+  private String notification;
+
+  @Setup
+  public void setUp() {
+    IEntityFactory<?, ?, ?>[] factories = Stream.of(CoreModel.FACTORIES, ChatModel.FACTORIES, CryptoModel.FACTORIES)
+      .flatMap(Arrays::stream)
+      .toArray(IEntityFactory<?, ?, ?>[]::new);
+    objectMapper = new ObjectMapper();
+    modelRegistry = new ModelRegistry().withFactories(factories);
+    decoder = new SnsNotificationDecoder(objectMapper.getFactory(), modelRegistry);
+
+    FederatedAccount requester = FederatedAccount.builder().firstName("John").lastName("Doe").symphonyUserId("13469017440257").build();
+    FederatedAccount requested = FederatedAccount.builder().firstName("Jane").lastName("Doe").symphonyUserId("13469017440258").build();
+    notification = getSnsMaestroMessage("196", getEnvelopeMessage(getAcceptedConnectionRequestMaestroMessage(requester, requested)));
+  }
+
+  @Benchmark
+  public IEnvelope legacy() throws IOException {
+    ISNSSQSWireObject sqsObject = SNSSQSWireObjectEntity.FACTORY.newInstance(JacksonAdaptor.adaptObject((ObjectNode) objectMapper.readTree(notification)).immutify(), modelRegistry);
+    String b64Payload = objectMapper.readTree(sqsObject.getJsonObject().get("Message").toString()).get("payload").asText();
+    ImmutableByteArray payload = ImmutableByteArray.newInstance(Base64.decodeBase64(b64Payload));
+    return Envelope.FACTORY.newInstance(payload, modelRegistry);
+  }
+
+  @Benchmark
+  public IEnvelope streaming() throws IOException {
+    return decoder.decode(notification).getEnvelope();
+  }
+}
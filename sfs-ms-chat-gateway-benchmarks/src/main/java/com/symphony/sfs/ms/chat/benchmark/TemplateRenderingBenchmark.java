@@ -0,0 +1,53 @@
+package com.symphony.sfs.ms.chat.benchmark;
+
+import com.symphony.sfs.ms.chat.config.HandlebarsConfiguration;
+import com.symphony.sfs.ms.chat.util.SymphonySystemMessageTemplateProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.symphony.sfs.ms.chat.service.SymphonyMessageSender.SYSTEM_MESSAGE_ALERT_HANDLEBARS_TEMPLATE;
+
+/**
+ * Rendering of an alert system message: a message already rendered (same alert sent to the members of a stream) and
+ * a new message for each call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TemplateRenderingBenchmark {
+
+  private SymphonySystemMessageTemplateProcessor templateProcessor;
+  private List<String> errors;
+  private long messageNumber;
+
+  @Setup
+  public void setUp() throws Exception {
+    templateProcessor = new SymphonySystemMessageTemplateProcessor(new HandlebarsConfiguration().handlebars());
+    templateProcessor.compileTemplates();
+    errors = List.of("The message was not delivered to John Doe", "The message was not delivered to Jane Doe");
+  }
+
+  @Benchmark
+  public String renderedAlert() {
+    return templateProcessor.process("Your message was not delivered", "Message not delivered", errors, SYSTEM_MESSAGE_ALERT_HANDLEBARS_TEMPLATE);
+  }
+
+  @Benchmark
+  public String newAlert() {
+    return templateProcessor.process("Your message " + messageNumber++ + " was not delivered", "Message not delivered", errors, SYSTEM_MESSAGE_ALERT_HANDLEBARS_TEMPLATE);
+  }
+}
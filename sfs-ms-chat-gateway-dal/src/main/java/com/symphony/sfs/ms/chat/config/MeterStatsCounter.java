@@ -0,0 +1,74 @@
+package com.symphony.sfs.ms.chat.config;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import com.symphony.sfs.ms.starter.health.MeterManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caffeine stats counter publishing the cache hits, misses, loads and evictions through the {@link MeterManager}
+ */
+public class MeterStatsCounter implements StatsCounter {
+
+  private final StatsCounter delegate = new ConcurrentStatsCounter();
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Timer loadSuccess;
+  private final Timer loadFailure;
+  private final Counter evictions;
+
+  public MeterStatsCounter(MeterManager meterManager, String cacheName) {
+    hits = meterManager.register(Counter.builder("sfs.cache.gets").tag("cache", cacheName).tag("result", "hit"));
+    misses = meterManager.register(Counter.builder("sfs.cache.gets").tag("cache", cacheName).tag("result", "miss"));
+    loadSuccess = meterManager.register(Timer.builder("sfs.cache.load").tag("cache", cacheName).tag("result", "success").publishPercentileHistogram());
+    loadFailure = meterManager.register(Timer.builder("sfs.cache.load").tag("cache", cacheName).tag("result", "failure"));
+    evictions = meterManager.register(Counter.builder("sfs.cache.evictions").tag("cache", cacheName));
+  }
+
+  @Override
+  public void recordHits(int count) {
+    delegate.recordHits(count);
+    hits.increment(count);
+  }
+
+  @Override
+  public void recordMisses(int count) {
+    delegate.recordMisses(count);
+    misses.increment(count);
+  }
+
+  @Override
+  public void recordLoadSuccess(long loadTime) {
+    delegate.recordLoadSuccess(loadTime);
+    loadSuccess.record(loadTime, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void recordLoadFailure(long loadTime) {
+    delegate.recordLoadFailure(loadTime);
+    loadFailure.record(loadTime, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  @SuppressWarnings("deprecation")
+  public void recordEviction() {
+    recordEviction(1, RemovalCause.SIZE);
+  }
+
+  @Override
+  public void recordEviction(int weight, RemovalCause cause) {
+    delegate.recordEviction(weight, cause);
+    evictions.increment();
+  }
+
+  @Override
+  public CacheStats snapshot() {
+    return delegate.snapshot();
+  }
+}
@@ -0,0 +1,21 @@
+package com.symphony.sfs.ms.chat.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties("microservice.chat.federated-account-cache")
+public class FederatedAccountCacheConfiguration {
+  private boolean enabled = true;
+
+  private long maximumSize = 50_000;
+
+  private Duration ttl = Duration.ofMinutes(5);
+
+  // Accounts may be created by another instance: unknown symphony ids are only cached for a short time
+  private Duration negativeTtl = Duration.ofSeconds(30);
+}
@@ -0,0 +1,93 @@
+package com.symphony.sfs.ms.chat.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.symphony.sfs.ms.chat.config.MeterStatsCounter;
+import com.symphony.sfs.ms.chat.config.properties.FederatedAccountCacheConfiguration;
+import com.symphony.sfs.ms.chat.model.FederatedAccount;
+import com.symphony.sfs.ms.starter.health.MeterManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Near cache of the federated accounts by symphony id, absent accounts included.
+ * <p>
+ * Cached accounts are copied in and out so that callers can freely modify the returned entities.
+ */
+@Component
+public class FederatedAccountCache {
+
+  public static final String CACHE_NAME = "federatedAccountBySymphonyId";
+
+  private final Cache<String, Optional<FederatedAccount>> cache;
+
+  public FederatedAccountCache(FederatedAccountCacheConfiguration configuration, MeterManager meterManager) {
+    if (configuration.isEnabled()) {
+      long ttl = configuration.getTtl().toNanos();
+      long negativeTtl = configuration.getNegativeTtl().toNanos();
+      this.cache = Caffeine.newBuilder()
+        .maximumSize(configuration.getMaximumSize())
+        .expireAfter(new Expiry<String, Optional<FederatedAccount>>() {
+          @Override
+          public long expireAfterCreate(String key, Optional<FederatedAccount> value, long currentTime) {
+            return value.isPresent() ? ttl : negativeTtl;
+          }
+
+          @Override
+          public long expireAfterUpdate(String key, Optional<FederatedAccount> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(String key, Optional<FederatedAccount> value, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats(() -> new MeterStatsCounter(meterManager, CACHE_NAME))
+        .build();
+    } else {
+      this.cache = null;
+    }
+  }
+
+  /**
+   * Get the account from the cache, loading it on a miss. Concurrent loads of a same symphony id are coalesced.
+   */
+  public Optional<FederatedAccount> get(String symphonyId, Function<String, Optional<FederatedAccount>> loader) {
+    if (cache == null || symphonyId == null) {
+      return loader.apply(symphonyId);
+    }
+    return cache.get(symphonyId, loader).map(FederatedAccountCache::copy);
+  }
+
+  public void put(FederatedAccount federatedAccount) {
+    if (cache != null && federatedAccount.getSymphonyUserId() != null) {
+      cache.put(federatedAccount.getSymphonyUserId(), Optional.of(copy(federatedAccount)));
+    }
+  }
+
+  public void putAbsent(String symphonyId) {
+    if (cache != null && symphonyId != null) {
+      cache.put(symphonyId, Optional.empty());
+    }
+  }
+
+  public void invalidate(String symphonyId) {
+    if (cache != null && symphonyId != null) {
+      cache.invalidate(symphonyId);
+    }
+  }
+
+  public void invalidateAll() {
+    if (cache != null) {
+      cache.invalidateAll();
+    }
+  }
+
+  private static FederatedAccount copy(FederatedAccount federatedAccount) {
+    return new FederatedAccount(federatedAccount.toAttributeMap());
+  }
+}
@@ -5,6 +5,7 @@
 import com.symphony.sfs.ms.starter.dynamo.AbstractRawDynamoRepository;
 import com.symphony.sfs.ms.starter.dynamo.schema.DynamoSchema;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.sleuth.annotation.NewSpan;
 import org.springframework.stereotype.Repository;
 
@@ -21,13 +22,23 @@
 @Slf4j
 public class FederatedAccountRepository extends AbstractRawDynamoRepository {
 
+  private final FederatedAccountCache federatedAccountCache;
+
   public FederatedAccountRepository(AmazonDynamoDB amazonDynamoDB, DynamoSchema schema) {
+    this(amazonDynamoDB, schema, null);
+  }
+
+  @Autowired
+  public FederatedAccountRepository(AmazonDynamoDB amazonDynamoDB, DynamoSchema schema, FederatedAccountCache federatedAccountCache) {
     super(amazonDynamoDB, schema);
+    this.federatedAccountCache = federatedAccountCache;
   }
 
   @NewSpan
   public FederatedAccount save(FederatedAccount entity) {
-    return super.save(entity);
+    FederatedAccount saved = super.save(entity);
+    cachePut(saved);
+    return saved;
   }
 
   @NewSpan
@@ -35,7 +46,9 @@ public FederatedAccount saveIfNotExists(FederatedAccount entity) {
     String pkName = schema.getPrimaryKey().getPartitionKeyName();
     String skName = schema.getPrimaryKey().getSortKeyName();
 
-    return super.save(entity, "attribute_not_exists(" + pkName + ") AND attribute_not_exists(" + skName + ")");
+    FederatedAccount saved = super.save(entity, "attribute_not_exists(" + pkName + ") AND attribute_not_exists(" + skName + ")");
+    cachePut(saved);
+    return saved;
   }
 
   @NewSpan
@@ -48,13 +61,32 @@ public Optional<FederatedAccount> findByFederatedUserIdAndEmp(String federatedUs
     return findByPrimaryKey(federatedAccountPk(federatedUserId), federatedAccountSk(emp), FederatedAccount::new);
   }
 
+  /**
+   * Served from the {@link FederatedAccountCache} when enabled, absent accounts included
+   */
   @NewSpan
   public Optional<FederatedAccount> findBySymphonyId(String symphonyId) {
-    return findBySecondaryKey(GSI1_IDX, federatedAccountGsi1Pk(symphonyId), federatedAccountGsi1Sk(), FederatedAccount::new);
+    if (federatedAccountCache == null) {
+      return querySymphonyId(symphonyId);
+    }
+    return federatedAccountCache.get(symphonyId, this::querySymphonyId);
   }
 
   @NewSpan
   public void delete(FederatedAccount federatedAccount) {
     super.delete(federatedAccount);
+    if (federatedAccountCache != null) {
+      federatedAccountCache.putAbsent(federatedAccount.getSymphonyUserId());
+    }
+  }
+
+  private Optional<FederatedAccount> querySymphonyId(String symphonyId) {
+    return findBySecondaryKey(GSI1_IDX, federatedAccountGsi1Pk(symphonyId), federatedAccountGsi1Sk(), FederatedAccount::new);
+  }
+
+  private void cachePut(FederatedAccount federatedAccount) {
+    if (federatedAccountCache != null && federatedAccount != null) {
+      federatedAccountCache.put(federatedAccount);
+    }
   }
 }
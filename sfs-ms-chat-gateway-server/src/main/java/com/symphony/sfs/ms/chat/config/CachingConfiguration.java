@@ -1,33 +1,98 @@
 package com.symphony.sfs.ms.chat.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.chat.service.ContentKeyPrefetcher;
+import com.symphony.sfs.ms.starter.health.MeterManager;
 import com.symphony.sfs.ms.starter.i18n.MessageSourceChain;
 import com.symphony.sfs.ms.starter.symphony.crypto.ContentKeyManager;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.Scheduled;
 
-import java.util.Arrays;
-
-import static com.symphony.sfs.ms.chat.service.JwtTokenGenerator.MICROSERVICE_NAME;
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Configuration
 @EnableCaching
 @Slf4j
-public class CachingConfiguration implements CacheManagerCustomizer<ConcurrentMapCacheManager> {
+@RequiredArgsConstructor
+public class CachingConfiguration implements CacheManagerCustomizer<CaffeineCacheManager> {
 
+  private final ChatConfiguration chatConfiguration;
+  private final MeterManager meterManager;
 
   @Override
-  public void customize(ConcurrentMapCacheManager cacheManager) {
-    cacheManager.setCacheNames(Arrays.asList(ContentKeyManager.CONTENT_KEY_CACHE, MessageSourceChain.CACHE_NAME));
+  public void customize(CaffeineCacheManager cacheManager) {
+    cacheManager.setCacheNames(Collections.singletonList(MessageSourceChain.CACHE_NAME));
+
+    ChatConfiguration.KeyCache keyCache = chatConfiguration.getKeyCache();
+    cacheManager.registerCustomCache(ContentKeyManager.CONTENT_KEY_CACHE, Caffeine.newBuilder()
+      .maximumSize(keyCache.getMaximumSize())
+      .expireAfter(new ContentKeyExpiry(keyCache.getTtl().toNanos(), keyCache.getJitter(), keyCache.getRefreshWindow().toNanos()))
+      .recordStats(() -> new MeterStatsCounter(meterManager, ContentKeyManager.CONTENT_KEY_CACHE))
+      .build());
   }
 
-  @CacheEvict(allEntries = true, value = {ContentKeyManager.CONTENT_KEY_CACHE})
-  @Scheduled(fixedDelayString = "${microservice.chat.key-cache.ttl:7200000}")
-  public void clearContentKeyCache() {
-    LOG.info("Cleared content key cache");
+  /**
+   * Content keys are immutable for a given thread and rotation: instead of fetching them again from the KM,
+   * hot keys read close to their expiry are given a new time to live.
+   * Expiry is jittered so that keys cached at the same time do not all expire at once.
+   */
+  static class ContentKeyExpiry implements Expiry<Object, Object> {
+    private final long ttl;
+    private final long jitter;
+    private final long refreshWindow;
+
+    ContentKeyExpiry(long ttl, double jitter, long refreshWindow) {
+      this.ttl = ttl;
+      this.jitter = (long) (ttl * Math.max(0, Math.min(jitter, 1)));
+      this.refreshWindow = refreshWindow;
+    }
+
+    long jitteredTtl() {
+      return jitter == 0 ? ttl : ttl + ThreadLocalRandom.current().nextLong(-jitter, jitter + 1);
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+      return jitteredTtl();
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+      return jitteredTtl();
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+      return currentDuration <= refreshWindow ? jitteredTtl() : currentDuration;
+    }
+  }
+
+  /**
+   * Legacy full flush of the content key cache, only enabled with microservice.chat.key-cache.flush-enabled
+   */
+  @Configuration
+  @ConditionalOnProperty(value = "microservice.chat.key-cache.flush-enabled", havingValue = "true")
+  @RequiredArgsConstructor
+  public static class ContentKeyCacheFlushConfiguration {
+
+    private final ContentKeyPrefetcher contentKeyPrefetcher;
+
+    @CacheEvict(allEntries = true, value = {ContentKeyManager.CONTENT_KEY_CACHE})
+    @Scheduled(fixedDelayString = "${microservice.chat.key-cache.ttl:7200000}")
+    public void clearContentKeyCache() {
+      // the flushed keys are prefetched again
+      contentKeyPrefetcher.invalidateAll();
+      LOG.info("Cleared content key cache");
+    }
   }
 }
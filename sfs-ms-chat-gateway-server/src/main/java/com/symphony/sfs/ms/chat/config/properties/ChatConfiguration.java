@@ -8,6 +8,7 @@
 
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import java.time.Duration;
 
 @Data
 @Component
@@ -27,4 +28,101 @@ public class ChatConfiguration {
   private PemResource privateKey;
 
   private String stopImCreationAt;
+
+  private Dispatcher dispatcher = new Dispatcher();
+
+  private KeyCache keyCache = new KeyCache();
+
+  private ContentKeyPrefetch contentKeyPrefetch = new ContentKeyPrefetch();
+
+  private MicroserviceToken microserviceToken = new MicroserviceToken();
+
+  private AttachmentFetch attachmentFetch = new AttachmentFetch();
+
+  private BlockedFileTypesCache blockedFileTypesCache = new BlockedFileTypesCache();
+
+  private CanChatCache canChatCache = new CanChatCache();
+
+  private StreamInfoCache streamInfoCache = new StreamInfoCache();
+
+  private MessageRetrieval messageRetrieval = new MessageRetrieval();
+
+  @Data
+  public static class Dispatcher {
+    // Number of single threaded lanes the datafeed events are sharded on, 0 to dispatch on the SQS listener thread.
+    // Lanes make blocking calls to the EMPs, the pod and the admin microservice: this is the processing parallelism
+    private int lanes = 100;
+    // Pending events per lane before the SQS listener threads are blocked, pending events are not acknowledged yet
+    private int queueCapacity = 10;
+    // Maximum time an SQS listener thread waits for room in a full lane, the message is redelivered afterwards
+    private Duration offerTimeout = Duration.ofSeconds(30);
+  }
+
+  @Data
+  public static class KeyCache {
+    // Time to live of a content key, a plain number is read as milliseconds
+    private Duration ttl = Duration.ofHours(2);
+    private long maximumSize = 100_000;
+    // Expiry is randomly spread by +/- this fraction of the ttl so that keys cached together do not expire together
+    private double jitter = 0.1;
+    // A key read during the last part of its lifetime gets a new ttl instead of being fetched again from the KM
+    private Duration refreshWindow = Duration.ofMinutes(15);
+    // Legacy fallback: flush the whole cache every ttl
+    private boolean flushEnabled = false;
+  }
+
+  @Data
+  public static class ContentKeyPrefetch {
+    // Number of content keys fetched in parallel ahead of the first message of a stream
+    private int concurrency = 4;
+    // Pending prefetches, further ones are dropped and the keys are fetched when needed
+    private int queueCapacity = 1_000;
+  }
+
+  @Data
+  public static class MicroserviceToken {
+    // Fraction of the token lifetime after which a new token is signed in the background, in (0, 0.9]
+    private double refreshRatio = 0.5;
+    // Lifetime assumed for tokens without exp claim
+    private Duration defaultLifetime = Duration.ofMinutes(5);
+  }
+
+  @Data
+  public static class AttachmentFetch {
+    // Attachments of a same message downloaded concurrently from the pod
+    private int perMessageConcurrency = 4;
+    // Attachment downloads in flight across all the messages
+    private int globalConcurrency = 32;
+  }
+
+  @Data
+  public static class BlockedFileTypesCache {
+    // Time during which the blocked file types of a stream are reused without asking the admin microservice
+    private Duration ttl = Duration.ofMinutes(5);
+    private long maximumSize = 10_000;
+  }
+
+  @Data
+  public static class CanChatCache {
+    // Time to live of a CAN_CHAT decision
+    private Duration allowedTtl = Duration.ofMinutes(1);
+    // Time to live of a NO_CONTACT or NO_ENTITLEMENT decision
+    private Duration deniedTtl = Duration.ofSeconds(10);
+    private long maximumSize = 50_000;
+  }
+
+  @Data
+  public static class StreamInfoCache {
+    // Time during which the members of a stream are reused, the stream type is kept as long as the stream is cached
+    private Duration membersTtl = Duration.ofMinutes(10);
+    private long maximumSize = 50_000;
+  }
+
+  @Data
+  public static class MessageRetrieval {
+    // Only keep the requested messages of the paged thread history and the messages they quote. When disabled, all the
+    // messages paged until the requested ones are found are kept. In both modes the quoted messages that are not paged
+    // are fetched one by one
+    private boolean incremental = true;
+  }
 }
@@ -0,0 +1,158 @@
+package com.symphony.sfs.ms.chat.datafeed;
+
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.starter.health.MeterManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches the datafeed events on a fixed set of single threaded lanes.
+ * <p>
+ * Events are sharded by key (the streamId for conversation events): events of a same conversation are processed in
+ * order, while different conversations are processed in parallel.
+ * <p>
+ * The SQS listener thread does not wait for its event to be processed, it gets a future completed by the lane and
+ * acknowledges the SQS message once it succeeds. A failing listener then still leaves the message on the queue for a
+ * redelivery. When a lane is full, the listener thread is blocked (up to the offer timeout) which in turn stops the SQS
+ * container from polling more messages.
+ * <p>
+ * The lanes run the listeners, and their blocking EMP, pod and admin calls: the number of lanes is the number of
+ * events processed in parallel. Streams sharded on a same lane wait for each other, more lanes make this less likely.
+ * An event waiting in a lane is not acknowledged yet, the queue capacity must keep that wait below the SQS visibility
+ * timeout.
+ */
+@Component
+@Slf4j
+public class DatafeedDispatcher {
+
+  public static final CompletableFuture<Void> PROCESSED = CompletableFuture.completedFuture(null);
+
+  private final Lane[] lanes;
+  private final long offerTimeoutMillis;
+  private final Timer laneLag;
+  private final Counter rejected;
+
+  public DatafeedDispatcher(ChatConfiguration chatConfiguration, MeterManager meterManager) {
+    ChatConfiguration.Dispatcher configuration = chatConfiguration.getDispatcher();
+    this.offerTimeoutMillis = configuration.getOfferTimeout().toMillis();
+    this.laneLag = meterManager.register(Timer.builder("sfs.datafeed.dispatch.lag").publishPercentileHistogram());
+    this.rejected = meterManager.register(Counter.builder("sfs.datafeed.dispatch.rejected"));
+
+    this.lanes = new Lane[Math.max(0, configuration.getLanes())];
+    for (int i = 0; i < lanes.length; i++) {
+      lanes[i] = new Lane(i, configuration.getQueueCapacity());
+      meterManager.register(Gauge.builder("sfs.datafeed.dispatch.queue.depth", lanes[i].queue, BlockingQueue::size)
+        .tag("lane", Integer.toString(i)));
+    }
+    LOG.info("Datafeed dispatcher started | lanes={} queueCapacity={}", lanes.length, configuration.getQueueCapacity());
+  }
+
+  /**
+   * Queues the event on the lane of its key.
+   * <p>
+   * The event is run right away on the calling thread when there are no lanes, or when it is dispatched from the lane
+   * of its key: waiting for a room in its own lane would never end.
+   *
+   * @param key   sharding key, events with the same key are processed in order
+   * @param event the listener notification
+   * @return completed once the event is processed, exceptionally if the listener failed
+   * @throws RejectedExecutionException if the lane stayed full during the offer timeout
+   */
+  public CompletableFuture<Void> dispatch(String key, Runnable event) {
+    if (lanes.length == 0) {
+      event.run();
+      return PROCESSED;
+    }
+
+    Lane lane = lanes[Math.floorMod(key == null ? 0 : key.hashCode(), lanes.length)];
+    if (Thread.currentThread() == lane.thread) {
+      event.run();
+      return PROCESSED;
+    }
+
+    LaneTask task = new LaneTask(event, MDC.getCopyOfContextMap());
+    try {
+      if (!lane.queue.offer(task, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+        rejected.increment();
+        throw new RejectedExecutionException("Datafeed lane " + lane.index + " is full");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException(e);
+    }
+    return task.completion;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    for (Lane lane : lanes) {
+      lane.thread.interrupt();
+    }
+  }
+
+  private static class LaneTask {
+    private final Runnable event;
+    private final Map<String, String> mdc;
+    // before the offer, a wait for room in a full lane is part of the lag
+    private final long enqueuedAt = System.nanoTime();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    private LaneTask(Runnable event, Map<String, String> mdc) {
+      this.event = event;
+      this.mdc = mdc;
+    }
+  }
+
+  private class Lane implements Runnable {
+    private final int index;
+    private final BlockingQueue<LaneTask> queue;
+    private final Thread thread;
+
+    private Lane(int index, int capacity) {
+      this.index = index;
+      this.queue = new ArrayBlockingQueue<>(capacity);
+      this.thread = new Thread(this, "datafeed-lane-" + index);
+      this.thread.setDaemon(true);
+      this.thread.start();
+    }
+
+    @Override
+    public void run() {
+      while (!Thread.currentThread().isInterrupted()) {
+        LaneTask task;
+        try {
+          task = queue.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+
+        laneLag.record(System.nanoTime() - task.enqueuedAt, TimeUnit.NANOSECONDS);
+        if (task.mdc != null) {
+          MDC.setContextMap(task.mdc);
+        }
+        try {
+          task.event.run();
+          task.completion.complete(null);
+        } catch (Throwable t) {
+          task.completion.completeExceptionally(t);
+        } finally {
+          MDC.clear();
+        }
+      }
+      queue.forEach(task -> task.completion.completeExceptionally(new RejectedExecutionException("Datafeed dispatcher is shut down")));
+    }
+  }
+}
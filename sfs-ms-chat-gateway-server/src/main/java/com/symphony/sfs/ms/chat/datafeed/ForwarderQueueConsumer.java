@@ -1,30 +1,25 @@
 package com.symphony.sfs.ms.chat.datafeed;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.symphony.oss.canon.runtime.IEntityFactory;
 import com.symphony.oss.canon.runtime.ModelRegistry;
 import com.symphony.oss.commons.dom.json.IJsonObject;
 import com.symphony.oss.commons.dom.json.ImmutableJsonList;
-import com.symphony.oss.commons.dom.json.jackson.JacksonAdaptor;
-import com.symphony.oss.commons.immutable.ImmutableByteArray;
 import com.symphony.oss.models.chat.canon.ChatModel;
 import com.symphony.oss.models.chat.canon.IAttachment;
 import com.symphony.oss.models.chat.canon.IMaestroMessage;
-import com.symphony.oss.models.chat.canon.ISNSSQSWireObject;
 import com.symphony.oss.models.chat.canon.IUserEntity;
 import com.symphony.oss.models.chat.canon.MaestroEventType;
 import com.symphony.oss.models.chat.canon.MaestroMessage;
-import com.symphony.oss.models.chat.canon.SNSSQSWireObjectEntity;
 import com.symphony.oss.models.chat.canon.facade.ISocialMessage;
 import com.symphony.oss.models.chat.canon.facade.IUser;
 import com.symphony.oss.models.chat.canon.facade.SocialMessage;
 import com.symphony.oss.models.core.canon.CoreModel;
-import com.symphony.oss.models.core.canon.facade.Envelope;
 import com.symphony.oss.models.core.canon.facade.IEnvelope;
 import com.symphony.oss.models.core.canon.facade.PodAndUserId;
 import com.symphony.oss.models.crypto.canon.CryptoModel;
 import com.symphony.sfs.ms.chat.exception.DecryptionException;
+import com.symphony.sfs.ms.chat.service.ContentKeyPrefetcher;
 import com.symphony.sfs.ms.chat.service.MessageIOMonitor;
 import com.symphony.sfs.ms.starter.config.properties.BotConfiguration;
 import com.symphony.sfs.ms.starter.config.properties.PodConfiguration;
@@ -33,6 +28,7 @@
 import com.symphony.sfs.ms.starter.symphony.auth.SymphonySession;
 import com.symphony.sfs.ms.starter.symphony.crypto.exception.ContentKeyRetrievalException;
 import com.symphony.sfs.ms.starter.symphony.crypto.exception.UnknownUserException;
+import io.awspring.cloud.messaging.listener.Acknowledgment;
 import io.awspring.cloud.messaging.listener.SqsMessageDeletionPolicy;
 import io.awspring.cloud.messaging.listener.annotation.SqsListener;
 import io.micrometer.core.instrument.Counter;
@@ -47,13 +43,13 @@
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
-import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -62,19 +58,25 @@
 import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.BlockingCauseFromSymphony.NO_GATEWAY_MANAGED_ACCOUNT;
 import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.BlockingCauseFromSymphony.SOCIAL_MESSAGE_MALFORMED;
 import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.BlockingCauseFromSymphony.UNMANAGED_ACCOUNT;
+import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.Stage.ENVELOPE_PARSE;
+import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.Stage.LISTENER_DISPATCH;
+import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.Stage.SESSION_LOOKUP;
+import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.Stage.SNS_DECODE;
 
 @Service
 @Slf4j
 public class ForwarderQueueConsumer {
 
-  private final ObjectMapper objectMapper;
   private final MessageDecryptor messageDecryptor;
   private final DatafeedSessionPool datafeedSessionPool;
   private final ModelRegistry modelRegistry;
+  private final SnsNotificationDecoder snsNotificationDecoder;
 
   @Getter
   private final MultiListener<String> rawListener = new MultiListener<>();
   private final MultiDatafeedListener datafeedListener = new MultiDatafeedListener();
+  private final DatafeedDispatcher datafeedDispatcher;
+  private final ContentKeyPrefetcher contentKeyPrefetcher;
 
   private final ForwarderQueueMetrics forwarderQueueMetrics;
   private final MessageIOMonitor messageIOMonitor;
@@ -83,13 +85,14 @@ public class ForwarderQueueConsumer {
   private final PodConfiguration podConfiguration;
 
 
-  public ForwarderQueueConsumer(ObjectMapper objectMapper, MessageDecryptor messageDecryptor, DatafeedSessionPool datafeedSessionPool, MessageIOMonitor messageIOMonitor, MeterManager meterManager, BotConfiguration botConfiguration, PodConfiguration podConfiguration) {
-    this.objectMapper = objectMapper;
+  public ForwarderQueueConsumer(ObjectMapper objectMapper, MessageDecryptor messageDecryptor, DatafeedSessionPool datafeedSessionPool, MessageIOMonitor messageIOMonitor, MeterManager meterManager, BotConfiguration botConfiguration, PodConfiguration podConfiguration, DatafeedDispatcher datafeedDispatcher, ContentKeyPrefetcher contentKeyPrefetcher) {
     this.messageDecryptor = messageDecryptor;
     this.datafeedSessionPool = datafeedSessionPool;
     this.messageIOMonitor = messageIOMonitor;
     this.botConfiguration = botConfiguration;
     this.podConfiguration = podConfiguration;
+    this.datafeedDispatcher = datafeedDispatcher;
+    this.contentKeyPrefetcher = contentKeyPrefetcher;
     this.forwarderQueueMetrics = new ForwarderQueueMetrics(meterManager);
 
     // Hell...
@@ -106,6 +109,10 @@ public ForwarderQueueConsumer(ObjectMapper objectMapper, MessageDecryptor messag
       .toArray(IEntityFactory<?, ?, ?>[]::new);
 
     modelRegistry = new ModelRegistry().withFactories(factories);
+    snsNotificationDecoder = new SnsNotificationDecoder(objectMapper.getFactory(), modelRegistry);
+
+    // registered here rather than by the prefetcher itself, it would otherwise depend on this consumer
+    registerDatafeedListener(contentKeyPrefetcher);
   }
 
   public void registerDatafeedListener(DatafeedListener listener) {
@@ -116,39 +123,44 @@ public void unregisterDatafeedListener(DatafeedListener listener) {
     datafeedListener.unregister(listener);
   }
 
-  @SqsListener(value = {"${aws.sqs.ingestion}"}, deletionPolicy = SqsMessageDeletionPolicy.ON_SUCCESS)
-  public void consume(String notification, @Header("ApproximateReceiveCount") String receiveCount) throws IOException {
+  /**
+   * The SQS message is acknowledged once its event has been processed on its {@link DatafeedDispatcher dispatcher}
+   * lane, the listener thread does not wait for it
+   */
+  @SqsListener(value = {"${aws.sqs.ingestion}"}, deletionPolicy = SqsMessageDeletionPolicy.NEVER)
+  public void consume(String notification, @Header("ApproximateReceiveCount") String receiveCount, Acknowledgment acknowledgment) throws IOException {
     // CES-1791
     // Before we handle the incoming message, we clear the MDC for the current thread
     MDC.clear();
 
-    ISNSSQSWireObject sqsObject = SNSSQSWireObjectEntity.FACTORY.newInstance(JacksonAdaptor.adaptObject((ObjectNode) objectMapper.readTree(notification)).immutify(), modelRegistry);
-    // String payloadType = sqsObject.getJsonObject().getObject("MessageAttributes").getObject("payloadType").get("Value").toString();
-
-    IEnvelope envelope = parseEnvelope(sqsObject);
+    long start = System.nanoTime();
+    IEnvelope envelope = snsNotificationDecoder.decode(notification).getEnvelope();
+    messageIOMonitor.onStage(SNS_DECODE, MessageIOMonitor.UNKNOWN, MessageIOMonitor.UNKNOWN, start);
     String payloadType = envelope.getPayload().getCanonType();
 
     forwarderQueueMetrics.incomingMessages.increment();
     LOG.debug("Message received | payloadType={} notification={}", payloadType, notification);
 
+    CompletableFuture<Void> processed;
     switch (payloadType) {
       case SocialMessage.TYPE_ID:
-        notifySocialMessage(envelope, receiveCount);
+        processed = notifySocialMessage(envelope, receiveCount);
         break;
       case MaestroMessage.TYPE_ID:
-        notifyMaestroMessage(envelope);
+        processed = notifyMaestroMessage(envelope);
         break;
       default:
         LOG.debug("Unsupported payload type | type={}", payloadType);
+        processed = DatafeedDispatcher.PROCESSED;
     }
 
     rawListener.accept(notification);
+    acknowledgeWhenProcessed(processed, acknowledgment);
   }
 
-  @SqsListener(value = {"${aws.sqs.ingestionCustomersPod}"}, deletionPolicy = SqsMessageDeletionPolicy.ON_SUCCESS)
-  public void consumeCustomersPodEvents(String notification) throws IOException {
-    ISNSSQSWireObject sqsObject = SNSSQSWireObjectEntity.FACTORY.newInstance(JacksonAdaptor.adaptObject((ObjectNode) objectMapper.readTree(notification)).immutify(), modelRegistry);
-    IEnvelope envelope = parseEnvelope(sqsObject);
+  @SqsListener(value = {"${aws.sqs.ingestionCustomersPod}"}, deletionPolicy = SqsMessageDeletionPolicy.NEVER)
+  public void consumeCustomersPodEvents(String notification, Acknowledgment acknowledgment) throws IOException {
+    IEnvelope envelope = snsNotificationDecoder.decode(notification).getEnvelope();
     IMaestroMessage maestroMessage = MaestroMessage.FACTORY.newInstance(envelope.getPayload().getJsonObject(), modelRegistry);
 
     String podId = envelope.getAttributes().get("podId").toString();
@@ -156,14 +168,27 @@ public void consumeCustomersPodEvents(String notification) throws IOException {
     //Only UPDATE_USER is received by the queue for now
     if (podConfiguration.getId().equals(podId)) {
       LOG.info("Received UPDATE_USER event from federation Pod, nothing to do"); //This should be a federated Account
+      acknowledgment.acknowledge();
       return;
     }
 
-    datafeedListener.onUserUpdated(maestroMessage, podId);
+    acknowledgeWhenProcessed(datafeedDispatcher.dispatch(podId, () -> datafeedListener.onUserUpdated(maestroMessage, podId)), acknowledgment);
   }
 
-  private void notifySocialMessage(IEnvelope envelope, String receiveCount) {
+  private void acknowledgeWhenProcessed(CompletableFuture<Void> processed, Acknowledgment acknowledgment) {
+    processed.whenComplete((result, error) -> {
+      if (error == null) {
+        acknowledgment.acknowledge();
+      } else {
+        // not acknowledged, the message is received again once its visibility timeout expires
+        LOG.error("Datafeed event processing failed", error);
+      }
+    });
+  }
+
+  private CompletableFuture<Void> notifySocialMessage(IEnvelope envelope, String receiveCount) {
     // getting the SocialMessage from the envelope
+    long start = System.nanoTime();
     ISocialMessage socialMessage = SocialMessage.FACTORY.newInstance(envelope.getPayload().getJsonObject(), modelRegistry);
     forwarderQueueMetrics.incomingSocialMessages.increment();
 
@@ -181,13 +206,13 @@ private void notifySocialMessage(IEnvelope envelope, String receiveCount) {
     if (attributes == null && distList == null) {
       messageIOMonitor.onMessageBlockFromSymphony(SOCIAL_MESSAGE_MALFORMED, streamId);
       LOG.debug("No attributes in social message | envelope={}, payload={}", envelope, envelope.getPayload());
-      return;
+      return DatafeedDispatcher.PROCESSED;
     }
     ParentRelationshipType parentRelationshipType = ParentRelationshipType.fromJsonObject(envelope.getPayload().getJsonObject());
 
     // Count number of retries
     if (Integer.parseInt(receiveCount) > 1) {
-      forwarderQueueMetrics.onRetry(fromUser.getCompany());
+      messageIOMonitor.onSocialMessageRetry(fromUser.getCompany());
     }
     List<String> members = Collections.emptyList();
     if(attributes != null && attributes.containsKey("dist")) {
@@ -228,25 +253,36 @@ private void notifySocialMessage(IEnvelope envelope, String receiveCount) {
       .parentRelationshipType(parentRelationshipType)
       .chatType(chatType)
       .build();
+    String chatTypeTag = MessageIOMonitor.chatType(chatType);
+    messageIOMonitor.onStage(ENVELOPE_PARSE, MessageIOMonitor.UNKNOWN, chatTypeTag, start);
 
+    start = System.nanoTime();
     Optional<Pair<String, String>> managedSessionId = getManagedSessionId(gatewaySocialMessage);
+    messageIOMonitor.onStage(SESSION_LOOKUP, MessageIOMonitor.UNKNOWN, chatTypeTag, start);
     if (managedSessionId.isEmpty()) {
       messageIOMonitor.onMessageBlockFromSymphony(NO_GATEWAY_MANAGED_ACCOUNT, streamId);
       LOG.warn("IM message with no gateway-managed accounts | stream={} members={} initiator={}", streamId, members, fromUser.getId());
-      return;
+      return DatafeedDispatcher.PROCESSED;
     }
 
     try {
       messageDecryptor.decrypt(socialMessage, managedSessionId.get().getLeft(), managedSessionId.get().getRight(), gatewaySocialMessage);
       LOG.debug("onIMMessage | decryptedSocialMessage={}", gatewaySocialMessage); //To uncomment for local execution
-      datafeedListener.onIMMessage(gatewaySocialMessage);
-
-      // time in milliseconds between now (the message is sent to WhatsApp) and the ingestion date
-      forwarderQueueMetrics.socialMessageProcessingTime.record(Duration.ofMillis(OffsetDateTime.now().toEpochSecond() * 1000 - timestamp));
-
+      // the key of the decrypting member is now cached, warm the ones of the other managed members
+      contentKeyPrefetcher.onStreamSighted(streamId, members);
+      // the stage includes the wait in the lane of the stream
+      long dispatchStart = System.nanoTime();
+      return datafeedDispatcher.dispatch(streamId, () -> {
+        datafeedListener.onIMMessage(gatewaySocialMessage);
+        messageIOMonitor.onStage(LISTENER_DISPATCH, MessageIOMonitor.UNKNOWN, chatTypeTag, dispatchStart);
+
+        // time in milliseconds between now (the message is sent to WhatsApp) and the ingestion date
+        forwarderQueueMetrics.socialMessageProcessingTime.record(System.currentTimeMillis() - timestamp, TimeUnit.MILLISECONDS);
+      });
     } catch (UnknownUserException e) {
       messageIOMonitor.onMessageBlockFromSymphony(UNMANAGED_ACCOUNT, streamId);
       LOG.debug("Unmanaged user | message={}", e.getMessage());
+      return DatafeedDispatcher.PROCESSED;
     } catch (ContentKeyRetrievalException | DecryptionException e) {
       LOG.debug("Unable to decrypt social message: stream={} members={} initiator={}", streamId, members, fromUser.getId(), e);
       messageIOMonitor.onMessageBlockFromSymphony(DECRYPTION_FAILED, streamId);
@@ -271,7 +307,7 @@ private Optional<Pair<String, String>> getManagedSessionId(GatewaySocialMessage
     return Optional.empty();
   }
 
-  private void notifyMaestroMessage(IEnvelope envelope) {
+  private CompletableFuture<Void> notifyMaestroMessage(IEnvelope envelope) {
     // getting the MaestroMessage from the envelope
     IMaestroMessage maestroMessage = MaestroMessage.FACTORY.newInstance(envelope.getPayload().getJsonObject(), modelRegistry);
     forwarderQueueMetrics.incomingMaestroMessages.increment();
@@ -280,26 +316,24 @@ private void notifyMaestroMessage(IEnvelope envelope) {
     System.out.println(eventType);
     switch (eventType) {
       case CREATE_IM:
-        notifyCreateIm(maestroMessage);
-        break;
+        return notifyCreateIm(maestroMessage);
       case CONNECTION_REQUEST_ALERT:
-        notifyConnectionRequest(maestroMessage);
-        break;
+        return notifyConnectionRequest(maestroMessage);
       case JOIN_ROOM:
-        notifyJoinRoom(maestroMessage);
-        break;
+        return notifyJoinRoom(maestroMessage);
       case LEAVE_ROOM:
-        notifyLeaveRoom(maestroMessage);
-        break;
+        return notifyLeaveRoom(maestroMessage);
       case CREATE_ROOM:
         // TODO implement these events
         LOG.info("Create room events not supported");
         LOG.debug("Room event | envelope={} maestroMessage={}", envelope, maestroMessage);
-        break;
+        return DatafeedDispatcher.PROCESSED;
+      default:
+        return DatafeedDispatcher.PROCESSED;
     }
   }
 
-  private void notifyLeaveRoom(IMaestroMessage message) {
+  private CompletableFuture<Void> notifyLeaveRoom(IMaestroMessage message) {
     IJsonObject<?> maestroObject = message.getJsonObject().getRequiredObject("maestroObject");
     String streamId = Base64.encodeBase64URLSafeString(Base64.decodeBase64(maestroObject.getRequiredString("threadId").getBytes(StandardCharsets.UTF_8)));
     MDC.put("streamId", streamId);
@@ -316,16 +350,16 @@ private void notifyLeaveRoom(IMaestroMessage message) {
     // and not all members of the room
     if (!botConfiguration.getSymphonyId().equals(Long.toString(maestroObject.getRequiredLong("creator")))) {
       LOG.warn("Leave room not managed by bot | creator={} initiator={}",maestroObject.getRequiredLong("creator"), initiator.getId());
-      return;
+      return DatafeedDispatcher.PROCESSED;
     }
     LOG.info("Users leave room | requestingUser={} affectedUsers={}",
       initiator.getId(),
       message.getAffectedUsers().stream().map(IUserEntity::getId).collect(Collectors.toList())
     );
-    datafeedListener.onUserLeftRoom(streamId, initiator, message.getAffectedUsers());
+    return datafeedDispatcher.dispatch(streamId, () -> datafeedListener.onUserLeftRoom(streamId, initiator, message.getAffectedUsers()));
   }
 
-  private void notifyConnectionRequest(IMaestroMessage message) {
+  private CompletableFuture<Void> notifyConnectionRequest(IMaestroMessage message) {
     // apparently, there is no payload class for the CONNECTION_REQUEST_ALERT type -_-"
     String status = message.getPayload().getJsonObject().getRequiredString("status");
     IUser affectedUser = message.getAffectedUsers().get(0);
@@ -334,27 +368,29 @@ private void notifyConnectionRequest(IMaestroMessage message) {
     // if there is no session for both members of the connection request, it means that this user is not managed by our gateway
     if (!datafeedSessionPool.sessionExists(requesting.getId().toString()) && !datafeedSessionPool.sessionExists(affectedUser.getId().toString())) {
       LOG.warn("Connection request with no gateway-managed accounts | requesting={} requested={}", requesting.getUsername(), affectedUser.getUsername());
-      return;
+      return DatafeedDispatcher.PROCESSED;
     }
 
+    // connection events are not bound to a stream, keep the ones of a same pair of users in order
+    String connectionKey = Stream.of(requesting.getId().toString(), affectedUser.getId().toString()).sorted().collect(Collectors.joining(":"));
     if ("pending_incoming".equalsIgnoreCase(status)) {
       LOG.debug("onConnectionRequested | requesting={} requested={}", requesting.getUsername(), affectedUser.getUsername());
-      datafeedListener.onConnectionRequested(requesting, affectedUser);
+      return datafeedDispatcher.dispatch(connectionKey, () -> datafeedListener.onConnectionRequested(requesting, affectedUser));
     } else if ("accepted".equalsIgnoreCase(status)) {
       LOG.debug("onConnectionAccepted | requesting={} requested={}", affectedUser.getUsername(), requesting.getUsername());
-      datafeedListener.onConnectionAccepted(affectedUser, requesting);
+      return datafeedDispatcher.dispatch(connectionKey, () -> datafeedListener.onConnectionAccepted(affectedUser, requesting));
     } else if ("refused".equalsIgnoreCase(status)) {
       LOG.debug("onConnectionRefused | requesting={} requested={}", affectedUser.getUsername(), requesting.getUsername());
-      datafeedListener.onConnectionRefused(affectedUser, requesting);
+      return datafeedDispatcher.dispatch(connectionKey, () -> datafeedListener.onConnectionRefused(affectedUser, requesting));
     } else if ("deleted".equalsIgnoreCase(status)) {
       LOG.debug("onConnectionDeleted | requesting={} requested={}", requesting.getUsername(), affectedUser.getUsername());
-      datafeedListener.onConnectionDeleted(requesting, affectedUser);
+      return datafeedDispatcher.dispatch(connectionKey, () -> datafeedListener.onConnectionDeleted(requesting, affectedUser));
     } else {
       throw new IllegalArgumentException("Unknown connection request status type: " + status);
     }
   }
 
-  private void notifyCreateIm(IMaestroMessage message) {
+  private CompletableFuture<Void> notifyCreateIm(IMaestroMessage message) {
     // we only have user id in the JSON payload
     List<String> members = message.getAffectedUsers().stream()
       .map(IUser::getId)
@@ -375,14 +411,14 @@ private void notifyCreateIm(IMaestroMessage message) {
     }
     if (!atLeastOneHasSession) {
       LOG.warn("IM with no gateway-managed accounts | members={} initiator={}", members, initiator.getUsername());
-      return;
+      return DatafeedDispatcher.PROCESSED;
     }
 
     LOG.debug("onIMCreated | members={} initiator={} crosspod={}", members, initiator.getUsername(), crosspod);
-    datafeedListener.onIMCreated(streamId, members, initiator, crosspod);
+    return datafeedDispatcher.dispatch(streamId, () -> datafeedListener.onIMCreated(streamId, members, initiator, crosspod));
   }
 
-  private void notifyJoinRoom(IMaestroMessage message) {
+  private CompletableFuture<Void> notifyJoinRoom(IMaestroMessage message) {
     IJsonObject<?> maestroObject = message.getJsonObject().getRequiredObject("maestroObject");
     String streamId = Base64.encodeBase64URLSafeString(Base64.decodeBase64(maestroObject.getRequiredString("threadId").getBytes(StandardCharsets.UTF_8)));
     MDC.put("streamId", streamId);
@@ -399,7 +435,7 @@ private void notifyJoinRoom(IMaestroMessage message) {
     // and not all members of the room
     if (!botConfiguration.getSymphonyId().equals(Long.toString(maestroObject.getRequiredLong("creator")))) {
       LOG.warn("Join room not managed by bot | creator={} initiator={}", maestroObject.getRequiredLong("creator"), initiator.getUsername());
-      return;
+      return DatafeedDispatcher.PROCESSED;
     }
 
     // JOIN_ROOM events are sent with a duplicate for advisors
@@ -408,17 +444,10 @@ private void notifyJoinRoom(IMaestroMessage message) {
     // In order to keep one and only one JOIN_ROOM event coming from advisors and federated users, we keep the ones with payload.pending: false
     if (message.getJsonObject().getRequiredObject("payload").getRequiredBoolean("pending")) {
       LOG.warn("Ignoring advisor's duplicate JOIN_ROOM event | members={} initiator={}", members, initiator.getUsername());
-      return;
+      return DatafeedDispatcher.PROCESSED;
     }
 
-    datafeedListener.onUserJoinedRoom(streamId, members, initiator);
-  }
-
-  private IEnvelope parseEnvelope(ISNSSQSWireObject sqsObject) throws IOException {
-    // Payload is a base64 encoded json representation of an envelope within the notification, so it needs to be decoded and parsed again.
-    String b64Payload = objectMapper.readTree(sqsObject.getJsonObject().get("Message").toString()).get("payload").asText();
-    ImmutableByteArray payload = ImmutableByteArray.newInstance(Base64.decodeBase64(b64Payload));
-    return Envelope.FACTORY.newInstance(payload, modelRegistry);
+    return datafeedDispatcher.dispatch(streamId, () -> datafeedListener.onUserJoinedRoom(streamId, members, initiator));
   }
 
   private static class ForwarderQueueMetrics {
@@ -429,20 +458,11 @@ private static class ForwarderQueueMetrics {
 
     private final Timer socialMessageProcessingTime;
 
-    private final MeterManager meterManager;
-
-
     public ForwarderQueueMetrics(MeterManager meterManager) {
       incomingMessages = meterManager.register(Counter.builder("sfs.forwarder.incoming").tag("type", "all"));
       incomingSocialMessages = meterManager.register(Counter.builder("sfs.forwarder.incoming").tag("type", "social"));
       incomingMaestroMessages = meterManager.register(Counter.builder("sfs.forwarder.incoming").tag("type", "maestro"));
       socialMessageProcessingTime = meterManager.register(Timer.builder("sfs.social.message.processing.time").publishPercentileHistogram());
-
-      this.meterManager = meterManager;
-    }
-
-    public void onRetry(String companyName) {
-      meterManager.register(Counter.builder("sfs.social.message.retries").tag("company", companyName)).increment();
     }
   }
 }
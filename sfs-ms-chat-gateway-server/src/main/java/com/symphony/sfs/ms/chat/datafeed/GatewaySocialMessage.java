@@ -3,6 +3,7 @@
 import com.symphony.oss.models.chat.canon.IAttachment;
 import com.symphony.oss.models.chat.canon.facade.IUser;
 import com.symphony.sfs.ms.starter.symphony.stream.CustomEntity;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Builder.Default;
 import lombok.Getter;
@@ -13,9 +14,11 @@
 import org.jsoup.nodes.Document;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.jsoup.nodes.Entities.escape;
 
@@ -27,7 +30,12 @@ public class GatewaySocialMessage {
   @Setter
   private String textContent;
   private String presentationMLContent;
+  // only parsed on demand, the features needed on the message path are found by a scan of the markup
+  @Getter(AccessLevel.NONE)
+  @ToString.Exclude
   private Document parsedPresentationML;
+  @Default
+  private Set<PresentationMLFeature> presentationMLFeatures = EnumSet.noneOf(PresentationMLFeature.class);
   @NonNull
   private final IUser fromUser;
   @NonNull
@@ -52,12 +60,23 @@ public class GatewaySocialMessage {
 
   public void setPresentationMLContent(String presentationMLContent) {
     this.presentationMLContent = presentationMLContent;
-    if (!presentationMLContent.isEmpty()) {
-      this.parsedPresentationML = Jsoup.parseBodyFragment(presentationMLContent);
-      this.table = !parsedPresentationML.getElementsByTag("table").isEmpty();
-    } else {
-      this.table = false;
+    this.parsedPresentationML = null;
+    this.presentationMLFeatures = PresentationMLFeature.scan(presentationMLContent);
+    this.table = presentationMLFeatures.contains(PresentationMLFeature.TABLE);
+  }
+
+  /**
+   * @return the presentationML parsed by Jsoup, null if there is no presentationML
+   */
+  public Document getParsedPresentationML() {
+    if (parsedPresentationML == null && presentationMLContent != null && !presentationMLContent.isEmpty()) {
+      parsedPresentationML = Jsoup.parseBodyFragment(presentationMLContent);
     }
+    return parsedPresentationML;
+  }
+
+  public boolean hasPresentationMLFeature(PresentationMLFeature feature) {
+    return presentationMLFeatures.contains(feature);
   }
 
   public String getFromUserId() {
@@ -91,7 +110,6 @@ public boolean equals(java.lang.Object o) {
     GatewaySocialMessage gatewaySocialMessage = (GatewaySocialMessage) o;
     return Objects.equals(this.textContent, gatewaySocialMessage.textContent) &&
       Objects.equals(this.presentationMLContent, gatewaySocialMessage.presentationMLContent) &&
-      Objects.equals(this.parsedPresentationML, gatewaySocialMessage.parsedPresentationML) &&
       Objects.equals(this.fromUser, gatewaySocialMessage.fromUser) &&
       Objects.equals(this.members, gatewaySocialMessage.members) &&
       Objects.equals(this.toUserIds, gatewaySocialMessage.toUserIds) &&
@@ -0,0 +1,17 @@
+package com.symphony.sfs.ms.chat.datafeed;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.symphony.sfs.ms.starter.symphony.stream.SBEEventMessage;
+import lombok.Data;
+
+/**
+ * Entry of the ingestor reply and bulk responses, which are keyed by message
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class IngestorMessageResponse {
+
+  @JsonProperty("message")
+  private SBEEventMessage message;
+}
@@ -12,6 +12,7 @@
 import com.symphony.security.helper.ClientCryptoHandler;
 import com.symphony.security.helper.IClientCryptoHandler;
 import com.symphony.sfs.ms.chat.exception.DecryptionException;
+import com.symphony.sfs.ms.chat.service.MessageIOMonitor;
 import com.symphony.sfs.ms.starter.symphony.crypto.ContentKeyManager;
 import com.symphony.sfs.ms.starter.symphony.crypto.exception.ContentKeyRetrievalException;
 import com.symphony.sfs.ms.starter.symphony.crypto.exception.UnknownUserException;
@@ -20,6 +21,10 @@
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
+import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.Stage.CONTENT_KEY_FETCH;
+import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.Stage.DECRYPT;
 import static com.symphony.sfs.ms.starter.symphony.stream.CustomEntity.QUOTE_TYPE;
 
 @Component
@@ -28,11 +33,13 @@ public class MessageDecryptor {
   private IClientCryptoHandler cryptoHandler;
   private ContentKeyManager contentKeyManager;
   private ObjectMapper objectMapper;
+  private MessageIOMonitor messageIOMonitor;
 
-  public MessageDecryptor(ContentKeyManager contentKeyManager, ObjectMapper objectMapper) {
+  public MessageDecryptor(ContentKeyManager contentKeyManager, ObjectMapper objectMapper, MessageIOMonitor messageIOMonitor) {
     this.contentKeyManager = contentKeyManager;
     this.cryptoHandler = new ClientCryptoHandler();
     this.objectMapper = objectMapper;
+    this.messageIOMonitor = messageIOMonitor;
   }
 
   public void decrypt(ISocialMessage socialMessage, String userId, String userName, GatewaySocialMessage gatewaySocialMessage) throws DecryptionException, ContentKeyRetrievalException, UnknownUserException {
@@ -40,8 +47,12 @@ public void decrypt(ISocialMessage socialMessage, String userId, String userName
       // Get message ciphertext transport to extract rotation Id of key that was used to cipher the text.
       ICiphertextTransport msgCipherTransport = CiphertextFactory.getTransport(socialMessage.getText());
 
+      String chatType = MessageIOMonitor.chatType(gatewaySocialMessage.getChatType());
+      long start = System.nanoTime();
       byte[] contentKey = contentKeyManager.getContentKey(socialMessage.getThreadId(), userId,  userName, msgCipherTransport.getRotationId());
+      messageIOMonitor.onStage(CONTENT_KEY_FETCH, MessageIOMonitor.UNKNOWN, chatType, start);
 
+      start = System.nanoTime();
       if (socialMessage.getText() != null) {
         gatewaySocialMessage.setTextContent(cryptoHandler.decryptMsg(contentKey, socialMessage.getText()));
       }
@@ -59,6 +70,7 @@ public void decrypt(ISocialMessage socialMessage, String userId, String userName
         String decryptedData = cryptoHandler.decryptMsg(contentKey, socialMessage.getEntityJSON());
         gatewaySocialMessage.setEntityJSON(decryptedData);
       }
+      messageIOMonitor.onStage(DECRYPT, MessageIOMonitor.UNKNOWN, chatType, start);
     } catch (SymphonyInputException | CiphertextTransportIsEmptyException | CiphertextTransportVersionException | InvalidDataException | SymphonyEncryptionException e) {
       throw new DecryptionException(e);
     } catch (JsonProcessingException e) {
@@ -142,4 +154,26 @@ public void decrypt(SBEEventMessage message, String userId, String userName) thr
       throw new DecryptionException(e);
     }
   }
+
+  /**
+   * Decrypt only the custom entities of a message, to know the message it quotes before decrypting it
+   *
+   * @return the id of the quoted message, empty if the message does not quote any
+   */
+  public Optional<String> decryptQuotedMessageId(SBEEventMessage message, String userId, String userName) throws DecryptionException {
+    if (message.getCustomEntities() == null) {
+      return Optional.empty();
+    }
+    try {
+      ICiphertextTransport msgCipherTransport = CiphertextFactory.getTransport(message.getText());
+      byte[] contentKey = contentKeyManager.getContentKey(ThreadId.newBuilder().build(message.getThreadId()), userId, userName, msgCipherTransport.getRotationId());
+      String decryptedCustomEntities = cryptoHandler.decryptMsg(contentKey, message.getCustomEntities());
+      return CustomEntity.fromJSONString(decryptedCustomEntities, objectMapper).stream()
+        .filter(customEntity -> QUOTE_TYPE.equals(customEntity.getType()) && customEntity.getData() != null && customEntity.getData().get("id") != null)
+        .findFirst()
+        .map(quote -> quote.getData().get("id").toString());
+    } catch (ContentKeyRetrievalException | CiphertextTransportIsEmptyException | CiphertextTransportVersionException | InvalidDataException | SymphonyEncryptionException | SymphonyInputException | JsonProcessingException | UnknownUserException e) {
+      throw new DecryptionException(e);
+    }
+  }
 }
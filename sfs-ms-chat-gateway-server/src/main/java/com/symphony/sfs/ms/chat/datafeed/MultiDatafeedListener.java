@@ -3,12 +3,13 @@
 import com.symphony.oss.models.chat.canon.IMaestroMessage;
 import com.symphony.oss.models.chat.canon.facade.IUser;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 public class MultiDatafeedListener implements DatafeedListener {
-  private Set<DatafeedListener> listeners = new HashSet<>();
+  // listeners are registered at startup and then read for every event, possibly from several dispatch lanes
+  private final Set<DatafeedListener> listeners = new CopyOnWriteArraySet<>();
 
   public void onIMCreated(String streamId, List<String> members, IUser initiator, boolean crosspod) {
     listeners.forEach(l -> l.onIMCreated(streamId, members, initiator, crosspod));
@@ -0,0 +1,161 @@
+package com.symphony.sfs.ms.chat.datafeed;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Constructs of a presentationML that the EMPs may not support.
+ * <p>
+ * {@link #scan(String)} finds them in a single pass over the markup, reading only the start tags and the first
+ * character following an entity, without building a DOM.
+ */
+public enum PresentationMLFeature {
+  TABLE, CARD, MENTION, HASHTAG, CASHTAG;
+
+  public static Set<PresentationMLFeature> scan(String presentationML) {
+    Set<PresentationMLFeature> features = EnumSet.noneOf(PresentationMLFeature.class);
+    if (presentationML == null) {
+      return features;
+    }
+
+    int length = presentationML.length();
+    int i = presentationML.indexOf('<');
+    while (i >= 0) {
+      if (presentationML.startsWith("<!--", i)) {
+        int commentEnd = presentationML.indexOf("-->", i + 4);
+        if (commentEnd < 0) {
+          break;
+        }
+        i = presentationML.indexOf('<', commentEnd + 3);
+        continue;
+      }
+
+      int nameStart = i + 1;
+      int nameEnd = nameStart;
+      while (nameEnd < length && Character.isLetterOrDigit(presentationML.charAt(nameEnd))) {
+        nameEnd++;
+      }
+      if (nameEnd == nameStart) {
+        // end tag, doctype or a '<' in the text
+        i = presentationML.indexOf('<', nameStart);
+        continue;
+      }
+
+      int tagEnd = endOfTag(presentationML, nameEnd);
+      if (tagEnd < 0) {
+        break;
+      }
+
+      if (isTag(presentationML, nameStart, nameEnd, "table")) {
+        features.add(TABLE);
+      } else if (isTag(presentationML, nameStart, nameEnd, "div")) {
+        if (hasClass(presentationML, nameEnd, tagEnd, "card")) {
+          features.add(CARD);
+        }
+      } else if (isTag(presentationML, nameStart, nameEnd, "span") && hasClass(presentationML, nameEnd, tagEnd, "entity")) {
+        // the kind of entity is given by the first character of its text: @mention, #hashtag or $cashtag
+        char first = tagEnd + 1 < length ? presentationML.charAt(tagEnd + 1) : ' ';
+        if (first == '@') {
+          features.add(MENTION);
+        } else if (first == '#') {
+          features.add(HASHTAG);
+        } else if (first == '$') {
+          features.add(CASHTAG);
+        }
+      }
+
+      i = presentationML.indexOf('<', tagEnd + 1);
+    }
+    return features;
+  }
+
+  private static boolean isTag(String markup, int nameStart, int nameEnd, String name) {
+    return nameEnd - nameStart == name.length() && markup.regionMatches(true, nameStart, name, 0, name.length());
+  }
+
+  /**
+   * @return index of the '>' closing the tag, ignoring the ones in quoted attribute values, -1 if the tag is not closed
+   */
+  private static int endOfTag(String markup, int from) {
+    char quote = 0;
+    for (int i = from; i < markup.length(); i++) {
+      char c = markup.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '"' || c == '\'') {
+        quote = c;
+      } else if (c == '>') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return true if the attributes between from and to have a class attribute containing className
+   */
+  private static boolean hasClass(String markup, int from, int to, String className) {
+    int i = from;
+    while (i < to) {
+      while (i < to && (Character.isWhitespace(markup.charAt(i)) || markup.charAt(i) == '/')) {
+        i++;
+      }
+      int nameStart = i;
+      while (i < to && markup.charAt(i) != '=' && markup.charAt(i) != '/' && !Character.isWhitespace(markup.charAt(i))) {
+        i++;
+      }
+      int nameEnd = i;
+      while (i < to && Character.isWhitespace(markup.charAt(i))) {
+        i++;
+      }
+      if (i >= to || markup.charAt(i) != '=') {
+        // attribute without value
+        continue;
+      }
+      i++;
+      while (i < to && Character.isWhitespace(markup.charAt(i))) {
+        i++;
+      }
+      int valueStart;
+      int valueEnd;
+      if (i < to && (markup.charAt(i) == '"' || markup.charAt(i) == '\'')) {
+        char quote = markup.charAt(i);
+        valueStart = i + 1;
+        valueEnd = markup.indexOf(quote, valueStart);
+        if (valueEnd < 0 || valueEnd > to) {
+          valueEnd = to;
+        }
+        i = valueEnd + 1;
+      } else {
+        valueStart = i;
+        while (i < to && !Character.isWhitespace(markup.charAt(i))) {
+          i++;
+        }
+        valueEnd = i;
+      }
+      if (isTag(markup, nameStart, nameEnd, "class") && containsToken(markup, valueStart, valueEnd, className)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean containsToken(String markup, int from, int to, String token) {
+    int i = from;
+    while (i < to) {
+      while (i < to && Character.isWhitespace(markup.charAt(i))) {
+        i++;
+      }
+      int tokenStart = i;
+      while (i < to && !Character.isWhitespace(markup.charAt(i))) {
+        i++;
+      }
+      if (i - tokenStart == token.length() && markup.regionMatches(tokenStart, token, 0, token.length())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
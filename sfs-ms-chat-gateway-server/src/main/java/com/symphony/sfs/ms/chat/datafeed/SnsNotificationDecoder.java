@@ -0,0 +1,147 @@
+package com.symphony.sfs.ms.chat.datafeed;
+
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.symphony.oss.canon.runtime.ModelRegistry;
+import com.symphony.oss.commons.immutable.ImmutableByteArray;
+import com.symphony.oss.models.core.canon.facade.Envelope;
+import com.symphony.oss.models.core.canon.facade.IEnvelope;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.codec.binary.Base64;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decodes the SNS notifications received on the forwarder queues in a single streaming pass.
+ * <p>
+ * The notification wraps a JSON string ({@code Message}) holding a base64 encoded envelope ({@code payload}).
+ * Only {@code Message.payload} and the {@code MessageAttributes} values are read; the payload is decoded straight
+ * from the parser buffer into a per-thread reusable buffer before the envelope is built.
+ */
+@RequiredArgsConstructor
+public class SnsNotificationDecoder {
+
+  private static final String MESSAGE = "Message";
+  private static final String MESSAGE_ATTRIBUTES = "MessageAttributes";
+  private static final String PAYLOAD = "payload";
+  private static final String VALUE = "Value";
+
+  private static final ThreadLocal<ByteArrayBuilder> PAYLOAD_BUFFER = ThreadLocal.withInitial(() -> new ByteArrayBuilder(4096));
+
+  private final JsonFactory jsonFactory;
+  private final ModelRegistry modelRegistry;
+
+  public SnsNotification decode(String notification) throws IOException {
+    byte[] payload = null;
+    Map<String, String> messageAttributes = Collections.emptyMap();
+
+    try (JsonParser parser = jsonFactory.createParser(notification)) {
+      expect(parser.nextToken(), JsonToken.START_OBJECT);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        if (MESSAGE.equals(field) && value == JsonToken.VALUE_STRING) {
+          payload = decodeMessage(parser);
+        } else if (MESSAGE_ATTRIBUTES.equals(field) && value == JsonToken.START_OBJECT) {
+          messageAttributes = readMessageAttributes(parser);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+
+    if (payload == null) {
+      throw new JsonParseException(null, "No Message.payload in SNS notification");
+    }
+    IEnvelope envelope = Envelope.FACTORY.newInstance(ImmutableByteArray.newInstance(payload), modelRegistry);
+    return new SnsNotification(envelope, messageAttributes);
+  }
+
+  /**
+   * The Message field is itself a JSON document: parse it in place from the outer parser text buffer,
+   * without materializing it as a String
+   */
+  private byte[] decodeMessage(JsonParser outer) throws IOException {
+    char[] message = outer.getTextCharacters();
+    int offset = outer.getTextOffset();
+    int length = outer.getTextLength();
+    try (JsonParser parser = payloadParser(message, offset, length)) {
+      if (parser == null) {
+        return null;
+      }
+      ByteArrayBuilder buffer = PAYLOAD_BUFFER.get();
+      buffer.reset();
+      try {
+        parser.readBinaryValue(Base64Variants.getDefaultVariant(), buffer);
+        return buffer.toByteArray();
+      } catch (JsonParseException | IllegalArgumentException e) {
+        // Jackson is stricter than commons-codec (URL-safe alphabet, missing padding...), keep the lenient decoding as a fallback
+        try (JsonParser fallback = payloadParser(message, offset, length)) {
+          return Base64.decodeBase64(fallback.getText());
+        }
+      } finally {
+        buffer.reset();
+      }
+    }
+  }
+
+  /**
+   * @return a parser positioned on the payload value of the Message document, null if there is none
+   */
+  private JsonParser payloadParser(char[] message, int offset, int length) throws IOException {
+    JsonParser parser = jsonFactory.createParser(message, offset, length);
+    expect(parser.nextToken(), JsonToken.START_OBJECT);
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if (PAYLOAD.equals(field) && value == JsonToken.VALUE_STRING) {
+        return parser;
+      }
+      parser.skipChildren();
+    }
+    parser.close();
+    return null;
+  }
+
+  private Map<String, String> readMessageAttributes(JsonParser parser) throws IOException {
+    Map<String, String> attributes = new HashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        parser.skipChildren();
+        continue;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        if (VALUE.equals(field) && value.isScalarValue()) {
+          attributes.put(name, parser.getText());
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+    return attributes;
+  }
+
+  private static void expect(JsonToken actual, JsonToken expected) throws JsonParseException {
+    if (actual != expected) {
+      throw new JsonParseException(null, "Malformed SNS notification: expected " + expected + " but got " + actual);
+    }
+  }
+
+  @Getter
+  @RequiredArgsConstructor
+  public static class SnsNotification {
+    private final IEnvelope envelope;
+    private final Map<String, String> messageAttributes;
+  }
+}
@@ -4,6 +4,10 @@
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.annotations.VisibleForTesting;
 import com.symphony.oss.models.core.canon.facade.ThreadId;
 import com.symphony.security.exceptions.CiphertextTransportVersionException;
@@ -22,6 +26,7 @@
 import com.symphony.sfs.ms.starter.symphony.stream.MessageAttachment;
 import com.symphony.sfs.ms.starter.symphony.stream.SBEEventMessage;
 import com.symphony.sfs.ms.starter.util.StreamUtil;
+import lombok.Value;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.StringUtils;
@@ -30,25 +35,54 @@
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @Log4j2
 public class MessageEncryptor {
 
   private static final String FORWARDED_HEADER = "\n\n**Forwarded Message:**\n";
-  private static final String ENTITIES_CONTENT = "{ \"hashtags\": [], \"userMentions\": [], \"urls\": [] }";
+  private static final String EMPTY_JSON = "{}";
+  private static final String EMPTY_MEDIA = "{\"content\":[],\"mediaType\":\"JSON\"}";
+  // { "hashtags": [], "userMentions": [], "urls": [] }, built once and shared by all the messages
+  private static final Map<String, Object> ENTITIES;
+  private static final ObjectNode ENTITIES_NODE;
+  // keys of the streams where messages are currently sent, the ones not used anymore are evicted
+  private static final long ENCRYPTED_CONSTANTS_MAXIMUM_SIZE = 10_000;
+  private static final Duration ENCRYPTED_CONSTANTS_EXPIRY = Duration.ofHours(2);
+
+  static {
+    Map<String, Object> entities = new LinkedHashMap<>();
+    entities.put("hashtags", Collections.emptyList());
+    entities.put("userMentions", Collections.emptyList());
+    entities.put("urls", Collections.emptyList());
+    ENTITIES = Collections.unmodifiableMap(entities);
+
+    ENTITIES_NODE = JsonNodeFactory.instance.objectNode();
+    ENTITIES_NODE.putArray("hashtags");
+    ENTITIES_NODE.putArray("userMentions");
+    ENTITIES_NODE.putArray("urls");
+  }
 
   private IClientCryptoHandler cryptoHandler;
   private final ContentKeyManager contentKeyManager;
   private final EmojiService emojiService = new EmojiService();
   private final ObjectMapper objectMapper = new ObjectMapper();
+  // the placeholders sent with every message only depend on the content key, they are encrypted once per key
+  private final Cache<String, EncryptedConstants> encryptedConstants = Caffeine.newBuilder()
+    .maximumSize(ENCRYPTED_CONSTANTS_MAXIMUM_SIZE)
+    .expireAfterAccess(ENCRYPTED_CONSTANTS_EXPIRY.toNanos(), TimeUnit.NANOSECONDS)
+    .build();
 
   public MessageEncryptor(ContentKeyManager contentKeyManager) {
     this.contentKeyManager = contentKeyManager;
@@ -126,17 +160,18 @@ public SBEEventMessage generateSBEEventMessage(KeyIdentifier keyId, byte[] conte
                                                  String presentationML, String customEntitiesText,
                                                  SBEEventMessage repliedToMessage, String jsonData,
                                                  List<MessageAttachment> attachments) throws JsonProcessingException, EncryptionException {
+    EncryptedConstants constants = encryptedConstants(keyId, contentKey, userId, threadId);
     return SBEEventMessage.builder()
       .threadId(threadId)
       .parentMessageId(repliedToMessage != null ? repliedToMessage.getMessageId() : null)
       .parentRelationshipType(repliedToMessage != null ? "REPLY" : null)
       .text(encrypt(contentKey, keyId, text))
       .presentationML(presentationML == null ? null : encrypt(contentKey, keyId, presentationML))
-      .encryptedMedia(encrypt(contentKey, keyId, "{\"content\":[],\"mediaType\":\"JSON\"}"))
-      .encryptedEntities(encrypt(contentKey, keyId, "{}"))
-      .entityJSON(encrypt(contentKey, keyId, StringUtils.isNotBlank(jsonData)? jsonData : "{}"))
+      .encryptedMedia(constants.getEmptyMedia())
+      .encryptedEntities(constants.getEmptyJson())
+      .entityJSON(StringUtils.isNotBlank(jsonData) ? encrypt(contentKey, keyId, jsonData) : constants.getEmptyJson())
       .customEntities(customEntitiesText == null ? null : encrypt(contentKey, keyId, customEntitiesText))
-      .entities(objectMapper.readValue(ENTITIES_CONTENT, Object.class))
+      .entities(ENTITIES)
       .attachments((attachments != null)? attachments : new ArrayList<>())
       .msgFeatures(repliedToMessage == null ? 7 : 3)
       .version(SBEEventMessage.Versions.SOCIALMESSAGE.toString())
@@ -152,6 +187,16 @@ public String encrypt(byte[] contentKey, KeyIdentifier keyId, String content) th
     return Base64.encodeBase64String(encryptedBytes);
   }
 
+  private EncryptedConstants encryptedConstants(KeyIdentifier keyId, byte[] contentKey, String userId, String threadId) throws EncryptionException {
+    String key = threadId + ':' + userId + ':' + keyId.getRotationId();
+    EncryptedConstants constants = encryptedConstants.getIfPresent(key);
+    if (constants == null || !Arrays.equals(constants.getContentKey(), contentKey)) {
+      constants = new EncryptedConstants(contentKey, encrypt(contentKey, keyId, EMPTY_JSON), encrypt(contentKey, keyId, EMPTY_MEDIA));
+      encryptedConstants.put(key, constants);
+    }
+    return constants;
+  }
+
   private byte[] encrypt(byte[] contentKey, KeyIdentifier keyId, byte[] input) throws EncryptionException {
     try {
       return cryptoHandler.encryptMsg(contentKey, keyId, input);
@@ -193,9 +238,9 @@ private MessageEntityData buildForwardedMessageEntityData(String threadId, Strin
       .metadata(forwardedPrefix)
       .streamId(threadId)
       .attachments(attachments)
-      .entities(objectMapper.readValue(ENTITIES_CONTENT, JsonNode.class))
+      .entities(ENTITIES_NODE.deepCopy())
       .customEntities(Collections.emptyList())
-      .entityJSON(objectMapper.readTree("{}"))
+      .entityJSON(JsonNodeFactory.instance.objectNode())
       .jsonMedia(Collections.emptyList())
       .build();
   }
@@ -220,9 +265,9 @@ private MessageEntityData getQuotingEntityData(SBEEventMessage repliedToMessage,
       .ingestionDate(repliedToMessage.getIngestionDate())
       .metadata(generateRepliedMessageMetaData(repliedToMessage))
       .attachments(attachments)
-      .entities(objectMapper.readTree(Optional.ofNullable(repliedToMessage.getEncryptedEntities()).orElse(ENTITIES_CONTENT)))
+      .entities(repliedToMessage.getEncryptedEntities() == null ? ENTITIES_NODE.deepCopy() : objectMapper.readTree(repliedToMessage.getEncryptedEntities()))
       .customEntities(Collections.emptyList())
-      .entityJSON(objectMapper.readTree(Optional.ofNullable(repliedToMessage.getEntityJSON()).orElse("{}")))
+      .entityJSON(repliedToMessage.getEntityJSON() == null ? JsonNodeFactory.instance.objectNode() : objectMapper.readTree(repliedToMessage.getEntityJSON()))
       .jsonMedia(jsonMedia)
       .build();
   }
@@ -267,4 +312,11 @@ private String generatePrefix(SBEEventMessage repliedToMessage) throws IOExcepti
         text,
         dash);
   }
+
+  @Value
+  private static class EncryptedConstants {
+    byte[] contentKey;
+    String emptyJson;
+    String emptyMedia;
+  }
 }
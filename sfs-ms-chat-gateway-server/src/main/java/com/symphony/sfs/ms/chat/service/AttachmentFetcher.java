@@ -0,0 +1,118 @@
+package com.symphony.sfs.ms.chat.service;
+
+import com.symphony.oss.models.chat.canon.IAttachment;
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.chat.service.symphony.SymphonyService;
+import com.symphony.sfs.ms.emp.generated.model.Attachment;
+import com.symphony.sfs.ms.starter.health.MeterManager;
+import com.symphony.sfs.ms.starter.security.SessionSupplier;
+import com.symphony.sfs.ms.starter.symphony.auth.SymphonySession;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads the attachments of a message from the pod before they are relayed to the EMPs.
+ * <p>
+ * The attachments of a message are downloaded concurrently. A message holds its share of the global permits until
+ * all its attachments are downloaded, which bounds the number of downloads in flight for the whole service.
+ */
+@Component
+@Slf4j
+public class AttachmentFetcher {
+
+  private final SymphonyService symphonyService;
+  private final int perMessageConcurrency;
+  private final Semaphore permits;
+  private final Timer fetchTimer;
+
+  public AttachmentFetcher(SymphonyService symphonyService, ChatConfiguration chatConfiguration, MeterManager meterManager) {
+    ChatConfiguration.AttachmentFetch attachmentFetch = chatConfiguration.getAttachmentFetch();
+    int globalConcurrency = Math.max(1, attachmentFetch.getGlobalConcurrency());
+    this.symphonyService = symphonyService;
+    this.perMessageConcurrency = Math.max(1, Math.min(attachmentFetch.getPerMessageConcurrency(), globalConcurrency));
+    this.permits = new Semaphore(globalConcurrency, true);
+    this.fetchTimer = meterManager.register(Timer.builder("sfs.symphony.attachment.fetch").publishPercentileHistogram());
+  }
+
+  /**
+   * Download the attachments of a message, returned in the order of the message.
+   * <p>
+   * The bytes received are counted across the concurrent downloads: as the count only grows, exceeding maxTotalSize
+   * does not depend on the order in which the downloads progress.
+   *
+   * @throws DataBufferLimitException as soon as the attachments exceed maxTotalSize, all downloads are then cancelled
+   */
+  public List<Attachment> fetchAttachments(String streamId, String messageId, List<IAttachment> attachments, SessionSupplier<SymphonySession> session, long maxTotalSize) {
+    if (attachments.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    int concurrency = Math.min(attachments.size(), perMessageConcurrency);
+    permits.acquireUninterruptibly(concurrency);
+    try {
+      AtomicLong totalSize = new AtomicLong();
+      return Flux.fromIterable(attachments)
+        .flatMapSequential(attachment -> fetchAttachment(streamId, messageId, attachment, session, totalSize, maxTotalSize), concurrency)
+        .collectList()
+        .block();
+    } finally {
+      permits.release(concurrency);
+    }
+  }
+
+  private Mono<Attachment> fetchAttachment(String streamId, String messageId, IAttachment attachment, SessionSupplier<SymphonySession> session, AtomicLong totalSize, long maxTotalSize) {
+    return Mono.defer(() -> {
+      long start = System.nanoTime();
+      Flux<DataBuffer> content = symphonyService.getAttachmentStream(streamId, messageId, attachment.getFileId(), session)
+        .handle((buffer, sink) -> {
+          if (totalSize.addAndGet(buffer.readableByteCount()) > maxTotalSize) {
+            DataBufferUtils.release(buffer);
+            sink.error(new DataBufferLimitException("Attachments of message " + messageId + " exceed " + maxTotalSize + " bytes"));
+          } else {
+            sink.next(buffer);
+          }
+        });
+
+      // the received buffers are kept as they are and copied once into the attachment string, no joined buffer
+      return content.collectList()
+        .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+        .map(buffers -> new Attachment()
+          .contentType(attachment.getContentType())
+          .fileName(attachment.getName())
+          .data(toLatin1String(buffers)))
+        .doFinally(signal -> fetchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    });
+  }
+
+  /**
+   * The pod sends the attachment encoded in base64: each byte is one Latin-1 character, stored with one byte per
+   * character by the string. Decoding the buffers with a charset would go through a two bytes per character buffer.
+   */
+  private static String toLatin1String(List<DataBuffer> buffers) {
+    try {
+      byte[] bytes = new byte[buffers.stream().mapToInt(DataBuffer::readableByteCount).sum()];
+      int position = 0;
+      for (DataBuffer buffer : buffers) {
+        int length = buffer.readableByteCount();
+        buffer.read(bytes, position, length);
+        position += length;
+      }
+      return new String(bytes, StandardCharsets.ISO_8859_1);
+    } finally {
+      buffers.forEach(DataBufferUtils::release);
+    }
+  }
+}
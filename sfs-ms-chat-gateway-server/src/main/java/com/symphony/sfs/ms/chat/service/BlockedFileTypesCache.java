@@ -0,0 +1,123 @@
+package com.symphony.sfs.ms.chat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.symphony.sfs.ms.admin.generated.model.BlockedFileTypes;
+import com.symphony.sfs.ms.chat.config.MeterStatsCounter;
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.chat.service.external.AdminClient;
+import com.symphony.sfs.ms.starter.health.MeterManager;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+
+/**
+ * Blocked file types of the streams, as configured in the admin microservice for each EMP.
+ * <p>
+ * The blocked types are regular expressions on the attachment content type. They are compiled once into a single
+ * alternation, shared by all the streams having the same policy.
+ * <p>
+ * A failed admin response is not cached: nothing is blocked for that message, and the blocked types are read again for
+ * the next one.
+ */
+@Component
+@Slf4j
+public class BlockedFileTypesCache {
+
+  public static final String CACHE_NAME = "blockedFileTypes";
+
+  private final AdminClient adminClient;
+  private final LoadingCache<StreamPolicyKey, FileTypeMatcher> matchersByStream;
+  private final Cache<List<String>, FileTypeMatcher> matchersByPolicy = Caffeine.newBuilder().weakValues().build();
+
+  public BlockedFileTypesCache(AdminClient adminClient, ChatConfiguration chatConfiguration, MeterManager meterManager) {
+    ChatConfiguration.BlockedFileTypesCache configuration = chatConfiguration.getBlockedFileTypesCache();
+    this.adminClient = adminClient;
+    this.matchersByStream = Caffeine.newBuilder()
+      .maximumSize(configuration.getMaximumSize())
+      .expireAfterWrite(configuration.getTtl().toNanos(), TimeUnit.NANOSECONDS)
+      .recordStats(() -> new MeterStatsCounter(meterManager, CACHE_NAME))
+      .build(this::load);
+  }
+
+  public FileTypeMatcher getMatcher(String streamId, String emp) {
+    FileTypeMatcher matcher = matchersByStream.get(new StreamPolicyKey(streamId, emp));
+    return matcher == null ? FileTypeMatcher.NONE : matcher;
+  }
+
+  public void invalidate(String streamId, String emp) {
+    matchersByStream.invalidate(new StreamPolicyKey(streamId, emp));
+  }
+
+  @EventListener(EnvironmentChangeEvent.class)
+  public void invalidateAll() {
+    matchersByStream.invalidateAll();
+  }
+
+  private FileTypeMatcher load(StreamPolicyKey key) {
+    Optional<BlockedFileTypes> blockedFileTypes = adminClient.getBlockedFileTypes(key.getStreamId(), key.getEmp());
+    if (blockedFileTypes == null || blockedFileTypes.isEmpty()) {
+      // not cached
+      return null;
+    }
+    if (blockedFileTypes.get().isEmpty()) {
+      return FileTypeMatcher.NONE;
+    }
+    // sorted and deduplicated so that a same policy always gives a same key
+    List<String> types = List.copyOf(new TreeSet<>(blockedFileTypes.get()));
+    return matchersByPolicy.get(types, FileTypeMatcher::compile);
+  }
+
+  @Value
+  private static class StreamPolicyKey {
+    String streamId;
+    String emp;
+  }
+
+  public static class FileTypeMatcher {
+    private static final FileTypeMatcher NONE = new FileTypeMatcher(null);
+
+    private final Pattern pattern;
+
+    private FileTypeMatcher(Pattern pattern) {
+      this.pattern = pattern;
+    }
+
+    static FileTypeMatcher compile(List<String> types) {
+      String alternation = types.stream()
+        .map(FileTypeMatcher::validate)
+        .map(type -> "(?:" + type + ")")
+        .collect(Collectors.joining("|"));
+      return new FileTypeMatcher(Pattern.compile(alternation));
+    }
+
+    private static String validate(String type) {
+      try {
+        Pattern.compile(type);
+        return type;
+      } catch (PatternSyntaxException e) {
+        LOG.warn("Blocked file type is not a valid pattern, matched literally | type={}", type);
+        return Pattern.quote(type);
+      }
+    }
+
+    public boolean isEmpty() {
+      return pattern == null;
+    }
+
+    public boolean isBlocked(String contentType) {
+      return pattern != null && contentType != null && pattern.matcher(contentType).matches();
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package com.symphony.sfs.ms.chat.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.annotations.VisibleForTesting;
+import com.symphony.oss.models.chat.canon.facade.IUser;
+import com.symphony.sfs.ms.admin.generated.model.CanChatResponse;
+import com.symphony.sfs.ms.chat.config.MeterStatsCounter;
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.chat.datafeed.DatafeedListener;
+import com.symphony.sfs.ms.chat.datafeed.ForwarderQueueConsumer;
+import com.symphony.sfs.ms.chat.service.external.AdminClient;
+import com.symphony.sfs.ms.starter.health.MeterManager;
+import io.micrometer.core.instrument.Counter;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Entitlement decisions of the admin microservice, for an advisor, a federated user and an EMP.
+ * <p>
+ * Refusals are kept for a shorter time than authorizations, so that a newly created contact or entitlement is
+ * quickly taken into account. Concurrent lookups of a same decision wait for a single admin call.
+ * <p>
+ * Decisions of an advisor are dropped on connection and leave room events involving them. Failed or empty admin
+ * responses are never cached.
+ */
+@Component
+@Slf4j
+public class CanChatCache implements DatafeedListener {
+
+  public static final String CACHE_NAME = "canChat";
+
+  private final AdminClient adminClient;
+  private final ForwarderQueueConsumer forwarderQueueConsumer;
+  private final Map<CanChatResponse, Counter> responseCounters = new EnumMap<>(CanChatResponse.class);
+  private final Counter noResponseCounter;
+  private final LoadingCache<CanChatKey, CanChatResponse> decisions;
+
+  public CanChatCache(AdminClient adminClient, ForwarderQueueConsumer forwarderQueueConsumer, ChatConfiguration chatConfiguration, MeterManager meterManager) {
+    ChatConfiguration.CanChatCache configuration = chatConfiguration.getCanChatCache();
+    this.adminClient = adminClient;
+    this.forwarderQueueConsumer = forwarderQueueConsumer;
+    for (CanChatResponse response : CanChatResponse.values()) {
+      responseCounters.put(response, meterManager.register(Counter.builder("sfs.admin.canchat").tag("response", response.name())));
+    }
+    this.noResponseCounter = meterManager.register(Counter.builder("sfs.admin.canchat").tag("response", "NONE"));
+    this.decisions = Caffeine.newBuilder()
+      .maximumSize(configuration.getMaximumSize())
+      .expireAfter(new DecisionExpiry(configuration.getAllowedTtl().toNanos(), configuration.getDeniedTtl().toNanos()))
+      .recordStats(() -> new MeterStatsCounter(meterManager, CACHE_NAME))
+      .build(this::load);
+  }
+
+  @PostConstruct
+  @VisibleForTesting
+  public void registerAsDatafeedListener() {
+    forwarderQueueConsumer.registerDatafeedListener(this);
+  }
+
+  public Optional<CanChatResponse> canChat(String advisorSymphonyId, String federatedUserId, String emp) {
+    return Optional.ofNullable(decisions.get(new CanChatKey(advisorSymphonyId, federatedUserId, emp)));
+  }
+
+  public void invalidateAdvisors(Collection<String> advisorSymphonyIds) {
+    if (!advisorSymphonyIds.isEmpty()) {
+      decisions.asMap().keySet().removeIf(key -> advisorSymphonyIds.contains(key.getAdvisorSymphonyId()));
+    }
+  }
+
+  @EventListener(EnvironmentChangeEvent.class)
+  public void invalidateAll() {
+    decisions.invalidateAll();
+  }
+
+  @Override
+  public void onConnectionRequested(IUser requesting, IUser requested) {
+    invalidateUsers(Stream.of(requesting, requested));
+  }
+
+  @Override
+  public void onConnectionAccepted(IUser requesting, IUser requested) {
+    invalidateUsers(Stream.of(requesting, requested));
+  }
+
+  @Override
+  public void onConnectionRefused(IUser requesting, IUser requested) {
+    invalidateUsers(Stream.of(requesting, requested));
+  }
+
+  @Override
+  public void onConnectionDeleted(IUser requesting, IUser requested) {
+    invalidateUsers(Stream.of(requesting, requested));
+  }
+
+  @Override
+  public void onUserLeftRoom(String streamId, IUser requestor, List<IUser> leavingUsers) {
+    invalidateUsers(Stream.concat(Stream.of(requestor), leavingUsers.stream()));
+  }
+
+  private void invalidateUsers(Stream<IUser> users) {
+    // the advisor is always one of the users of the event, whatever the side of the federated user
+    Set<String> symphonyIds = users.map(user -> user.getId().toString()).collect(Collectors.toSet());
+    LOG.debug("Invalidate canChat decisions | advisors={}", symphonyIds);
+    invalidateAdvisors(symphonyIds);
+  }
+
+  private CanChatResponse load(CanChatKey key) {
+    Optional<CanChatResponse> response = adminClient.canChat(key.getAdvisorSymphonyId(), key.getFederatedUserId(), key.getEmp());
+    response.map(responseCounters::get).orElse(noResponseCounter).increment();
+    return response.orElse(null);
+  }
+
+  @Value
+  private static class CanChatKey {
+    String advisorSymphonyId;
+    String federatedUserId;
+    String emp;
+  }
+
+  private static class DecisionExpiry implements Expiry<CanChatKey, CanChatResponse> {
+    private final long allowedTtl;
+    private final long deniedTtl;
+
+    DecisionExpiry(long allowedTtl, long deniedTtl) {
+      this.allowedTtl = allowedTtl;
+      this.deniedTtl = deniedTtl;
+    }
+
+    @Override
+    public long expireAfterCreate(CanChatKey key, CanChatResponse value, long currentTime) {
+      return value == CanChatResponse.CAN_CHAT ? allowedTtl : deniedTtl;
+    }
+
+    @Override
+    public long expireAfterUpdate(CanChatKey key, CanChatResponse value, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(CanChatKey key, CanChatResponse value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
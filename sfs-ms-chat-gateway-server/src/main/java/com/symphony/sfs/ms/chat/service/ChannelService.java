@@ -97,7 +97,7 @@ public void refuseToJoinMIM(String streamId, Map<String, List<FederatedAccount>>
       }
       // Send message to alert it is impossible to add EMP user into a MIM
       String alertMessage = messageSource.getMessage("create.mim.not.supported", new Object[]{empSchemaService.getEmpDisplayName(entry.getKey())}, Locale.getDefault());
-      userSessions.forEach(session -> symphonyMessageSender.sendAlertMessage(session, streamId, alertMessage, Collections.emptyList()));
+      symphonyMessageSender.sendAlertMessages(userSessions, streamId, alertMessage, Collections.emptyList());
     }
 
   }
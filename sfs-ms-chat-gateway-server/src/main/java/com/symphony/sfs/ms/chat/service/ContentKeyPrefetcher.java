@@ -0,0 +1,155 @@
+package com.symphony.sfs.ms.chat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.symphony.oss.models.chat.canon.facade.IUser;
+import com.symphony.oss.models.core.canon.facade.ThreadId;
+import com.symphony.security.helper.KeyIdentifier;
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.chat.datafeed.DatafeedListener;
+import com.symphony.sfs.ms.chat.datafeed.DatafeedSessionPool;
+import com.symphony.sfs.ms.starter.health.MeterManager;
+import com.symphony.sfs.ms.starter.security.SessionSupplier;
+import com.symphony.sfs.ms.starter.symphony.auth.SymphonySession;
+import com.symphony.sfs.ms.starter.symphony.crypto.ContentKeyManager;
+import com.symphony.sfs.ms.starter.util.StreamUtil;
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetches in the background the content keys of the gateway-managed members of a stream, so that the first message
+ * decrypted or encrypted for them does not wait for the key manager.
+ * <p>
+ * Keys are prefetched when an IM is created, when users join a room and the first time a stream is seen on the
+ * datafeed. A stream member is prefetched once per content key lifetime, a failed prefetch can be retried. The marks
+ * expire before the earliest jittered expiry of the keys, and are cleared with the content key cache when it is flushed.
+ * Prefetches run on a bounded pool and are dropped when it is full, the key is then fetched when needed.
+ */
+@Component
+@Slf4j
+public class ContentKeyPrefetcher implements DatafeedListener {
+
+  private final ContentKeyManager contentKeyManager;
+  private final DatafeedSessionPool datafeedSessionPool;
+  private final ThreadPoolExecutor executor;
+  private final Cache<String, Boolean> sightedStreams;
+  private final Cache<String, Boolean> prefetchedMembers;
+
+  private final Counter prefetched;
+  private final Counter failed;
+  private final Counter rejected;
+
+  public ContentKeyPrefetcher(ContentKeyManager contentKeyManager, DatafeedSessionPool datafeedSessionPool, ChatConfiguration chatConfiguration, MeterManager meterManager) {
+    ChatConfiguration.ContentKeyPrefetch configuration = chatConfiguration.getContentKeyPrefetch();
+    ChatConfiguration.KeyCache keyCache = chatConfiguration.getKeyCache();
+    this.contentKeyManager = contentKeyManager;
+    this.datafeedSessionPool = datafeedSessionPool;
+
+    int concurrency = Math.max(1, configuration.getConcurrency());
+    this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(Math.max(1, configuration.getQueueCapacity())),
+      new ThreadFactoryBuilder().setNameFormat("content-key-prefetch-%d").setDaemon(true).build());
+    long markTtl = markTtl(keyCache).toNanos();
+    this.sightedStreams = Caffeine.newBuilder()
+      .maximumSize(keyCache.getMaximumSize())
+      .expireAfterWrite(markTtl, TimeUnit.NANOSECONDS)
+      .build();
+    this.prefetchedMembers = Caffeine.newBuilder()
+      .maximumSize(keyCache.getMaximumSize())
+      .expireAfterWrite(markTtl, TimeUnit.NANOSECONDS)
+      .build();
+
+    this.prefetched = meterManager.register(Counter.builder("sfs.content.key.prefetch").tag("result", "prefetched"));
+    this.failed = meterManager.register(Counter.builder("sfs.content.key.prefetch").tag("result", "failed"));
+    this.rejected = meterManager.register(Counter.builder("sfs.content.key.prefetch").tag("result", "rejected"));
+  }
+
+  /**
+   * Shortest lifetime of a cached content key: a member is prefetched again once its key may have expired
+   */
+  @VisibleForTesting
+  static Duration markTtl(ChatConfiguration.KeyCache keyCache) {
+    double jitter = Math.max(0, Math.min(keyCache.getJitter(), 1));
+    return Duration.ofNanos((long) (keyCache.getTtl().toNanos() * (1 - jitter)));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Forget the prefetched members, called when the content key cache is flushed
+   */
+  public void invalidateAll() {
+    sightedStreams.invalidateAll();
+    prefetchedMembers.invalidateAll();
+  }
+
+  @Override
+  public void onIMCreated(String streamId, List<String> members, IUser initiator, boolean crosspod) {
+    sightedStreams.put(streamId, Boolean.TRUE);
+    prefetch(streamId, members);
+  }
+
+  @Override
+  public void onUserJoinedRoom(String streamId, List<String> members, IUser fromSymphonyUser) {
+    sightedStreams.put(streamId, Boolean.TRUE);
+    prefetch(streamId, members);
+  }
+
+  /**
+   * Prefetch the keys of the members of a stream the first time a message of this stream is received
+   */
+  public void onStreamSighted(String streamId, Collection<String> members) {
+    if (sightedStreams.asMap().putIfAbsent(streamId, Boolean.TRUE) == null) {
+      prefetch(streamId, members);
+    }
+  }
+
+  public void prefetch(String streamId, Collection<String> members) {
+    for (String member : members) {
+      String key = streamId + ':' + member;
+      if (prefetchedMembers.asMap().putIfAbsent(key, Boolean.TRUE) != null) {
+        // already prefetched or in progress
+        continue;
+      }
+      try {
+        executor.execute(() -> prefetch(key, streamId, member));
+      } catch (RejectedExecutionException e) {
+        prefetchedMembers.invalidate(key);
+        rejected.increment();
+      }
+    }
+  }
+
+  private void prefetch(String key, String streamId, String member) {
+    try {
+      SessionSupplier<SymphonySession> session = datafeedSessionPool.getSessionSupplier(member);
+      if (session == null) {
+        // not managed by the gateway, its key is never needed
+        return;
+      }
+      String threadId = StreamUtil.fromUrlSafeStreamId(streamId);
+      KeyIdentifier keyId = contentKeyManager.getContentKeyIdentifier(threadId, member, session.getPrincipal());
+      contentKeyManager.getContentKey(ThreadId.newBuilder().build(threadId), member, session.getPrincipal(), keyId.getRotationId());
+      prefetched.increment();
+    } catch (Exception e) {
+      prefetchedMembers.invalidate(key);
+      failed.increment();
+      LOG.debug("Content key prefetch failed | streamId={} member={}", streamId, member, e);
+    }
+  }
+}
@@ -1,35 +1,177 @@
 package com.symphony.sfs.ms.chat.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
 import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
 import com.symphony.sfs.ms.starter.exception.ConfigurationException;
 import com.symphony.sfs.ms.starter.security.SfsJwtToken;
 import com.symphony.sfs.ms.starter.util.RsaUtils;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 
+import javax.annotation.PreDestroy;
 import java.security.GeneralSecurityException;
 import java.security.PrivateKey;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Generates the JWT used to authenticate against the other microservices.
+ * <p>
+ * Signing is expensive: a token is reused until {@code microservice.chat.microservice-token.refresh-ratio} of its
+ * lifetime has elapsed, then signed again in the background. Callers only sign synchronously if the background
+ * refresh did not happen in time.
+ */
 @Component
 @Getter
+@Slf4j
 public class JwtTokenGenerator {
   public static final String MICROSERVICE_NAME = "sfs-ms-chat-gateway";
 
+  private static final ObjectMapper CLAIMS_READER = new ObjectMapper();
+  // a later refresh would leave too little margin before the token expires
+  private static final double MAX_REFRESH_RATIO = 0.9;
+
   private final ChatConfiguration chatConfiguration;
 
   private PrivateKey privateKey;
 
+  @Getter(AccessLevel.NONE)
+  private final double refreshRatio;
+  @Getter(AccessLevel.NONE)
+  private final Clock clock;
+  @Getter(AccessLevel.NONE)
+  private final AtomicReference<CachedToken> cachedToken = new AtomicReference<>();
+  @Getter(AccessLevel.NONE)
+  private final ScheduledExecutorService refresher;
+
+  @Autowired
   public JwtTokenGenerator(ChatConfiguration chatConfiguration) {
+    this(chatConfiguration, Clock.systemUTC());
+  }
+
+  @VisibleForTesting
+  JwtTokenGenerator(ChatConfiguration chatConfiguration, Clock clock) {
     this.chatConfiguration = chatConfiguration;
+    this.clock = clock;
     try {
       this.privateKey = RsaUtils.parseRSAPrivateKey(chatConfiguration.getPrivateKey().getData());
     } catch (GeneralSecurityException e) {
       throw new ConfigurationException("Unable to parse microservice private key");
     }
+    this.refreshRatio = chatConfiguration.getMicroserviceToken().getRefreshRatio();
+    if (!(refreshRatio > 0 && refreshRatio <= MAX_REFRESH_RATIO)) {
+      throw new ConfigurationException("Microservice token refresh ratio must be in (0, " + MAX_REFRESH_RATIO + "] | refreshRatio=" + refreshRatio);
+    }
+    this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "microservice-token-refresher");
+      thread.setDaemon(true);
+      return thread;
+    });
   }
 
   public String generateMicroserviceToken() {
-    return SfsJwtToken.generateForMicroservice(MICROSERVICE_NAME, privateKey);
+    CachedToken token = cachedToken.get();
+    if (token == null || token.isStale(clock.millis())) {
+      token = refresh(token);
+    }
+    return token.getValue();
+  }
+
+  /**
+   * WebClient filter authenticating each request with the current microservice token.
+   * Clients shared between threads must use it rather than setting the token on their ApiClient.
+   */
+  public ExchangeFilterFunction authenticationFilter() {
+    return (request, next) -> next.exchange(ClientRequest.from(request)
+      .headers(headers -> headers.setBearerAuth(generateMicroserviceToken()))
+      .build());
+  }
+
+  /**
+   * Signs a new token unless another thread already replaced the one seen by the caller
+   */
+  private synchronized CachedToken refresh(CachedToken seen) {
+    CachedToken current = cachedToken.get();
+    if (current != null && current != seen && !current.isStale(clock.millis())) {
+      return current;
+    }
+
+    CachedToken token = sign();
+    cachedToken.set(token);
+    scheduleRefresh(token);
+    return token;
+  }
+
+  private void scheduleRefresh(CachedToken token) {
+    if (refresher.isShutdown()) {
+      return;
+    }
+    long delay = Math.max(0, token.getRefreshAt() - clock.millis());
+    refresher.schedule(() -> {
+      try {
+        // a caller may have signed a newer token in the meantime
+        if (cachedToken.get() == token) {
+          refresh(token);
+        }
+      } catch (Exception e) {
+        LOG.warn("Unable to refresh microservice token, will be signed on next use", e);
+      }
+    }, delay, TimeUnit.MILLISECONDS);
+  }
+
+  private CachedToken sign() {
+    long now = clock.millis();
+    String token = SfsJwtToken.generateForMicroservice(MICROSERVICE_NAME, privateKey);
+
+    long issuedAt = now;
+    long expiresAt = now + chatConfiguration.getMicroserviceToken().getDefaultLifetime().toMillis();
+    try {
+      JsonNode claims = CLAIMS_READER.readTree(Base64.getUrlDecoder().decode(token.split("\\.")[1]));
+      if (claims.hasNonNull("exp")) {
+        expiresAt = claims.get("exp").asLong() * 1000;
+        issuedAt = claims.hasNonNull("iat") ? claims.get("iat").asLong() * 1000 : now;
+      }
+    } catch (Exception e) {
+      LOG.warn("Unable to read microservice token expiry, assuming default lifetime", e);
+    }
+
+    long lifetime = Math.max(0, expiresAt - issuedAt);
+    long refreshAt = issuedAt + (long) (lifetime * refreshRatio);
+    // keep a margin for clock skew and request latency
+    long staleAt = Math.max(refreshAt, expiresAt - lifetime / 10);
+    return new CachedToken(token, refreshAt, staleAt);
   }
 
+  @PreDestroy
+  public void shutdown() {
+    refresher.shutdownNow();
+  }
+
+  @Getter
+  private static class CachedToken {
+    private final String value;
+    private final long refreshAt;
+    private final long staleAt;
+
+    private CachedToken(String value, long refreshAt, long staleAt) {
+      this.value = value;
+      this.refreshAt = refreshAt;
+      this.staleAt = staleAt;
+    }
+
+    private boolean isStale(long now) {
+      return now >= staleAt;
+    }
+  }
 }
@@ -1,51 +1,251 @@
 package com.symphony.sfs.ms.chat.service;
 
-import com.symphony.oss.models.chat.canon.facade.IUser;
-import com.symphony.sfs.ms.chat.model.FederatedAccount;
+import com.symphony.sfs.ms.chat.datafeed.GatewaySocialMessage;
+import com.symphony.sfs.ms.chat.util.TopKSketch;
 import com.symphony.sfs.ms.starter.health.MeterManager;
+import com.symphony.sfs.ms.starter.symphony.stream.StreamTypes;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
 import lombok.AllArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Messages sent and blocked between Symphony and the EMPs.
+ * <p>
+ * Counters are only tagged with low cardinality values: cause, EMP and chat type. Streams, users and
+ * companies are not tags, the most active ones are tracked in bounded top-K sketches and logged periodically.
+ * <p>
+ * The processing of a message is split in {@link Stage stages}, each one timed with a percentile histogram.
+ */
 @Service
 @Slf4j
 public class MessageIOMonitor {
+
+  public static final String UNKNOWN = "unknown";
+  private static final String FROM_SYMPHONY = "from.symphony";
+  private static final String TO_SYMPHONY = "to.symphony";
+  // safety net if unexpected EMP values are reported, the counters are then no longer split by EMP
+  private static final int MAX_COUNTERS = 500;
+  private static final int TOP_K = 20;
+
   private final MeterManager meterManager;
+  private final Map<CounterKey, Counter> counters = new ConcurrentHashMap<>();
+  private final Map<StageKey, Timer> stageTimers = new ConcurrentHashMap<>();
+  private final Map<String, Timer> blastAttachmentUploadTimers = new ConcurrentHashMap<>();
+  private final Counter socialMessageRetries;
+  private final DistributionSummary alertsSent;
+  private final DistributionSummary alertsPartiallySent;
+  private final DistributionSummary alertsNotSent;
+  private final DistributionSummary retrievedPages;
+
+  private final TopKSketch activeStreams = new TopKSketch(TOP_K);
+  private final TopKSketch activeUsers = new TopKSketch(TOP_K);
+  private final TopKSketch blockedStreams = new TopKSketch(TOP_K);
+  private final TopKSketch retryingCompanies = new TopKSketch(TOP_K);
 
   public MessageIOMonitor(MeterManager meterManager) {
     this.meterManager = meterManager;
+    this.socialMessageRetries = meterManager.register(Counter.builder("sfs.social.message.retries"));
+    this.alertsSent = meterManager.register(DistributionSummary.builder("sfs.alerts.fanout").tag("result", "sent"));
+    this.alertsPartiallySent = meterManager.register(DistributionSummary.builder("sfs.alerts.fanout").tag("result", "partially sent"));
+    this.alertsNotSent = meterManager.register(DistributionSummary.builder("sfs.alerts.fanout").tag("result", "not sent"));
+    this.retrievedPages = meterManager.register(DistributionSummary.builder("sfs.messages.retrieve.pages"));
+
+    // The EMPs are not known at startup: only the unknown EMP and chat type series are registered up front, the series
+    // of an EMP and chat type are registered with their first message
+    counter("sfs.messages.sent", FROM_SYMPHONY, null, UNKNOWN, UNKNOWN);
+    counter("sfs.messages.sent", TO_SYMPHONY, null, UNKNOWN, UNKNOWN);
+    for (BlockingCauseFromSymphony cause : BlockingCauseFromSymphony.values()) {
+      counter("sfs.messages.blocked", FROM_SYMPHONY, cause.blockingCause, UNKNOWN, UNKNOWN);
+    }
+    for (BlockingCauseToSymphony cause : BlockingCauseToSymphony.values()) {
+      counter("sfs.messages.blocked", TO_SYMPHONY, cause.blockingCause, UNKNOWN, UNKNOWN);
+    }
+  }
+
+  /**
+   * @return IM, MIM or ROOM
+   */
+  public static String chatType(GatewaySocialMessage gatewaySocialMessage) {
+    if (gatewaySocialMessage.isRoom()) {
+      return "ROOM";
+    }
+    return gatewaySocialMessage.getToUserIds() != null && gatewaySocialMessage.getToUserIds().size() > 1 ? "MIM" : "IM";
+  }
+
+  /**
+   * @return IM, ROOM or unknown
+   */
+  public static String chatType(StreamTypes streamType) {
+    if (streamType == StreamTypes.ROOM) {
+      return "ROOM";
+    }
+    return streamType == StreamTypes.IM ? "IM" : UNKNOWN;
+  }
+
+  /**
+   * @param chatType chat type of a social message envelope
+   * @return IM, MIM, ROOM or unknown
+   */
+  public static String chatType(String chatType) {
+    if ("CHATROOM".equals(chatType)) {
+      return "ROOM";
+    }
+    return "IM".equals(chatType) || "MIM".equals(chatType) ? chatType : UNKNOWN;
   }
 
-  public void onSendMessageFromSymphony(IUser fromSymphonyUser, List<FederatedAccount> toAccounts, String streamId) {
-    meterManager.register(Counter.builder("sfs.messages.sent.from.symphony")
-      .tag("stream", streamId)
-      .tag("fromUser", fromSymphonyUser.getId().toString())
-      .tag("toUser", toAccounts.get(0).getSymphonyUserId()))
-      .increment();
+  /**
+   * Record the time spent in a stage of the processing of a message.
+   *
+   * @param startNanos {@link System#nanoTime()} at the beginning of the stage
+   */
+  public void onStage(Stage stage, String emp, String chatType, long startNanos) {
+    stageTimer(stage, emp, chatType).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Record the time spent encrypting and uploading a blast attachment.
+   *
+   * @param result uploaded, failed or cancelled
+   * @param startNanos {@link System#nanoTime()} when the upload started
+   */
+  public void onBlastAttachmentUpload(String result, long startNanos) {
+    blastAttachmentUploadTimers.computeIfAbsent(result, r -> meterManager.register(Timer.builder("sfs.symphony.blast.attachment.upload")
+      .tag("result", r)
+      .publishPercentileHistogram()))
+      .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void onSendMessageFromSymphony(String emp, String chatType, String fromUserId, String streamId) {
+    counter("sfs.messages.sent", FROM_SYMPHONY, null, emp, chatType).increment();
+    activeStreams.add(streamId);
+    activeUsers.add(fromUserId);
   }
 
   public void onMessageBlockFromSymphony(BlockingCauseFromSymphony blockingCause, String streamId) {
-    meterManager.register(Counter.builder("sfs.messages.blocked.from.symphony")
-      .tag("stream", streamId)
-      .tag("cause", blockingCause.blockingCause))
-      .increment();
+    onMessageBlockFromSymphony(blockingCause, UNKNOWN, UNKNOWN, streamId);
+  }
+
+  public void onMessageBlockFromSymphony(BlockingCauseFromSymphony blockingCause, String emp, String chatType, String streamId) {
+    counter("sfs.messages.blocked", FROM_SYMPHONY, blockingCause.blockingCause, emp, chatType).increment();
+    blockedStreams.add(streamId);
   }
 
-  public void onSendMessageToSymphony(String fromUserId, String streamId) {
-    meterManager.register(Counter.builder("sfs.messages.sent.to.symphony")
-      .tag("stream", streamId)
-      .tag("fromUser", fromUserId))
-      .increment();
+  public void onSendMessageToSymphony(String emp, String chatType, String fromUserId, String streamId) {
+    counter("sfs.messages.sent", TO_SYMPHONY, null, emp, chatType).increment();
+    activeStreams.add(streamId);
+    activeUsers.add(fromUserId);
   }
 
   public void onMessageBlockToSymphony(BlockingCauseToSymphony blockingCause, String streamId) {
-    meterManager.register(Counter.builder("sfs.messages.blocked.to.symphony")
-      .tag("stream", streamId)
-      .tag("cause", blockingCause.blockingCause))
-      .increment();
+    onMessageBlockToSymphony(blockingCause, UNKNOWN, UNKNOWN, streamId);
+  }
+
+  public void onMessageBlockToSymphony(BlockingCauseToSymphony blockingCause, String emp, String chatType, String streamId) {
+    counter("sfs.messages.blocked", TO_SYMPHONY, blockingCause.blockingCause, emp, chatType).increment();
+    blockedStreams.add(streamId);
+  }
+
+  public void onSocialMessageRetry(String companyName) {
+    socialMessageRetries.increment();
+    retryingCompanies.add(companyName);
+  }
+
+  public void onAlertsSent(int recipients, int failures) {
+    if (recipients == 0) {
+      return;
+    }
+    DistributionSummary fanout = failures == 0 ? alertsSent : failures < recipients ? alertsPartiallySent : alertsNotSent;
+    fanout.record(recipients);
+  }
+
+  public void onMessagesRetrieved(int pages) {
+    retrievedPages.record(pages);
+  }
+
+  @Scheduled(fixedDelayString = "${microservice.chat.top-k-report-interval:300000}")
+  public void reportTopK() {
+    LOG.info("Most active streams | streams={}", activeStreams.topAndReset());
+    LOG.info("Most active users | users={}", activeUsers.topAndReset());
+    LOG.info("Most blocked streams | streams={}", blockedStreams.topAndReset());
+    LOG.info("Most retried companies | companies={}", retryingCompanies.topAndReset());
+  }
+
+  private Counter counter(String name, String direction, String cause, String emp, String chatType) {
+    CounterKey key = new CounterKey(name, direction, cause, emp == null ? UNKNOWN : emp, chatType == null ? UNKNOWN : chatType);
+    Counter counter = counters.get(key);
+    if (counter != null) {
+      return counter;
+    }
+    if (counters.size() >= MAX_COUNTERS) {
+      key = new CounterKey(name, direction, cause, "other", key.getChatType());
+    }
+    return counters.computeIfAbsent(key, this::register);
+  }
+
+  private Timer stageTimer(Stage stage, String emp, String chatType) {
+    StageKey key = new StageKey(stage, emp == null ? UNKNOWN : emp, chatType == null ? UNKNOWN : chatType);
+    Timer timer = stageTimers.get(key);
+    if (timer != null) {
+      return timer;
+    }
+    if (stageTimers.size() >= MAX_COUNTERS) {
+      key = new StageKey(stage, "other", key.getChatType());
+    }
+    return stageTimers.computeIfAbsent(key, k -> meterManager.register(Timer.builder("sfs.message.stage.time")
+      .tag("stage", k.getStage().stage)
+      .tag("emp", k.getEmp())
+      .tag("chatType", k.getChatType())
+      .publishPercentileHistogram()));
+  }
+
+  private Counter register(CounterKey key) {
+    // sfs.messages.sent.from.symphony, sfs.messages.blocked.to.symphony...
+    Counter.Builder builder = Counter.builder(key.getName() + "." + key.getDirection())
+      .tag("emp", key.getEmp())
+      .tag("chatType", key.getChatType());
+    if (key.getCause() != null) {
+      builder.tag("cause", key.getCause());
+    }
+    return meterManager.register(builder);
+  }
+
+  @Value
+  private static class CounterKey {
+    String name;
+    String direction;
+    String cause;
+    String emp;
+    String chatType;
+  }
+
+  @Value
+  private static class StageKey {
+    Stage stage;
+    String emp;
+    String chatType;
+  }
+
+  @AllArgsConstructor
+  public enum Stage {
+    SNS_DECODE("sns decode"),
+    ENVELOPE_PARSE("envelope parse"),
+    SESSION_LOOKUP("session lookup"),
+    CONTENT_KEY_FETCH("content key fetch"),
+    DECRYPT("decrypt"),
+    LISTENER_DISPATCH("listener dispatch"),
+    EMP_SEND("emp send"),
+    SYMPHONY_SEND("symphony send");
+
+    private String stage;
   }
 
   @AllArgsConstructor
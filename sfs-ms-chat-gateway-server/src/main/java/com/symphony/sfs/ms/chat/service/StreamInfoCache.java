@@ -0,0 +1,118 @@
+package com.symphony.sfs.ms.chat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.annotations.VisibleForTesting;
+import com.symphony.oss.models.chat.canon.facade.IUser;
+import com.symphony.sfs.ms.chat.config.MeterStatsCounter;
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.chat.datafeed.DatafeedListener;
+import com.symphony.sfs.ms.chat.datafeed.DatafeedSessionPool;
+import com.symphony.sfs.ms.chat.datafeed.ForwarderQueueConsumer;
+import com.symphony.sfs.ms.chat.generated.model.CannotRetrieveStreamIdProblem;
+import com.symphony.sfs.ms.starter.config.properties.PodConfiguration;
+import com.symphony.sfs.ms.starter.health.MeterManager;
+import com.symphony.sfs.ms.starter.symphony.stream.StreamInfo;
+import com.symphony.sfs.ms.starter.symphony.stream.StreamService;
+import com.symphony.sfs.ms.starter.symphony.stream.StreamTypes;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stream information read with the bot session.
+ * <p>
+ * The type of a stream never changes and is kept for the lifetime of the service. Members are kept for a limited
+ * time and dropped when users join or leave the stream. Concurrent lookups of a same stream wait for a single pod call.
+ */
+@Component
+public class StreamInfoCache implements DatafeedListener {
+
+  public static final String CACHE_NAME = "streamInfo";
+
+  private final StreamService streamService;
+  private final PodConfiguration podConfiguration;
+  private final DatafeedSessionPool datafeedSessionPool;
+  private final ForwarderQueueConsumer forwarderQueueConsumer;
+  private final LoadingCache<String, StreamInfo> streamInfos;
+  private final Cache<String, StreamTypes> streamTypes;
+
+  public StreamInfoCache(StreamService streamService, PodConfiguration podConfiguration, DatafeedSessionPool datafeedSessionPool, ForwarderQueueConsumer forwarderQueueConsumer, ChatConfiguration chatConfiguration, MeterManager meterManager) {
+    ChatConfiguration.StreamInfoCache configuration = chatConfiguration.getStreamInfoCache();
+    this.streamService = streamService;
+    this.podConfiguration = podConfiguration;
+    this.datafeedSessionPool = datafeedSessionPool;
+    this.forwarderQueueConsumer = forwarderQueueConsumer;
+    this.streamInfos = Caffeine.newBuilder()
+      .maximumSize(configuration.getMaximumSize())
+      .expireAfterWrite(configuration.getMembersTtl().toNanos(), TimeUnit.NANOSECONDS)
+      .recordStats(() -> new MeterStatsCounter(meterManager, CACHE_NAME))
+      .build(this::load);
+    this.streamTypes = Caffeine.newBuilder()
+      .maximumSize(configuration.getMaximumSize())
+      .build();
+  }
+
+  @PostConstruct
+  @VisibleForTesting
+  public void registerAsDatafeedListener() {
+    forwarderQueueConsumer.registerDatafeedListener(this);
+  }
+
+  /**
+   * @throws CannotRetrieveStreamIdProblem if the stream is not returned by the pod
+   */
+  public StreamInfo getStreamInfo(String streamId) {
+    StreamInfo streamInfo = streamInfos.get(streamId);
+    if (streamInfo == null) {
+      throw new CannotRetrieveStreamIdProblem();
+    }
+    return streamInfo;
+  }
+
+  /**
+   * @throws CannotRetrieveStreamIdProblem if the stream is not returned by the pod
+   */
+  public StreamTypes getStreamType(String streamId) {
+    StreamTypes streamType = streamTypes.getIfPresent(streamId);
+    return streamType != null ? streamType : getStreamInfo(streamId).getStreamType().getType();
+  }
+
+  /**
+   * @return the type of the stream if it is already known, the pod is never called
+   */
+  public Optional<StreamTypes> getKnownStreamType(String streamId) {
+    return Optional.ofNullable(streamTypes.getIfPresent(streamId));
+  }
+
+  public void invalidateMembers(String streamId) {
+    streamInfos.invalidate(streamId);
+  }
+
+  @Override
+  public void onIMCreated(String streamId, List<String> members, IUser initiator, boolean crosspod) {
+    invalidateMembers(streamId);
+  }
+
+  @Override
+  public void onUserJoinedRoom(String streamId, List<String> members, IUser fromSymphonyUser) {
+    invalidateMembers(streamId);
+  }
+
+  @Override
+  public void onUserLeftRoom(String streamId, IUser requestor, List<IUser> leavingUsers) {
+    invalidateMembers(streamId);
+  }
+
+  private StreamInfo load(String streamId) {
+    StreamInfo streamInfo = streamService.getStreamInfo(podConfiguration.getUrl(), datafeedSessionPool.getBotSessionSupplier(), streamId).orElse(null);
+    if (streamInfo != null && streamInfo.getStreamType() != null && streamInfo.getStreamType().getType() != null) {
+      streamTypes.put(streamId, streamInfo.getStreamType().getType());
+    }
+    return streamInfo;
+  }
+}
@@ -20,6 +20,8 @@
 import com.symphony.sfs.ms.chat.repository.FederatedAccountRepository;
 import com.symphony.sfs.ms.chat.sbe.MessageEncryptor;
 import com.symphony.sfs.ms.chat.service.symphony.SymphonyService;
+import com.symphony.sfs.ms.chat.util.ChunkedBytes;
+import com.symphony.sfs.ms.chat.util.MonoUtils;
 import com.symphony.sfs.ms.chat.util.SymphonySystemMessageTemplateProcessor;
 import com.symphony.sfs.ms.starter.config.properties.PodConfiguration;
 import com.symphony.sfs.ms.starter.security.SessionSupplier;
@@ -34,21 +36,30 @@
 import com.symphony.sfs.ms.starter.util.StreamUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.context.MessageSource;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
 
+import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.security.SecureRandom;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -76,6 +87,12 @@ public class SymphonyMessageSender {
   public static final String SYSTEM_MESSAGE_INFORMATION_HANDLEBARS_TEMPLATE = "system_message_information";
   public static final String SYSTEM_MESSAGE_NOTIFICATION_HANDLEBARS_TEMPLATE = "system_message_notification";
   public static final String SYSTEM_MESSAGE_SIMPLE_HANDLEBARS_TEMPLATE = "system_message_simple";
+  // alerts of a same fan-out sent at the same time
+  private static final int ALERT_FAN_OUT_CONCURRENCY = 4;
+  // blast attachments of a same forwarded message uploaded at the same time
+  private static final int BLAST_UPLOAD_CONCURRENCY = 4;
+  // seeded once, a new instance per message may block on the entropy source
+  private static final SecureRandom SECURE_RANDOM = new SecureRandom();
 
   private final PodConfiguration podConfiguration;
   private final DatafeedSessionPool datafeedSessionPool;
@@ -90,7 +107,14 @@ public class SymphonyMessageSender {
   private final MessageSource messageSource;
   private final MessageInfoMapper messageInfoMapper;
   private final ObjectMapper objectMapper;
+  private final StreamInfoCache streamInfoCache;
+  // stateless between calls, shared like in MessageEncryptor and MessageDecryptor
+  private final ClientCryptoHandler cryptoHandler = new ClientCryptoHandler();
 
+  @PostConstruct
+  public void checkTemplates() {
+    templateProcessor.requireTemplates(SYSTEM_MESSAGE_ALERT_HANDLEBARS_TEMPLATE, SYSTEM_MESSAGE_INFORMATION_HANDLEBARS_TEMPLATE, SYSTEM_MESSAGE_NOTIFICATION_HANDLEBARS_TEMPLATE, SYSTEM_MESSAGE_SIMPLE_HANDLEBARS_TEMPLATE);
+  }
 
   public Optional<MessageInfoWithCustomEntities> sendRawMessage(SessionSupplier<SymphonySession> session, String streamId, String messageContent) {
     LOG.debug("Send message to symphony");
@@ -104,7 +128,7 @@ public Optional<MessageInfoWithCustomEntities> sendRawMessage(String streamId, S
       return new SendMessageFailedProblem();
     });
 
-    messageMetrics.onSendMessageToSymphony(fromSymphonyUserId, streamId);
+    messageMetrics.onSendMessageToSymphony(federatedAccount.getEmp(), chatType(streamId), fromSymphonyUserId, streamId);
 
     return sendRawMessage(datafeedSessionPool.getSessionSupplier(federatedAccount), streamId, messageContent);
   }
@@ -143,6 +167,55 @@ public Optional<MessageInfoWithCustomEntities> sendAlertMessage(SessionSupplier<
     return sendAlertMessage(userSession, streamId, messageContent, null, errors);
   }
 
+  /**
+   * Send a same alert to several users of a stream, the alert is rendered once.
+   * <p>
+   * The alerts are sent concurrently. A failure to alert a user does not prevent alerting the others, it is logged
+   * and its outcome is empty.
+   *
+   * @return the outcome for each session, in the order of the sessions
+   */
+  public List<Optional<MessageInfoWithCustomEntities>> sendAlertMessages(List<SessionSupplier<SymphonySession>> userSessions, String streamId, String messageContent, String title, List<String> errors) {
+    String detemplatized = templateProcessor.process(messageContent, title, errors, SYSTEM_MESSAGE_ALERT_HANDLEBARS_TEMPLATE);
+    List<Optional<MessageInfoWithCustomEntities>> outcomes;
+    if (userSessions.size() == 1) {
+      outcomes = Collections.singletonList(sendAlert(userSessions.get(0), streamId, detemplatized));
+    } else {
+      // the alerts are logged with the streamId and messageId of the calling thread
+      Map<String, String> mdc = MDC.getCopyOfContextMap();
+      outcomes = Flux.fromIterable(userSessions)
+        .flatMapSequential(userSession -> Mono.fromCallable(() -> sendAlert(userSession, streamId, detemplatized, mdc)).subscribeOn(Schedulers.boundedElastic()), ALERT_FAN_OUT_CONCURRENCY)
+        .collectList()
+        .block();
+    }
+    messageMetrics.onAlertsSent(outcomes.size(), (int) outcomes.stream().filter(Optional::isEmpty).count());
+    return outcomes;
+  }
+
+  public List<Optional<MessageInfoWithCustomEntities>> sendAlertMessages(List<SessionSupplier<SymphonySession>> userSessions, String streamId, String messageContent, List<String> errors) {
+    return sendAlertMessages(userSessions, streamId, messageContent, null, errors);
+  }
+
+  private Optional<MessageInfoWithCustomEntities> sendAlert(SessionSupplier<SymphonySession> userSession, String streamId, String detemplatized, Map<String, String> mdc) {
+    if (mdc != null) {
+      MDC.setContextMap(mdc);
+    }
+    try {
+      return sendAlert(userSession, streamId, detemplatized);
+    } finally {
+      MDC.clear();
+    }
+  }
+
+  private Optional<MessageInfoWithCustomEntities> sendAlert(SessionSupplier<SymphonySession> userSession, String streamId, String detemplatized) {
+    try {
+      return sendRawMessage(userSession, streamId, detemplatized);
+    } catch (RuntimeException e) {
+      LOG.warn("Alert not sent | streamId={}", streamId, e);
+      return Optional.empty();
+    }
+  }
+
   public Optional<MessageInfoWithCustomEntities> sendAlertMessage(String streamId, String fromSymphonyUserId, String messageContent, String toSymphonyUserId) {
     return sendRawMessage(streamId, fromSymphonyUserId, templateProcessor.process(messageContent, SYSTEM_MESSAGE_ALERT_HANDLEBARS_TEMPLATE), toSymphonyUserId);
   }
@@ -154,7 +227,7 @@ public Optional<MessageInfoWithCustomEntities> sendRawMessageWithAttachments(Str
       return new SendMessageFailedProblem();
     });
 
-    messageMetrics.onSendMessageToSymphony(fromSymphonyUserId, streamId);
+    messageMetrics.onSendMessageToSymphony(federatedAccount.getEmp(), chatType(streamId), fromSymphonyUserId, streamId);
 
     SymphonyOutboundMessage symphonyOutboundMessage = SymphonyOutboundMessage.builder()
       .message(messageContent)
@@ -176,18 +249,19 @@ public Optional<MessageInfoWithCustomEntities> sendForwardedMessage(String strea
       return new SendMessageFailedProblem();
     });
 
-    messageMetrics.onSendMessageToSymphony(fromSymphonyUserId, streamId);
+    messageMetrics.onSendMessageToSymphony(federatedAccount.getEmp(), chatType(streamId), fromSymphonyUserId, streamId);
 
     SessionSupplier<SymphonySession> userSession = datafeedSessionPool.getSessionSupplier(federatedAccount);
 
     try {
       byte[] ephemeralKey = this.generateEphemeralKey();
-      List<MessageAttachment> blastAttachments = new ArrayList<>();
+      List<MessageAttachment> blastAttachments = Collections.emptyList();
       if (attachments != null && !attachments.isEmpty()) {
-        for (SymphonyAttachment attachment : attachments) {
-          MessageAttachment blastAttachment = uploadBlastAttachment(userSession, attachment, ephemeralKey).orElseThrow(BlastAttachmentUploadException::new);
-          blastAttachments.add(blastAttachment);
-        }
+        blastAttachments = Flux.fromIterable(attachments)
+          // results keep the order of the attachments, the first failure cancels the other uploads
+          .flatMapSequential(attachment -> uploadBlastAttachment(userSession, attachment, ephemeralKey), BLAST_UPLOAD_CONCURRENCY)
+          .collectList()
+          .block();
       }
 
       String messageHeader = messageSource.getMessage("forwarded.message.header", new Object[] {empSchemaService.getEmpDisplayName(federatedAccount.getEmp())}, Locale.getDefault());
@@ -197,10 +271,10 @@ public Optional<MessageInfoWithCustomEntities> sendForwardedMessage(String strea
       return Optional.of(decryptAndBuildMessageInfo(sentMessage, fromSymphonyUserId, userSession));
     } catch (BlastAttachmentUploadException e) {
       LOG.error("Unable to forward attachment to Symphony: stream={} initiator={}", streamId, fromSymphonyUserId, e);
-      messageMetrics.onMessageBlockToSymphony(BLAST_ATTACHMENTS_UPLOAD_FAILED, streamId);
+      messageMetrics.onMessageBlockToSymphony(BLAST_ATTACHMENTS_UPLOAD_FAILED, federatedAccount.getEmp(), chatType(streamId), streamId);
     } catch (IOException e) {
       LOG.error("Unable to forward message to Symphony: stream={} initiator={}", streamId, fromSymphonyUserId, e);
-      messageMetrics.onMessageBlockToSymphony(ENCRYPTION_FAILED, streamId);
+      messageMetrics.onMessageBlockToSymphony(ENCRYPTION_FAILED, federatedAccount.getEmp(), chatType(streamId), streamId);
     }
     return Optional.empty();
   }
@@ -213,32 +287,36 @@ public Optional<MessageInfoWithCustomEntities> sendReplyMessage(String streamId,
       return new SendMessageFailedProblem();
     });
 
-    messageMetrics.onSendMessageToSymphony(fromSymphonyUserId, streamId);
+    messageMetrics.onSendMessageToSymphony(federatedAccount.getEmp(), chatType(streamId), fromSymphonyUserId, streamId);
 
     SessionSupplier<SymphonySession> userSession = datafeedSessionPool.getSessionSupplier(federatedAccount);
 
     try {
-      SBEEventMessage replyToMessage = getReplyMessage(fromSymphonyUserId, userSession, parentMessageId);
-      if (!attachmentReplySupported &&
-          (replyToMessage.getAttachments() != null && replyToMessage.getAttachments().size() > 0
-            || attachmentMessageIds.isPresent() && attachmentMessageIds.get().size() > 0)) {
+      List<String> attachmentIds = attachmentMessageIds.orElse(Collections.emptyList());
+      if (!attachmentReplySupported && !attachmentIds.isEmpty()) {
         throw new InlineReplyMessageException();
       }
 
-
-      List<MessageAttachment> attachmentsFromMessageIds = attachmentMessageIds.orElse(Collections.emptyList())
-        .stream().flatMap(id -> {
-        try {
-          return getReplyMessage(fromSymphonyUserId, userSession, id).getAttachments().stream();
-        } catch (DecryptionException e) {
-          LOG.error("Unable to decrypt message {} from WhatsApp: stream={} initiator={}", id, streamId, fromSymphonyUserId, e);
-          return Stream.empty();
-        }
-      }).collect(Collectors.toList());
+      // The parent message and the messages holding the attachments are retrieved concurrently
+      Mono<List<MessageAttachment>> attachmentsFromMessageIds = Flux.fromIterable(attachmentIds)
+        .flatMapSequential(id -> getReplyMessageAsync(fromSymphonyUserId, userSession, id)
+          .flatMapIterable(message -> message.getAttachments() != null ? message.getAttachments() : Collections.<MessageAttachment>emptyList())
+          .onErrorResume(DecryptionException.class, e -> {
+            LOG.error("Unable to decrypt message {} from WhatsApp: stream={} initiator={}", id, streamId, fromSymphonyUserId, e);
+            return Flux.empty();
+          }))
+        .collectList();
+      Tuple2<SBEEventMessage, List<MessageAttachment>> replyToMessageAndAttachments = MonoUtils.blockUnwrapping(
+        Mono.zip(getReplyMessageAsync(fromSymphonyUserId, userSession, parentMessageId), attachmentsFromMessageIds), DecryptionException.class);
+
+      SBEEventMessage replyToMessage = replyToMessageAndAttachments.getT1();
+      if (!attachmentReplySupported && replyToMessage.getAttachments() != null && replyToMessage.getAttachments().size() > 0) {
+        throw new InlineReplyMessageException();
+      }
 
       List<MessageAttachment> allAttachments = Stream.of(
         replyToMessage.getAttachments(),
-        attachmentsFromMessageIds
+        replyToMessageAndAttachments.getT2()
       ).filter(Objects::nonNull)
         .flatMap(List::stream)
         .collect(Collectors.toList());
@@ -249,7 +327,7 @@ public Optional<MessageInfoWithCustomEntities> sendReplyMessage(String streamId,
       return Optional.of(decryptAndBuildMessageInfo(sentMessage, fromSymphonyUserId, userSession));
     } catch (IOException e) {
       LOG.error("Unable to send relied message from WhatsApp: stream={} initiator={}", streamId, fromSymphonyUserId, e);
-      messageMetrics.onMessageBlockToSymphony(ENCRYPTION_FAILED, streamId);
+      messageMetrics.onMessageBlockToSymphony(ENCRYPTION_FAILED, federatedAccount.getEmp(), chatType(streamId), streamId);
     }
     return Optional.empty();
   }
@@ -261,7 +339,7 @@ public Optional<MessageInfoWithCustomEntities> sendContactMessage(String streamI
       return new SendMessageFailedProblem();
     });
 
-    messageMetrics.onSendMessageToSymphony(fromSymphonyUserId, streamId);
+    messageMetrics.onSendMessageToSymphony(federatedAccount.getEmp(), chatType(streamId), fromSymphonyUserId, streamId);
 
     SessionSupplier<SymphonySession> userSession = datafeedSessionPool.getSessionSupplier(federatedAccount);
 
@@ -271,50 +349,68 @@ public Optional<MessageInfoWithCustomEntities> sendContactMessage(String streamI
       return Optional.of(decryptAndBuildMessageInfo(sentMessage, fromSymphonyUserId, userSession));
     } catch (IOException e) {
       LOG.error("Unable to forward message to Symphony: stream={} initiator={}", streamId, fromSymphonyUserId, e);
-      messageMetrics.onMessageBlockToSymphony(ENCRYPTION_FAILED, streamId);
+      messageMetrics.onMessageBlockToSymphony(ENCRYPTION_FAILED, federatedAccount.getEmp(), chatType(streamId), streamId);
     }
     return Optional.empty();
   }
 
-  private Optional<MessageAttachment> uploadBlastAttachment(SessionSupplier<SymphonySession> session, SymphonyAttachment attachment, byte[] ephemeralKey) {
-    try {
-      byte[] encryptedBytes = new ClientCryptoHandler().encryptMsgWithRotationIdZero(ephemeralKey, Base64.decode(attachment.getData()));
-      MessageAttachment[] attachments = symphonyService.uploadBlastAttachment(session, attachment.getContentType(), attachment.getFileName(), encryptedBytes);
-      return attachments != null && attachments.length > 0 ? Optional.of(attachments[0]) : Optional.empty();
-    } catch (Exception e) {
-      throw new BlastAttachmentUploadException();
-    }
+  private Mono<MessageAttachment> uploadBlastAttachment(SessionSupplier<SymphonySession> session, SymphonyAttachment attachment, byte[] ephemeralKey) {
+    return Mono.defer(() -> {
+      long start = System.nanoTime();
+      // the decoded file is only referenced during its encryption, the encrypted one until it is uploaded
+      return Mono.fromCallable(() -> cryptoHandler.encryptMsgWithRotationIdZero(ephemeralKey, ChunkedBytes.decodeBase64(attachment.getData(), ChunkedBytes.DEFAULT_CHUNK_SIZE)))
+        .subscribeOn(Schedulers.boundedElastic())
+        .flatMap(encryptedBytes -> symphonyService.uploadBlastAttachmentAsync(session, attachment.getContentType(), attachment.getFileName(), encryptedBytes))
+        .filter(uploadedAttachments -> uploadedAttachments.length > 0)
+        .map(uploadedAttachments -> uploadedAttachments[0])
+        .switchIfEmpty(Mono.error(BlastAttachmentUploadException::new))
+        .onErrorMap(e -> e instanceof BlastAttachmentUploadException ? e : new BlastAttachmentUploadException())
+        .doFinally(signal -> messageMetrics.onBlastAttachmentUpload(signal == SignalType.ON_COMPLETE ? "uploaded" : signal == SignalType.CANCEL ? "cancelled" : "failed", start));
+    });
   }
 
   private byte[] generateEphemeralKey() {
     byte[] key = new byte[32];
-    // Pick some secure values.
-    SecureRandom SR = new SecureRandom();
-    SR.nextBytes(key);
+    SECURE_RANDOM.nextBytes(key);
     return key;
   }
 
-  private SBEEventMessage getReplyMessage(String userId, SessionSupplier<SymphonySession> session, String messageId) throws DecryptionException {
-    SBEEventMessage eventMessage;
-    try {
-      eventMessage = symphonyService.getEncryptedMessage(messageId, session).get();
-    } catch (Exception e) {
+  /**
+   * Chat type of the metrics, without calling the pod for a stream that is not known yet
+   */
+  private String chatType(String streamId) {
+    return streamInfoCache.getKnownStreamType(streamId).map(MessageIOMonitor::chatType).orElse(MessageIOMonitor.UNKNOWN);
+  }
+
+  private Mono<SBEEventMessage> getReplyMessageAsync(String userId, SessionSupplier<SymphonySession> session, String messageId) {
+    return symphonyService.getEncryptedMessageAsync(messageId, session)
+      .onErrorResume(e -> Mono.empty())
       // See: https://perzoinc.atlassian.net/browse/CES-4690
       // Use gateway bot to retrieve message if the "messageId" belongs to a room and the bot is in the room
       // This is required when an Connect user was in a room, then getting removed, and added again
       // In this  case, the Connect service account could not retrieve historic message, only the Connect room bot could
-      eventMessage = symphonyService.getEncryptedMessage(messageId, datafeedSessionPool.getBotSessionSupplier()).get();
-    }
-    messageDecryptor.decrypt(eventMessage, userId, session.getPrincipal());
-
-    return eventMessage;
+      .switchIfEmpty(Mono.defer(() -> symphonyService.getEncryptedMessageAsync(messageId, datafeedSessionPool.getBotSessionSupplier())))
+      .switchIfEmpty(Mono.error(() -> new NoSuchElementException("Message " + messageId + " not found")))
+      .handle((eventMessage, sink) -> {
+        try {
+          messageDecryptor.decrypt(eventMessage, userId, session.getPrincipal());
+          sink.next(eventMessage);
+        } catch (DecryptionException e) {
+          sink.error(e);
+        }
+      });
   }
+
   public MessageInfoWithCustomEntities decryptAndBuildMessageInfo(SBEEventMessage sbeEventMessage, String symphonyUserId, SessionSupplier<SymphonySession> userSession) throws DecryptionException {
       return decryptAndBuildMessageInfo(sbeEventMessage, symphonyUserId, userSession, new HashMap<>());
   }
 
 
-    public MessageInfoWithCustomEntities decryptAndBuildMessageInfo(SBEEventMessage sbeEventMessage, String symphonyUserId, SessionSupplier<SymphonySession> userSession, Map<String, SBEEventMessage> retrievedMessages) throws DecryptionException {
+  /**
+   * @param quotedMessages encrypted quoted messages, shared by the decryptions of a retrieval. The messages already
+   *                       retrieved are completed, the others are added while they are fetched.
+   */
+  public MessageInfoWithCustomEntities decryptAndBuildMessageInfo(SBEEventMessage sbeEventMessage, String symphonyUserId, SessionSupplier<SymphonySession> userSession, Map<String, CompletableFuture<SBEEventMessage>> quotedMessages) throws DecryptionException {
     messageDecryptor.decrypt(sbeEventMessage, symphonyUserId, userSession.getPrincipal());
 
     // TODO handle inline replies
@@ -341,23 +437,7 @@ public MessageInfoWithCustomEntities decryptAndBuildMessageInfo(SBEEventMessage
           LOG.warn("Could not parse quoted attachment in message custom entities");
         }
       }
-      Optional<SBEEventMessage> inlineMessageOptional = Optional.empty();
-      if (retrievedMessages.containsKey(quotedId)) {
-        inlineMessageOptional = Optional.of(retrievedMessages.get(quotedId).toBuilder().build());
-      }
-      if(inlineMessageOptional.isEmpty()) {
-        inlineMessageOptional = symphonyService.getEncryptedMessage(quotedId, userSession);
-      }
-      if (inlineMessageOptional.isEmpty()) {
-        // The message might not been retrieve with the federated account session
-        // We try with the connect bot session
-        inlineMessageOptional = symphonyService.getEncryptedMessage(quotedId, datafeedSessionPool.getBotSessionSupplier());
-      }
-      if (inlineMessageOptional.isEmpty()) {
-        throw new RetrieveMessageFailedProblem();
-      }
-
-      SBEEventMessage inlineMessage = inlineMessageOptional.get();
+      SBEEventMessage inlineMessage = getQuotedMessage(quotedId, userSession, quotedMessages).toBuilder().build();
 
       messageDecryptor.decrypt(inlineMessage, symphonyUserId, userSession.getPrincipal());
       MessageInfo inlineMessageInfo = buildMessageInfo(inlineMessage);
@@ -377,6 +457,43 @@ public MessageInfoWithCustomEntities decryptAndBuildMessageInfo(SBEEventMessage
     return messageInfo;
   }
 
+  /**
+   * Fetch a quoted message once: the decryptions quoting a message being fetched wait for that fetch. The fetch runs
+   * outside of the map, a concurrent map is only locked to add the pending fetch.
+   */
+  private SBEEventMessage getQuotedMessage(String quotedId, SessionSupplier<SymphonySession> userSession, Map<String, CompletableFuture<SBEEventMessage>> quotedMessages) {
+    CompletableFuture<SBEEventMessage> fetch = new CompletableFuture<>();
+    CompletableFuture<SBEEventMessage> quotedMessage = quotedMessages.putIfAbsent(quotedId, fetch);
+    if (quotedMessage == null) {
+      quotedMessage = fetch;
+      try {
+        fetch.complete(fetchQuotedMessage(quotedId, userSession));
+      } catch (RuntimeException e) {
+        fetch.completeExceptionally(e);
+        throw e;
+      }
+    }
+
+    try {
+      return quotedMessage.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private SBEEventMessage fetchQuotedMessage(String quotedId, SessionSupplier<SymphonySession> userSession) {
+    Optional<SBEEventMessage> inlineMessageOptional = symphonyService.getEncryptedMessage(quotedId, userSession);
+    if (inlineMessageOptional.isEmpty()) {
+      // The message might not been retrieve with the federated account session
+      // We try with the connect bot session
+      inlineMessageOptional = symphonyService.getEncryptedMessage(quotedId, datafeedSessionPool.getBotSessionSupplier());
+    }
+    return inlineMessageOptional.orElseThrow(RetrieveMessageFailedProblem::new);
+  }
+
   private MessageInfoWithCustomEntities buildMessageInfo(SBEEventMessage sbeEventMessage) {
     MessageInfoWithCustomEntities messageInfo = messageInfoMapper.sbeEventMessageToMessageInfo(sbeEventMessage);
     messageInfo.setMessageId(StreamUtil.toUrlSafeStreamId(sbeEventMessage.getMessageId()));
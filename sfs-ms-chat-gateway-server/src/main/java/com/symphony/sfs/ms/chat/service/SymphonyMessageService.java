@@ -6,11 +6,11 @@
 import com.google.common.annotations.VisibleForTesting;
 import com.symphony.oss.models.chat.canon.IAttachment;
 import com.symphony.oss.models.chat.canon.IAttachmentEntity;
-import com.symphony.sfs.ms.admin.generated.model.BlockedFileTypes;
 import com.symphony.sfs.ms.admin.generated.model.CanChatResponse;
 import com.symphony.sfs.ms.admin.generated.model.EmpEntity;
 import com.symphony.sfs.ms.admin.generated.model.EmpSchema;
 import com.symphony.sfs.ms.chat.config.EmpConfig;
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
 import com.symphony.sfs.ms.chat.datafeed.DatafeedListener;
 import com.symphony.sfs.ms.chat.datafeed.DatafeedSessionPool;
 import com.symphony.sfs.ms.chat.datafeed.ForwarderQueueConsumer;
@@ -20,7 +20,6 @@
 import com.symphony.sfs.ms.chat.exception.UnknownDatafeedUserException;
 import com.symphony.sfs.ms.chat.generated.model.AttachmentBlocked;
 import com.symphony.sfs.ms.chat.generated.model.AttachmentBlockedProblem;
-import com.symphony.sfs.ms.chat.generated.model.CannotRetrieveStreamIdProblem;
 import com.symphony.sfs.ms.chat.generated.model.EmpNotFoundProblem;
 import com.symphony.sfs.ms.chat.generated.model.FormattingEnum;
 import com.symphony.sfs.ms.chat.generated.model.MessageId;
@@ -34,9 +33,11 @@
 import com.symphony.sfs.ms.chat.generated.model.SymphonyAttachment;
 import com.symphony.sfs.ms.chat.model.FederatedAccount;
 import com.symphony.sfs.ms.chat.repository.FederatedAccountRepository;
+import com.symphony.sfs.ms.chat.service.BlockedFileTypesCache.FileTypeMatcher;
 import com.symphony.sfs.ms.chat.service.external.AdminClient;
 import com.symphony.sfs.ms.chat.service.external.EmpClient;
 import com.symphony.sfs.ms.chat.service.symphony.SymphonyService;
+import com.symphony.sfs.ms.chat.util.MonoUtils;
 import com.symphony.sfs.ms.emp.generated.model.Attachment;
 import com.symphony.sfs.ms.emp.generated.model.ChannelMember;
 import com.symphony.sfs.ms.emp.generated.model.EmpError;
@@ -72,6 +73,9 @@
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.zalando.problem.violations.Violation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import javax.annotation.PostConstruct;
 import java.time.OffsetDateTime;
@@ -80,14 +84,14 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.BlockingCauseFromSymphony.NOT_ENOUGH_MEMBER;
@@ -98,6 +102,8 @@
 import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.BlockingCauseFromSymphony.UNSUPPORTED_MESSAGE_CONTENTS;
 import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.BlockingCauseToSymphony.ADVISOR_NO_LONGER_AVAILABLE;
 import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.BlockingCauseToSymphony.FEDERATED_ACCOUNT_NOT_FOUND;
+import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.Stage.EMP_SEND;
+import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.Stage.SYMPHONY_SEND;
 import static com.symphony.sfs.ms.starter.util.ProblemUtils.newConstraintViolation;
 
 @Service
@@ -109,6 +115,8 @@ public class SymphonyMessageService implements DatafeedListener {
   private final long MAX_UPLOAD_SIZE = 34 * 1024 * 1024;
   private static final int MAX_TEXT_LENGTH = 30000;
   protected static final int POD_BATCH_REQUEST_SIZE = 500;
+  // messages of a same retrieval fetched or decrypted at the same time
+  private static final int RETRIEVAL_CONCURRENCY = 8;
   private static final String TEXT_TOO_LONG_WARNING = "The message was too long and was truncated. Only the first %,d characters were delivered";
   public static final String TYPE = "type";
   public static final String CONTACTS_MESSAGE_TYPE = "send_contacts";
@@ -131,6 +139,11 @@ public class SymphonyMessageService implements DatafeedListener {
   private final MessageSource messageSource;
   private final MessageDecryptor messageDecryptor;
   private final ObjectMapper objectMapper;
+  private final AttachmentFetcher attachmentFetcher;
+  private final BlockedFileTypesCache blockedFileTypesCache;
+  private final CanChatCache canChatCache;
+  private final StreamInfoCache streamInfoCache;
+  private final ChatConfiguration chatConfiguration;
 
 
   @PostConstruct
@@ -172,6 +185,7 @@ private boolean arePartiesValid(GatewaySocialMessage gatewaySocialMessage) {
 
   private void handleFromSymphonyIMorMIM(GatewaySocialMessage gatewaySocialMessage) {
     String streamId = gatewaySocialMessage.getStreamId();
+    String chatType = MessageIOMonitor.chatType(gatewaySocialMessage);
     MultiValueMap<String, FederatedAccount> federatedAccountsByEmp = new LinkedMultiValueMap<>();
     List<FederatedAccount> federatedAccounts = new ArrayList<>();
 
@@ -186,7 +200,7 @@ private void handleFromSymphonyIMorMIM(GatewaySocialMessage gatewaySocialMessage
     if (federatedAccountsByEmp.isEmpty()) {
       // No federated account found
       LOG.warn("Unexpected handleFromSymphonyIMorMIM towards non-federated accounts, in-memory session to be removed | toUsers={}", gatewaySocialMessage.getToUserIds());
-      messageMetrics.onMessageBlockFromSymphony(NO_FEDERATED_ACCOUNT, streamId);
+      messageMetrics.onMessageBlockFromSymphony(NO_FEDERATED_ACCOUNT, MessageIOMonitor.UNKNOWN, chatType, streamId);
       gatewaySocialMessage.getToUserIds().forEach(datafeedSessionPool::removeSessionInMemory);
       return;
     }
@@ -208,8 +222,8 @@ private void handleFromSymphonyIMorMIM(GatewaySocialMessage gatewaySocialMessage
       if (gatewaySocialMessage.containsCustomEntityType(CustomEntity.QUOTE_TYPE)) {
         inlineMessageRequest = getInlineQuote(gatewaySocialMessage, streamId, federatedAccounts, allUserSessions);
         if (inlineMessageRequest != null && botConfiguration.getSymphonyId().equals(inlineMessageRequest.getFromMember().getSymphonyId())) {
-          allUserSessions.forEach(session -> symphonyMessageSender.sendAlertMessage(session, streamId, messageSource.getMessage("cannot.reply.to.message.type", null, Locale.getDefault()), Collections.emptyList()));
-          messageMetrics.onMessageBlockFromSymphony(UNSUPPORTED_MESSAGE_CONTENTS, streamId);
+          symphonyMessageSender.sendAlertMessages(allUserSessions, streamId, messageSource.getMessage("cannot.reply.to.message.type", null, Locale.getDefault()), Collections.emptyList());
+          messageMetrics.onMessageBlockFromSymphony(UNSUPPORTED_MESSAGE_CONTENTS, MessageIOMonitor.UNKNOWN, chatType, streamId);
           return;
         }
         gatewaySocialMessage.getAttachments().clear(); // attachment cannot be sent as replies and we do not want to forward them
@@ -223,13 +237,13 @@ private void handleFromSymphonyIMorMIM(GatewaySocialMessage gatewaySocialMessage
         EmpSchema empSchema = empEntity.getSchema();
 
         if (gatewaySocialMessage.isChime() && (empSchema.getSupportedFeatures() == null || empSchema.getSupportedFeatures().isChime() == null || !empSchema.getSupportedFeatures().isChime())) {
-          allUserSessions.forEach(session -> symphonyMessageSender.sendAlertMessage(session, streamId, messageSource.getMessage("chimes.not.supported", null, Locale.getDefault()), Collections.emptyList()));
-          messageMetrics.onMessageBlockFromSymphony(UNSUPPORTED_MESSAGE_CONTENTS, streamId);
+          symphonyMessageSender.sendAlertMessages(allUserSessions, streamId, messageSource.getMessage("chimes.not.supported", null, Locale.getDefault()), Collections.emptyList());
+          messageMetrics.onMessageBlockFromSymphony(UNSUPPORTED_MESSAGE_CONTENTS, emp, chatType, streamId);
           continue;
         } else if ((gatewaySocialMessage.isTable() && !isContactMessage(gatewaySocialMessage.getEntityJSON(), streamId, gatewaySocialMessage.getFromUserId()))
           && (empSchema.getSupportedFeatures() == null || empSchema.getSupportedFeatures().isTable() == null || !empSchema.getSupportedFeatures().isTable())) {
-          allUserSessions.forEach(session -> symphonyMessageSender.sendAlertMessage(session, streamId, messageSource.getMessage("tables.not.supported", null, Locale.getDefault()), Collections.emptyList()));
-          messageMetrics.onMessageBlockFromSymphony(UNSUPPORTED_MESSAGE_CONTENTS, streamId);
+          symphonyMessageSender.sendAlertMessages(allUserSessions, streamId, messageSource.getMessage("tables.not.supported", null, Locale.getDefault()), Collections.emptyList());
+          messageMetrics.onMessageBlockFromSymphony(UNSUPPORTED_MESSAGE_CONTENTS, emp, chatType, streamId);
           continue;
         }
 
@@ -243,47 +257,32 @@ private void handleFromSymphonyIMorMIM(GatewaySocialMessage gatewaySocialMessage
         // CES-3203 Prevent messages to be sent in MIMs
         if (!gatewaySocialMessage.isRoom() && gatewaySocialMessage.getToUserIds().size() > 1) {
           String alertMessage = messageSource.getMessage("chat.mim.not.supported", new Object[]{empSchemaService.getEmpDisplayName(emp)}, Locale.getDefault());
-          userSessions.forEach(session -> symphonyMessageSender.sendAlertMessage(session, streamId, alertMessage, Collections.emptyList()));
-          messageMetrics.onMessageBlockFromSymphony(TOO_MANY_MEMBERS, streamId);
+          symphonyMessageSender.sendAlertMessages(userSessions, streamId, alertMessage, Collections.emptyList());
+          messageMetrics.onMessageBlockFromSymphony(TOO_MANY_MEMBERS, emp, chatType, streamId);
           return;
         }
 
-        Optional<CanChatResponse> canChat = gatewaySocialMessage.isRoom() ? Optional.of(CanChatResponse.CAN_CHAT) : adminClient.canChat(gatewaySocialMessage.getFromUserId(), toFederatedAccountsForEmp.get(0).getFederatedUserId(), emp);
+        Optional<CanChatResponse> canChat = gatewaySocialMessage.isRoom() ? Optional.of(CanChatResponse.CAN_CHAT) : canChatCache.canChat(gatewaySocialMessage.getFromUserId(), toFederatedAccountsForEmp.get(0).getFederatedUserId(), emp);
 
         if (manageCanChat(gatewaySocialMessage, emp, streamId, userSessions, canChat)) {
           List<Attachment> attachmentsContent = null;
           List<IAttachment> blockedAttachments = new ArrayList<>();
-          long totalsize = 0;
           if (!CollectionUtils.isEmpty(gatewaySocialMessage.getAttachments())) {
-            Optional<BlockedFileTypes> blockedFileTypesOptional = adminClient.getBlockedFileTypes(streamId, emp);
-            Set<String> blockedAttachmentsType = blockedFileTypesOptional.isPresent() ? new HashSet<>(blockedFileTypesOptional.get()) : new HashSet<>();
+            FileTypeMatcher blockedFileTypes = blockedFileTypesCache.getMatcher(streamId, emp);
+            List<IAttachment> allowedAttachments = new ArrayList<>();
+            for (IAttachment attachment : gatewaySocialMessage.getAttachments()) {
+              if (blockedFileTypes.isBlocked(attachment.getContentType())) {
+                blockedAttachments.add(attachment);
+              } else {
+                allowedAttachments.add(attachment);
+              }
+            }
             // retrieve the attachment
             try {
-              attachmentsContent = new ArrayList<>();
-              for (IAttachment attachment : gatewaySocialMessage.getAttachments()) {
-
-                if (blockedAttachmentsType.stream().anyMatch((type) -> Pattern.compile(type).matcher(attachment.getContentType()).matches())) {
-                  blockedAttachments.add(attachment);
-                } else {
-                  Attachment result = new Attachment()
-                    .contentType(attachment.getContentType())
-                    .fileName(attachment.getName())
-                    .data(symphonyService.getAttachment(streamId, gatewaySocialMessage.getMessageId(), attachment.getFileId(), allUserSessions.get(0)));
-
-                  attachmentsContent.add(result);
-
-
-                  totalsize += result.getData().length(); // Technically the byte size might not match the length but we assume this is ASCII
-                  if (totalsize > MAX_UPLOAD_SIZE) {
-                    String alertMessage = messageSource.getMessage("message.partially.sent", new Object[]{gatewaySocialMessage.getMessageId()}, Locale.getDefault());
-                    allUserSessions.forEach(session -> symphonyMessageSender.sendAlertMessage(session, streamId, alertMessage, Collections.emptyList()));
-                    return;
-                  }
-                }
-              }
+              attachmentsContent = attachmentFetcher.fetchAttachments(streamId, gatewaySocialMessage.getMessageId(), allowedAttachments, allUserSessions.get(0), MAX_UPLOAD_SIZE);
             } catch (DataBufferLimitException dbe) {
               String alertMessage = messageSource.getMessage("message.partially.sent", new Object[]{gatewaySocialMessage.getMessageId()}, Locale.getDefault());
-              allUserSessions.forEach(session -> symphonyMessageSender.sendAlertMessage(session, streamId, alertMessage, Collections.emptyList()));
+              symphonyMessageSender.sendAlertMessages(allUserSessions, streamId, alertMessage, Collections.emptyList());
               return;
             }
           }
@@ -292,7 +291,7 @@ private void handleFromSymphonyIMorMIM(GatewaySocialMessage gatewaySocialMessage
 
             String types = blockedAttachments.stream().map(IAttachmentEntity::getContentType).collect(Collectors.joining(", "));
             String alertMessage = messageSource.getMessage("attachment.blocked", new Object[]{types, empEntity.getDisplayName()}, Locale.getDefault());
-            allUserSessions.forEach(session -> symphonyMessageSender.sendAlertMessage(session, streamId, alertMessage, Collections.emptyList()));
+            symphonyMessageSender.sendAlertMessages(allUserSessions, streamId, alertMessage, Collections.emptyList());
           }
 
 
@@ -304,9 +303,10 @@ private void handleFromSymphonyIMorMIM(GatewaySocialMessage gatewaySocialMessage
           //  Proposition 1: block the chat (system message indicated that the chat is not possible until everyone has joined
           //  Proposition 2: allow chatting as soon as one federated has joined. In this case, what about the history of messages?
 
-          messageMetrics.onSendMessageFromSymphony(gatewaySocialMessage.getFromUser(), toFederatedAccountsForEmp, streamId);
+          messageMetrics.onSendMessageFromSymphony(emp, chatType, gatewaySocialMessage.getFromUserId(), streamId);
 
           if (!StringUtils.isEmpty(gatewaySocialMessage.getTextContent()) || (attachmentsContent != null && !attachmentsContent.isEmpty())) {
+            long start = System.nanoTime();
             Optional<SendMessageResponse> sendMessageResponse = empClient.sendMessage(emp,
               streamId,
               gatewaySocialMessage.getMessageId(),
@@ -320,8 +320,9 @@ private void handleFromSymphonyIMorMIM(GatewaySocialMessage gatewaySocialMessage
               inlineMessageRequest,
               gatewaySocialMessage.getEntityJSON()
             );
+            messageMetrics.onStage(EMP_SEND, emp, chatType, start);
             if (sendMessageResponse.isEmpty()) {
-              allUserSessions.forEach(session -> symphonyMessageSender.sendAlertMessage(session, streamId, messageSource.getMessage("message.not.delivered", new Object[]{gatewaySocialMessage.getMessageId()}, Locale.getDefault()), Collections.emptyList()));
+              symphonyMessageSender.sendAlertMessages(allUserSessions, streamId, messageSource.getMessage("message.not.delivered", new Object[]{gatewaySocialMessage.getMessageId()}, Locale.getDefault()), Collections.emptyList());
             } else {
               this.dealWithMessageSentPartially(gatewaySocialMessage, sendMessageResponse.get(), allUserSessions);
             }
@@ -411,7 +412,7 @@ private void dealWithMessageSentPartially(GatewaySocialMessage gatewaySocialMess
       LOG.info("SymphonyMessageService.dealWithMessageSentPartially | formattedErrors={}", formattedErrors);
     }
 
-    allUserSessions.forEach(session -> symphonyMessageSender.sendAlertMessage(session, gatewaySocialMessage.getStreamId(), errorMessage, formattedErrors.isEmpty() ? null : formattedErrors));
+    symphonyMessageSender.sendAlertMessages(allUserSessions, gatewaySocialMessage.getStreamId(), errorMessage, formattedErrors.isEmpty() ? null : formattedErrors);
   }
 
   private String federatedAccountDisplayName(FederatedAccount federatedAccount) {
@@ -424,12 +425,12 @@ private boolean manageCanChat(GatewaySocialMessage gatewaySocialMessage, String
     }
 
     if (canChat.isEmpty() || canChat.get() == CanChatResponse.NO_ENTITLEMENT) {
-      userSessions.forEach(session -> symphonyMessageSender.sendAlertMessage(session, streamId, messageSource.getMessage("cannot.chat.not.entitled", new Object[]{empSchemaService.getEmpDisplayName(emp)}, Locale.getDefault()), Collections.emptyList()));
-      messageMetrics.onMessageBlockFromSymphony(NO_ENTITLEMENT_ACCESS, streamId);
+      symphonyMessageSender.sendAlertMessages(userSessions, streamId, messageSource.getMessage("cannot.chat.not.entitled", new Object[]{empSchemaService.getEmpDisplayName(emp)}, Locale.getDefault()), Collections.emptyList());
+      messageMetrics.onMessageBlockFromSymphony(NO_ENTITLEMENT_ACCESS, emp, MessageIOMonitor.chatType(gatewaySocialMessage), streamId);
       return false;
     } else if (canChat.get() == CanChatResponse.NO_CONTACT) {
-      userSessions.forEach(session -> symphonyMessageSender.sendAlertMessage(session, streamId, messageSource.getMessage("cannot.chat.no.contact", null, Locale.getDefault()), Collections.emptyList()));
-      messageMetrics.onMessageBlockFromSymphony(NO_CONTACT, streamId);
+      symphonyMessageSender.sendAlertMessages(userSessions, streamId, messageSource.getMessage("cannot.chat.no.contact", null, Locale.getDefault()), Collections.emptyList());
+      messageMetrics.onMessageBlockFromSymphony(NO_CONTACT, emp, MessageIOMonitor.chatType(gatewaySocialMessage), streamId);
       return false;
     }
     return true;
@@ -446,44 +447,76 @@ public void markMessagesAsRead(SetMessagesAsReadRequest setMessagesAsReadRequest
     }
   }
 
+  /**
+   * Retrieve and decrypt messages of a thread, in the order of the requested ids.
+   * <p>
+   * The thread is paged back from endTime until all the requested messages are found. The ones still missing are
+   * then fetched one by one, concurrently. Messages are decrypted concurrently too, with their quoted message.
+   * In incremental mode only the requested messages and their quoted messages are kept from the paged history: the
+   * custom entities of a requested message are decrypted when it is paged, to know the message it quotes.
+   */
   @NewSpan
   public RetrieveMessagesResponse retrieveMessages(String threadId, List<MessageId> messageIds, String symphonyUserId, OffsetDateTime startTime, OffsetDateTime endTime) {
     try {
-      List<MessageInfo> messageInfos = new ArrayList<>();
-
       SessionSupplier<SymphonySession> userSession = datafeedSessionPool.getSessionSupplierOrFail(symphonyUserId);
 
-      Map<String, SBEEventMessage> sbeEventMessages = new HashMap<>();
+      boolean incremental = chatConfiguration.getMessageRetrieval().isIncremental();
+      Map<String, SBEEventMessage> sbeEventMessages = new ConcurrentHashMap<>();
+      Set<String> missingIds = messageIds.stream().map(MessageId::getMessageId).collect(Collectors.toCollection(HashSet::new));
+      // quoted messages of the requested ones, kept if they are paged. Paging does not go on for them: the ones that
+      // are not paged are fetched with their quoting message
+      Set<String> quotedIds = new HashSet<>();
       ThreadMessagesResponse response;
 
       long from = startTime.toInstant().toEpochMilli();
       long to = endTime.toInstant().toEpochMilli();
 
+      int pages = 0;
       do {
         response = streamService.retrieveSocialMessagesList(podConfiguration.getUrl(), userSession, threadId, POD_BATCH_REQUEST_SIZE, from, to).orElseThrow(RetrieveMessageFailedProblem::new);
+        pages++;
 
         for (MessageEnvelope messageEnvelope : response.getEnvelopes()) {
-          sbeEventMessages.put(StreamUtil.toUrlSafeStreamId(messageEnvelope.getMessage().getMessageId()), messageEnvelope.getMessage());
+          SBEEventMessage sbeEventMessage = messageEnvelope.getMessage();
+          String messageId = StreamUtil.toUrlSafeStreamId(sbeEventMessage.getMessageId());
+          if (missingIds.remove(messageId)) {
+            sbeEventMessages.put(messageId, sbeEventMessage);
+            if (incremental) {
+              // envelopes are paged from the newest, the quoted message can only be in this page or the next ones
+              messageDecryptor.decryptQuotedMessageId(sbeEventMessage, symphonyUserId, userSession.getPrincipal())
+                .map(StreamUtil::toUrlSafeStreamId)
+                .filter(quotedId -> !sbeEventMessages.containsKey(quotedId))
+                .ifPresent(quotedIds::add);
+            }
+          } else if (quotedIds.remove(messageId) || !incremental) {
+            sbeEventMessages.put(messageId, sbeEventMessage);
+          }
         }
 
         if (!response.getEnvelopes().isEmpty()) {
           to = response.getEnvelopes().get(response.getEnvelopes().size() - 1).getMessage().getIngestionDate();
         }
 
-      } while (response.getEnvelopes().size() == POD_BATCH_REQUEST_SIZE);
+      } while (!missingIds.isEmpty() && response.getEnvelopes().size() == POD_BATCH_REQUEST_SIZE);
+      messageMetrics.onMessagesRetrieved(pages);
 
-      for (MessageId id : messageIds) {
-        SBEEventMessage sbeEventMessage = sbeEventMessages.get(id.getMessageId());
-        if (sbeEventMessage == null) {
-          sbeEventMessage = symphonyService.getEncryptedMessage(id.getMessageId(), userSession).orElseThrow(RetrieveMessageFailedProblem::new);
-        }
-
-        if (sbeEventMessage != null) {
-          MessageInfo messageInfo = symphonyMessageSender.decryptAndBuildMessageInfo(sbeEventMessage.toBuilder().build(), symphonyUserId, userSession, sbeEventMessages);
-          messageInfos.add(messageInfo);
-        }
+      if (!missingIds.isEmpty()) {
+        Flux.fromIterable(missingIds)
+          .flatMap(id -> Mono.fromCallable(() -> symphonyService.getEncryptedMessage(id, userSession).orElseThrow(RetrieveMessageFailedProblem::new))
+            .subscribeOn(Schedulers.boundedElastic())
+            .doOnNext(sbeEventMessage -> sbeEventMessages.put(id, sbeEventMessage)), RETRIEVAL_CONCURRENCY)
+          .then()
+          .block();
       }
 
+      // read by the decrypting threads, quoted messages that are fetched are added to it
+      Map<String, CompletableFuture<SBEEventMessage>> quotedMessages = new ConcurrentHashMap<>();
+      sbeEventMessages.forEach((id, sbeEventMessage) -> quotedMessages.put(id, CompletableFuture.completedFuture(sbeEventMessage)));
+      List<MessageInfo> messageInfos = MonoUtils.blockUnwrapping(Flux.fromIterable(messageIds)
+        .flatMapSequential(id -> Mono.fromCallable(() -> (MessageInfo) symphonyMessageSender.decryptAndBuildMessageInfo(sbeEventMessages.get(id.getMessageId()).toBuilder().build(), symphonyUserId, userSession, quotedMessages))
+          .subscribeOn(Schedulers.boundedElastic()), RETRIEVAL_CONCURRENCY)
+        .collectList(), DecryptionException.class);
+
       return new RetrieveMessagesResponse().messages(messageInfos);
     } catch (UnknownDatafeedUserException e) {
       LOG.error("Session not found from symphony user {}", symphonyUserId);
@@ -505,31 +538,31 @@ public MessageInfoWithCustomEntities sendMessage(String streamId, String fromSym
     });
     MDC.put("federatedUserId", federatedAccount.getFederatedUserId());
     MessageInfoWithCustomEntities symphonyMessage = null;
-    StreamInfo streamInfo = getStreamInfo(streamId);
+    boolean isRoom = streamInfoCache.getStreamType(streamId) == StreamTypes.ROOM;
+    String chatType = isRoom ? "ROOM" : "IM";
     Optional<String> notEntitled = Optional.empty();
-    if (streamInfo.getStreamType().getType() != StreamTypes.ROOM) {
-      Optional<String> advisorSymphonyUserId = findAdvisor(streamInfo, streamId, fromSymphonyUserId);
+    if (!isRoom) {
+      Optional<String> advisorSymphonyUserId = findAdvisor(streamInfoCache.getStreamInfo(streamId), streamId, fromSymphonyUserId);
       notEntitled = notEntitledMessage(advisorSymphonyUserId, federatedAccount.getFederatedUserId(), federatedAccount.getEmp(), formatting);
       advisorSymphonyUserId.ifPresent(s -> MDC.put("advisor", s));
     }
 
     try {
       if (notEntitled.isPresent()) {
-        messageMetrics.onMessageBlockToSymphony(ADVISOR_NO_LONGER_AVAILABLE, streamId);
+        messageMetrics.onMessageBlockToSymphony(ADVISOR_NO_LONGER_AVAILABLE, federatedAccount.getEmp(), chatType, streamId);
         feedbackAboutIncomingMessage(federatedAccount.getEmp(), streamId, fromSymphonyUserId, notEntitled.get(), TypeEnum.ALERT);
       } else {
         // TODO fix this bad management of optional
-        messageMetrics.onSendMessageToSymphony(fromSymphonyUserId, streamId);
+        messageMetrics.onSendMessageToSymphony(federatedAccount.getEmp(), chatType, fromSymphonyUserId, streamId);
         int maxTextLength = empConfig.getMaxTextLength().getOrDefault(federatedAccount.getEmp(), MAX_TEXT_LENGTH);
         boolean textTooLong = (text.length() > maxTextLength);
 
         if (attachments != null && attachments.size() > 0) {
-          Optional<BlockedFileTypes> blockedFileTypesOptional = adminClient.getBlockedFileTypes(streamId, federatedAccount.getEmp());
-          Set<String> empBlockedTypes = blockedFileTypesOptional.isPresent() ? new HashSet<>(blockedFileTypesOptional.get()) : new HashSet<>();
+          FileTypeMatcher empBlockedTypes = blockedFileTypesCache.getMatcher(streamId, federatedAccount.getEmp());
 
           if (!empBlockedTypes.isEmpty()) {
             List<SymphonyAttachment> attachmentsBlocked = attachments.stream()
-              .filter(a -> empBlockedTypes.stream().anyMatch((type) -> Pattern.compile(type).matcher(a.getContentType()).matches()))
+              .filter(a -> empBlockedTypes.isBlocked(a.getContentType()))
               .collect(Collectors.toList());
             if (!attachmentsBlocked.isEmpty()) {
               throw new AttachmentBlockedProblem(null, Map.of("attachmentsBlocked", attachmentsBlocked.stream().map(a -> new AttachmentBlocked().name(a.getFileName()).mimeType(a.getContentType())).collect(Collectors.toList())));
@@ -537,15 +570,15 @@ public MessageInfoWithCustomEntities sendMessage(String streamId, String fromSym
           }
         }
 
-        symphonyMessage = forwardIncomingMessageToSymphony(streamId, fromSymphonyUserId, formatting, text, attachments, parentMessageId, forwarded, textTooLong, maxTextLength, attachmentReplySupported, attachmentMessageIds, jsonData, presentationML)
-          .orElseThrow(SendMessageFailedProblem::new);
+        long start = System.nanoTime();
+        Optional<MessageInfoWithCustomEntities> sentMessage = forwardIncomingMessageToSymphony(streamId, fromSymphonyUserId, formatting, text, attachments, parentMessageId, forwarded, textTooLong, maxTextLength, attachmentReplySupported, attachmentMessageIds, jsonData, presentationML);
+        messageMetrics.onStage(SYMPHONY_SEND, federatedAccount.getEmp(), chatType, start);
+        symphonyMessage = sentMessage.orElseThrow(SendMessageFailedProblem::new);
         // In the case the message was sent truncated, send an alert to the Symphony and Federated users (CES-1912)
         if (textTooLong) {
           String alertMessage = String.format(TEXT_TOO_LONG_WARNING, maxTextLength);
           feedbackAboutIncomingMessage(federatedAccount.getEmp(), streamId, fromSymphonyUserId, alertMessage, TypeEnum.ALERT);
 
-          boolean isRoom = streamInfo.getStreamType().getType() == StreamTypes.ROOM;
-
           SessionSupplier<SymphonySession> session;
           if (isRoom) {
             session = datafeedSessionPool.getBotSessionSupplier();
@@ -565,7 +598,7 @@ public MessageInfoWithCustomEntities sendMessage(String streamId, String fromSym
 
   @NewSpan
   public MessageInfoWithCustomEntities sendSystemMessage(String streamId, FormattingEnum formatting, String text, String title, String fromSymphonyUserId) {
-    boolean isRoom = getStreamInfo(streamId).getStreamType().getType() == StreamTypes.ROOM;
+    boolean isRoom = streamInfoCache.getStreamType(streamId) == StreamTypes.ROOM;
 
     try {
       SessionSupplier<SymphonySession> session;
@@ -655,12 +688,6 @@ private void feedbackAboutIncomingMessage(String emp, String streamId, String sy
     empClient.sendSystemMessage(emp, streamId, symphonyId, new Date().getTime(), reasonText, feedbackType);
   }
 
-  private StreamInfo getStreamInfo(String streamId) {
-
-
-    return streamService.getStreamInfo(podConfiguration.getUrl(), datafeedSessionPool.getBotSessionSupplier(), streamId).orElseThrow(CannotRetrieveStreamIdProblem::new);
-  }
-
   /**
    * Pre-requisite: the stream is an IM between an advisor and an emp user
    *
@@ -698,7 +725,7 @@ private Optional<String> notEntitledMessage(Optional<String> advisorSymphonyUser
     }
 
     // Advisor entitled
-    Optional<CanChatResponse> canChatResponse = adminClient.canChat(advisorSymphonyUserId.get(), federatedUserId, emp);
+    Optional<CanChatResponse> canChatResponse = canChatCache.canChat(advisorSymphonyUserId.get(), federatedUserId, emp);
     // We can still send notifications to advisors without contacts. Useful for onboarding when we need to send a notification before the contact is created
     // TODO REFACTOR, adding a message type and checking on that might make more sense than checking the formatting to change behaviour
     if (canChatResponse.isPresent() && canChatResponse.get() == CanChatResponse.CAN_CHAT ||
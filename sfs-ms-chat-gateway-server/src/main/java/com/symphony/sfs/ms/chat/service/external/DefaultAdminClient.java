@@ -20,30 +20,26 @@
 @Slf4j
 public class DefaultAdminClient implements AdminClient {
 
-  private final JwtTokenGenerator jwtTokenGenerator;
   private final SfsAdminClient adminClient;
 
   public DefaultAdminClient(WebClient webClient, ObjectMapper objectMapper, ChatConfiguration chatConfiguration, JwtTokenGenerator jwtTokenGenerator) {
-    this.jwtTokenGenerator = jwtTokenGenerator;
-    this.adminClient = new SfsAdminClient(chatConfiguration.getMsAdminUrl(), webClient, objectMapper);
+    // the client is shared by all threads: authenticate each request instead of setting the token on the ApiClients
+    WebClient authenticatedWebClient = webClient.mutate().filter(jwtTokenGenerator.authenticationFilter()).build();
+    this.adminClient = new SfsAdminClient(chatConfiguration.getMsAdminUrl(), authenticatedWebClient, objectMapper);
   }
 
   @Override
   public EmpList getEmpList() {
-    adminClient.getEmpApi().getApiClient().setSfsAuthentication(jwtTokenGenerator.generateMicroserviceToken());
     return adminClient.getEmpApi().getEmpList().orElse(new EmpList());
   }
 
   @Override
   public Optional<CanChatResponse> canChat(String advisorSymphonyId, String federatedUserId, String entitlementType) {
-    adminClient.getContactApi().getApiClient().setSfsAuthentication(jwtTokenGenerator.generateMicroserviceToken());
     return adminClient.getContactApi().canChat(advisorSymphonyId, federatedUserId, entitlementType);
   }
 
   @Override
   public void notifyLeaveRoom(String streamId, String requester, List<String> leavers) {
-    adminClient.getRoomApi().getApiClient().setSfsAuthentication(jwtTokenGenerator.generateMicroserviceToken());
-
     RoomLeftNotification roomLeft = new RoomLeftNotification()
       .requester(requester)
       .leavers(leavers)
@@ -53,13 +49,11 @@ public void notifyLeaveRoom(String streamId, String requester, List<String> leav
 
   @Override
   public void updateAdvisorInfo(AdvisorUpdateRequest advisorUpdateRequest) {
-    adminClient.getRoomApi().getApiClient().setSfsAuthentication(jwtTokenGenerator.generateMicroserviceToken());
     adminClient.getWebhookApi().updateAdvisorInfo(advisorUpdateRequest);
   }
 
   @Override
   public Optional<BlockedFileTypes> getBlockedFileTypes(String streamId, String emp) {
-    adminClient.getAttachmentConfigApi().getApiClient().setSfsAuthentication(jwtTokenGenerator.generateMicroserviceToken());
     return adminClient.getAttachmentConfigApi().getBlockedFilesTypes(streamId, emp);
   }
 }
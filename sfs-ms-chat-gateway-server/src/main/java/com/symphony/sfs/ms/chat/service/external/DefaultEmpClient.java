@@ -1,13 +1,10 @@
 package com.symphony.sfs.ms.chat.service.external;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.symphony.oss.models.chat.canon.facade.IUser;
 import com.symphony.sfs.ms.admin.generated.model.EmpEntity;
 import com.symphony.sfs.ms.chat.generated.model.EmpNotFoundProblem;
 import com.symphony.sfs.ms.chat.model.FederatedAccount;
-import com.symphony.sfs.ms.chat.service.EmpMicroserviceResolver;
 import com.symphony.sfs.ms.chat.service.EmpSchemaService;
-import com.symphony.sfs.ms.chat.service.JwtTokenGenerator;
 import com.symphony.sfs.ms.chat.util.ChannelMemberUtils;
 import com.symphony.sfs.ms.emp.EmpMicroserviceClient;
 import com.symphony.sfs.ms.emp.generated.model.Attachment;
@@ -26,7 +23,6 @@
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -39,15 +35,12 @@
 @RequiredArgsConstructor
 public class DefaultEmpClient implements EmpClient {
 
-  private final WebClient webClient;
-  private final ObjectMapper objectMapper;
-  private final EmpMicroserviceResolver empMicroserviceResolver;
-  private final JwtTokenGenerator jwtTokenGenerator;
+  private final EmpClientRegistry empClientRegistry;
   private final EmpSchemaService empSchemaService;
 
   @Override
   public Optional<SendMessageResponse> sendMessage(String emp, String streamId, String messageId, IUser fromSymphonyUser, List<FederatedAccount> toFederatedAccounts, Long timestamp, String message, String disclaimer, List<Attachment> attachments, SendmessagerequestInlineMessage inlineMessage, String jsonData) {
-    EmpMicroserviceClient client = new EmpMicroserviceClient(empMicroserviceResolver.getEmpMicroserviceBaseUri(emp), webClient, objectMapper);
+    EmpMicroserviceClient client = empClientRegistry.getClient(emp);
     SendMessageRequest request = new SendMessageRequest()
       .streamId(streamId)
       .messageId(messageId)
@@ -60,15 +53,12 @@ public Optional<SendMessageResponse> sendMessage(String emp, String streamId, St
       .inlineMessage(inlineMessage)
       .jsonData(jsonData);
 
-    // TODO async result too?
-    client.getMessagingApi().getApiClient().setSfsAuthentication(jwtTokenGenerator.generateMicroserviceToken());
-
     return client.getMessagingApi().sendMessage(request);
   }
 
   @Override
   public Optional<String> sendSystemMessage(String emp, String streamId, String symphonyId, Long timestamp, String message, SendSystemMessageRequest.TypeEnum type) {
-    EmpMicroserviceClient client = new EmpMicroserviceClient(empMicroserviceResolver.getEmpMicroserviceBaseUri(emp), webClient, objectMapper);
+    EmpMicroserviceClient client = empClientRegistry.getClient(emp);
 
     SendSystemMessageRequest request = new SendSystemMessageRequest()
       .streamId(streamId)
@@ -77,21 +67,18 @@ public Optional<String> sendSystemMessage(String emp, String streamId, String sy
       .text(message)
       .type(type);
 
-    // TODO async result too?
-    client.getMessagingApi().getApiClient().setSfsAuthentication(jwtTokenGenerator.generateMicroserviceToken());
     return client.getMessagingApi().sendSystemMessage(request).map(SendSystemMessageResponse::getOperationId);
   }
 
   @Override
   public void deleteAccountOrFail(String emp, String symphonyId, String phoneNumber, String tenantId) {
-    EmpMicroserviceClient client = new EmpMicroserviceClient(empMicroserviceResolver.getEmpMicroserviceBaseUri(emp), webClient, objectMapper);
-    client.getUserApi().getApiClient().setSfsAuthentication(jwtTokenGenerator.generateMicroserviceToken());
+    EmpMicroserviceClient client = empClientRegistry.getClient(emp);
     client.getUserApi().deleteUserOrFail(symphonyId, phoneNumber, tenantId);
   }
 
   @Override
   public Optional<UpdateUserResponse> updateAccountOrFail(String emp, String symphonyId, String phoneNumber, String tenantId, String firstName, String lastName, String companyName, String preferredLanguage) {
-    EmpMicroserviceClient client = new EmpMicroserviceClient(empMicroserviceResolver.getEmpMicroserviceBaseUri(emp), webClient, objectMapper);
+    EmpMicroserviceClient client = empClientRegistry.getClient(emp);
 
     UpdateUserRequest request = new UpdateUserRequest()
       .firstName(firstName)
@@ -99,22 +86,18 @@ public Optional<UpdateUserResponse> updateAccountOrFail(String emp, String symph
       .companyName(companyName)
       .preferredLanguage(preferredLanguage);
 
-    client.getUserApi().getApiClient().setSfsAuthentication(jwtTokenGenerator.generateMicroserviceToken());
     return client.getUserApi().updateUserOrFail(symphonyId, phoneNumber, tenantId, request);
   }
 
   @Override
   public Optional<DeleteChannelsResponse> deleteChannels(List<ChannelIdentifier> deleteChannelRequests, String emp) {
-    EmpMicroserviceClient client = new EmpMicroserviceClient(empMicroserviceResolver.getEmpMicroserviceBaseUri(emp), webClient, objectMapper);
-    client.getUserApi().getApiClient().setSfsAuthentication(jwtTokenGenerator.generateMicroserviceToken());
+    EmpMicroserviceClient client = empClientRegistry.getClient(emp);
     return client.getChannelApi().deleteChannelsOrFail(new DeleteChannelsRequest().channels(deleteChannelRequests));
   }
 
   @Override
   public Optional<RoomMemberResponse> addRoomMemberOrFail(String streamId, String emp, com.symphony.sfs.ms.emp.generated.model.RoomMemberRequest empRoomMemberRequest) {
-    EmpMicroserviceClient client = new EmpMicroserviceClient(empMicroserviceResolver.getEmpMicroserviceBaseUri(emp), webClient, objectMapper);
-
-    client.getRoomApi().getApiClient().setSfsAuthentication(jwtTokenGenerator.generateMicroserviceToken());
+    EmpMicroserviceClient client = empClientRegistry.getClient(emp);
 
     return client.getRoomApi().addRoomMemberOrFail(streamId, empRoomMemberRequest);
   }
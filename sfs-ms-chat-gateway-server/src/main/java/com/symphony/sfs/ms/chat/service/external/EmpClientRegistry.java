@@ -0,0 +1,53 @@
+package com.symphony.sfs.ms.chat.service.external;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.symphony.sfs.ms.chat.service.EmpMicroserviceResolver;
+import com.symphony.sfs.ms.chat.service.JwtTokenGenerator;
+import com.symphony.sfs.ms.emp.EmpMicroserviceClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link EmpMicroserviceClient} per EMP, built on first use and shared by all callers.
+ * <p>
+ * Requests are authenticated by a WebClient filter, the shared ApiClients are never modified.
+ * EMP definitions are loaded once at startup, so clients are only rebuilt when the environment (and so the
+ * MicroserviceResolver mappings) changes.
+ */
+@Component
+@Slf4j
+public class EmpClientRegistry {
+
+  private final WebClient authenticatedWebClient;
+  private final ObjectMapper objectMapper;
+  private final EmpMicroserviceResolver empMicroserviceResolver;
+  private final Map<String, EmpMicroserviceClient> clients = new ConcurrentHashMap<>();
+
+  public EmpClientRegistry(WebClient webClient, ObjectMapper objectMapper, EmpMicroserviceResolver empMicroserviceResolver, JwtTokenGenerator jwtTokenGenerator) {
+    this.authenticatedWebClient = webClient.mutate().filter(jwtTokenGenerator.authenticationFilter()).build();
+    this.objectMapper = objectMapper;
+    this.empMicroserviceResolver = empMicroserviceResolver;
+  }
+
+  public EmpMicroserviceClient getClient(String emp) {
+    return clients.computeIfAbsent(emp, this::buildClient);
+  }
+
+  @EventListener(EnvironmentChangeEvent.class)
+  public void invalidateAll() {
+    LOG.info("Environment changed, EMP clients will be rebuilt | emps={}", clients.keySet());
+    clients.clear();
+  }
+
+  private EmpMicroserviceClient buildClient(String emp) {
+    String baseUri = empMicroserviceResolver.getEmpMicroserviceBaseUri(emp);
+    LOG.info("Build EMP client | emp={} baseUri={}", emp, baseUri);
+    return new EmpMicroserviceClient(baseUri, authenticatedWebClient, objectMapper);
+  }
+}
@@ -2,9 +2,13 @@
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.symphony.sfs.ms.chat.datafeed.FileExtensionsResponse;
+import com.symphony.sfs.ms.chat.datafeed.IngestorMessageResponse;
 import com.symphony.sfs.ms.starter.config.properties.PodConfiguration;
 import com.symphony.sfs.ms.starter.security.ISessionManager;
 import com.symphony.sfs.ms.starter.security.SessionSupplier;
@@ -15,14 +19,19 @@
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.sleuth.annotation.NewSpan;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.MultipartBodyBuilder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.BodyInserters;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -30,11 +39,23 @@
 import static com.symphony.sfs.ms.starter.logging.WebRequestLoggingFilter.BASE_URI;
 import static com.symphony.sfs.ms.starter.util.WebClientUtils.logWebClientError;
 
+/**
+ * Pod calls of the gateway.
+ * <p>
+ * The message reads and the blast uploads have Mono variants so that a flow composes its round trips concurrently,
+ * only blocking once at its end. The flows themselves are blocking: they run on a datafeed dispatcher lane or on an
+ * HTTP thread, the number of messages in flight is bounded by those threads.
+ */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class SymphonyService {
 
+  // Shared by all the requests to keep Jackson serializer and deserializer caches warm
+  private static final ObjectMapper INGESTOR_MAPPER = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+  private static final ObjectWriter MESSAGES_WRITER = INGESTOR_MAPPER.writerFor(new TypeReference<List<SBEEventMessage>>() {});
+  private static final ObjectReader INGESTOR_RESPONSE_READER = INGESTOR_MAPPER.readerFor(new TypeReference<Map<String, IngestorMessageResponse>>() {});
+
   private final ISessionManager sessionManager;
   private final PodConfiguration podConfiguration;
 
@@ -49,83 +70,79 @@ public class SymphonyService {
 
   @NewSpan
   public Optional<SBEEventMessage> getEncryptedMessage(String messageId, SessionSupplier<SymphonySession> session) {
-    try {
-      SBEEventMessage response = sessionManager.getWebClient(session).get()
+    return getEncryptedMessageAsync(messageId, session).blockOptional();
+  }
+
+  /**
+   * Non-blocking variant of {@link #getEncryptedMessage(String, SessionSupplier)}: completes empty if the message
+   * cannot be retrieved
+   */
+  public Mono<SBEEventMessage> getEncryptedMessageAsync(String messageId, SessionSupplier<SymphonySession> session) {
+    return sessionManager.getWebClient(session).get()
       .uri(podConfiguration.getUrl() + GETMESSAGEENCRYPTED, messageId)
       .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
       .attribute(BASE_URI, podConfiguration.getUrl())
       .attribute(BASE_PATH, GETMESSAGEENCRYPTED)
       .retrieve()
       .bodyToMono(SBEEventMessage.class)
-      .block();
-
-    return Optional.of(response);
-  } catch (Exception e) {
-    logWebClientError(LOG, GETMESSAGEENCRYPTED.replace("{messageId}", messageId), e);
-    return Optional.empty();
+      .onErrorResume(Exception.class, e -> {
+        logWebClientError(LOG, GETMESSAGEENCRYPTED.replace("{messageId}", messageId), e);
+        return Mono.empty();
+      });
   }
 
-  }
   /**
-   * Retrieve an attachment of a message
-   *
-   * @param streamId  Conversation ID of the IM, MIM, or chatroom where the message containing the attachment is located
-   * @param messageId Message ID of the message containing the attachment
-   * @param fileId    ID of the attachment to download
-   * @return The attachment body encoded in Base64
+   * Stream an attachment of a message without buffering it, the body is the attachment encoded in Base64.
+   * Buffers must be released by the subscriber.
    */
-  public String getAttachment(String streamId, String messageId, String fileId, SessionSupplier<SymphonySession> session) {
-    String response = sessionManager.getWebClient(session).get()
+  public Flux<DataBuffer> getAttachmentStream(String streamId, String messageId, String fileId, SessionSupplier<SymphonySession> session) {
+    return sessionManager.getWebClient(session).get()
       .uri(podConfiguration.getUrl() + GETATTACHMENT, streamId, messageId, fileId)
       .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
       .attribute(BASE_URI, podConfiguration.getUrl())
       .attribute(BASE_PATH, GETATTACHMENT)
       .retrieve()
-      .bodyToMono(String.class)
-      .block();
-
-    return response;
+      .bodyToFlux(DataBuffer.class);
   }
 
   public SBEEventMessage sendReplyMessage(SBEEventMessage message, SessionSupplier<SymphonySession> session) throws JsonProcessingException {
-    ObjectMapper objectMapper = new ObjectMapper();
-    objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-
-    String payload = objectMapper.writeValueAsString(Collections.singletonList(message));
-    Object response = sessionManager.getWebClient(session).post()
-      .uri(podConfiguration.getUrl() + REPLYTOMESSAGE)
-      .contentType(MediaType.APPLICATION_JSON)
-      .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED_VALUE, MediaType.APPLICATION_JSON_VALUE)
-      .body(BodyInserters.fromFormData("messages", payload))
-      .attribute(BASE_URI, podConfiguration.getUrl())
-      .attribute(BASE_PATH, REPLYTOMESSAGE)
-      .retrieve().bodyToMono(Object.class)
-      .block();
-
-    JsonNode jsonNode = objectMapper.valueToTree(response);
-    String firstNode = jsonNode.fieldNames().next();
-    JsonNode messageNode = jsonNode.get(firstNode).get("message");
-    return objectMapper.treeToValue(messageNode, SBEEventMessage.class);
+    return readSentMessage(postMessages(REPLYTOMESSAGE, writeMessages(message), session).block());
   }
+
   public SBEEventMessage sendBulkMessage(SBEEventMessage message, SessionSupplier<SymphonySession> session) throws JsonProcessingException {
-    ObjectMapper objectMapper = new ObjectMapper();
-    objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    return readSentMessage(postMessages(BULKMESSAGE, writeMessages(message), session).block());
+  }
 
-    String payload = objectMapper.writeValueAsString(Collections.singletonList(message));
-    Object response = sessionManager.getWebClient(session).post()
-      .uri(podConfiguration.getUrl() + BULKMESSAGE)
+  private Mono<byte[]> postMessages(String path, String payload, SessionSupplier<SymphonySession> session) {
+    return sessionManager.getWebClient(session).post()
+      .uri(podConfiguration.getUrl() + path)
       .contentType(MediaType.APPLICATION_JSON)
       .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED_VALUE, MediaType.APPLICATION_JSON_VALUE)
       .body(BodyInserters.fromFormData("messages", payload))
       .attribute(BASE_URI, podConfiguration.getUrl())
-      .attribute(BASE_PATH, BULKMESSAGE)
-      .retrieve().bodyToMono(Object.class)
-      .block();
+      .attribute(BASE_PATH, path)
+      .retrieve().bodyToMono(byte[].class);
+  }
 
-    JsonNode jsonNode = objectMapper.valueToTree(response);
-    String firstNode = jsonNode.fieldNames().next();
-    JsonNode messageNode = jsonNode.get(firstNode).get("message");
-    return objectMapper.treeToValue(messageNode, SBEEventMessage.class);
+  /**
+   * Serialize the messages form field of the ingestor endpoints
+   */
+  public static String writeMessages(SBEEventMessage message) throws JsonProcessingException {
+    return MESSAGES_WRITER.writeValueAsString(Collections.singletonList(message));
+  }
+
+  /**
+   * Read the message sent by the ingestor endpoints: the response is keyed by message, only one is sent at a time
+   */
+  public static SBEEventMessage readSentMessage(byte[] response) throws JsonProcessingException {
+    try {
+      Map<String, IngestorMessageResponse> sentMessages = INGESTOR_RESPONSE_READER.readValue(response);
+      return sentMessages.values().iterator().next().getMessage();
+    } catch (JsonProcessingException e) {
+      throw e;
+    } catch (IOException e) {
+      throw JsonMappingException.fromUnexpectedIOE(e);
+    }
   }
 
   public List<String> getAllowedFileTypes(SessionSupplier<SymphonySession> session) {
@@ -147,15 +164,15 @@ public List<String> getAllowedFileTypes(SessionSupplier<SymphonySession> session
       .map(FileExtensionsResponse.FileExtension::getExtension)
       .collect(Collectors.toList());
   }
-  public MessageAttachment[] uploadBlastAttachment(SessionSupplier<SymphonySession> session, String contentType, String fileName, byte[] fileEncrypted) {
-
-    ObjectMapper objectMapper = new ObjectMapper();
-    objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
 
+  /**
+   * Upload an encrypted attachment referenced afterwards by a blast message
+   */
+  public Mono<MessageAttachment[]> uploadBlastAttachmentAsync(SessionSupplier<SymphonySession> session, String contentType, String fileName, byte[] fileEncrypted) {
     MultipartBodyBuilder bodyBuilder = new MultipartBodyBuilder();
+    // a resource part has a known length, the pod gets a Content-Length instead of a chunked upload
     bodyBuilder.part("body", new ByteArrayResource(fileEncrypted), MediaType.parseMediaType(contentType)).filename(fileName);
 
-
     return sessionManager.getWebClient(session).post()
       .uri(podConfiguration.getUrl() + BLAST_ATTACHMENT_UPLOAD)
       .contentType(MediaType.MULTIPART_FORM_DATA)
@@ -164,7 +181,6 @@ public MessageAttachment[] uploadBlastAttachment(SessionSupplier<SymphonySession
       .body(BodyInserters.fromMultipartData(bodyBuilder.build()))
       .attribute(BASE_URI, podConfiguration.getUrl())
       .attribute(BASE_PATH, BLAST_ATTACHMENT_UPLOAD)
-      .retrieve().bodyToMono(MessageAttachment[].class)
-      .block();
+      .retrieve().bodyToMono(MessageAttachment[].class);
   }
 }
@@ -0,0 +1,84 @@
+package com.symphony.sfs.ms.chat.util;
+
+import java.util.Base64;
+
+/**
+ * Chunk by chunk decoding of attachments, so that the temporary buffers are bounded by the chunk size instead of
+ * the file size.
+ */
+public final class ChunkedBytes {
+
+  public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+  private ChunkedBytes() {
+  }
+
+  /**
+   * Decode a base64 string without copying it first in a byte array, only chunkSize bytes are decoded at once.
+   * <p>
+   * Like the AWS SDK decoder used before, CR, LF and spaces are skipped so that wrapped base64 is accepted.
+   *
+   * @return the decoded bytes, null if base64 is null
+   * @throws IllegalArgumentException if the string is not valid base64
+   */
+  public static byte[] decodeBase64(String base64, int chunkSize) {
+    if (base64 == null) {
+      return null;
+    }
+    int length = 0;
+    char last = 0;
+    char beforeLast = 0;
+    for (int i = 0; i < base64.length(); i++) {
+      char c = base64.charAt(i);
+      if (!isSkipped(c)) {
+        length++;
+        beforeLast = last;
+        last = c;
+      }
+    }
+    if (length == 0) {
+      return new byte[0];
+    }
+    int padding = last != '=' ? 0 : beforeLast == '=' ? 2 : 1;
+    int remainder = length % 4;
+    byte[] decoded = new byte[length / 4 * 3 - padding + (remainder > 1 ? remainder - 1 : 0)];
+
+    // a whole number of base64 quantums per chunk, padding can then only be in the last one
+    int charsPerChunk = Math.max(1, chunkSize / 3) * 4;
+    Base64.Decoder decoder = Base64.getDecoder();
+    byte[] in = new byte[Math.min(charsPerChunk, length)];
+    byte[] out = new byte[charsPerChunk / 4 * 3];
+    int position = 0;
+    int index = 0;
+    for (int start = 0; start < length; start += charsPerChunk) {
+      int count = Math.min(charsPerChunk, length - start);
+      if (count != in.length) {
+        in = new byte[count];
+      }
+      for (int i = 0; i < count; index++) {
+        char c = base64.charAt(index);
+        if (isSkipped(c)) {
+          continue;
+        }
+        if (c > 127) {
+          throw new IllegalArgumentException("Illegal base64 character " + Integer.toHexString(c));
+        }
+        in[i++] = (byte) c;
+      }
+      int n = decoder.decode(in, out);
+      if (start + count < length && n != out.length || position + n > decoded.length) {
+        throw new IllegalArgumentException("Unexpected base64 padding");
+      }
+      System.arraycopy(out, 0, decoded, position, n);
+      position += n;
+    }
+    if (position != decoded.length) {
+      throw new IllegalArgumentException("Unexpected base64 padding");
+    }
+    return decoded;
+  }
+
+  private static boolean isSkipped(char c) {
+    return c == '\r' || c == '\n' || c == ' ';
+  }
+}
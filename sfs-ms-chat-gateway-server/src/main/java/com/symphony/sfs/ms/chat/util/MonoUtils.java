@@ -0,0 +1,31 @@
+package com.symphony.sfs.ms.chat.util;
+
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+/**
+ * Blocking at the end of a composed pod round trip, for the flows that are still called from a dispatcher lane or an
+ * HTTP thread.
+ */
+public final class MonoUtils {
+
+  private MonoUtils() {
+  }
+
+  /**
+   * Block on a composed Mono, rethrowing the checked exception that Reactor wraps on block
+   *
+   * @param checked the checked exception raised by the composition, rethrown as is
+   */
+  public static <T, E extends Exception> T blockUnwrapping(Mono<T> mono, Class<E> checked) throws E {
+    try {
+      return mono.block();
+    } catch (RuntimeException e) {
+      Throwable cause = Exceptions.unwrap(e);
+      if (checked.isInstance(cause)) {
+        throw checked.cast(cause);
+      }
+      throw e;
+    }
+  }
+}
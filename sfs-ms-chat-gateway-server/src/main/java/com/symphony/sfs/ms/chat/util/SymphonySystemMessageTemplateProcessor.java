@@ -2,15 +2,20 @@
 
 import com.github.jknack.handlebars.Handlebars;
 import com.github.jknack.handlebars.Template;
+import com.github.jknack.handlebars.io.TemplateLoader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 @RequiredArgsConstructor
@@ -19,6 +24,37 @@ public class SymphonySystemMessageTemplateProcessor {
 
   private final Handlebars handlebars;
 
+  private final Map<String, Optional<Template>> templates = new ConcurrentHashMap<>();
+
+  /**
+   * Compile all the templates of the templates folder, a template that does not compile prevents the startup.
+   */
+  @PostConstruct
+  public void compileTemplates() throws IOException {
+    TemplateLoader loader = handlebars.getLoader();
+    String location = "classpath*:" + loader.getPrefix() + "/*" + loader.getSuffix();
+    for (Resource resource : new PathMatchingResourcePatternResolver().getResources(location)) {
+      String filename = resource.getFilename();
+      if (filename == null) {
+        continue;
+      }
+      String templateName = filename.substring(0, filename.length() - loader.getSuffix().length());
+      templates.put(templateName, Optional.of(handlebars.compile(templateName)));
+      LOG.debug("Compiled handlebars template | template={}", templateName);
+    }
+  }
+
+  /**
+   * @throws IllegalStateException if one of the templates does not exist or does not compile
+   */
+  public void requireTemplates(String... templateNames) {
+    for (String templateName : templateNames) {
+      if (getTemplate(templateName).isEmpty()) {
+        throw new IllegalStateException("Missing handlebars template " + templateName);
+      }
+    }
+  }
+
   /**
    * @param messageContent
    * @param templateName   basename of a file located in resources/templates folder
@@ -52,6 +88,10 @@ public String process(Map<String, Object> context, String templateName) {
   }
 
   private Optional<Template> getTemplate(String templateName) {
+    return templates.computeIfAbsent(templateName, this::compile);
+  }
+
+  private Optional<Template> compile(String templateName) {
     Template template = null;
     try {
       template = handlebars.compile(templateName);
@@ -0,0 +1,99 @@
+package com.symphony.sfs.ms.chat.util;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate most frequent keys of an unbounded set of keys, in a bounded memory (Space-Saving algorithm).
+ * <p>
+ * At most capacity keys are tracked. When a new key comes and the sketch is full, it replaces the least frequent
+ * key and inherits its count: counts are overestimated by at most the count of the replaced key, frequent keys are
+ * never lost.
+ * <p>
+ * Keys are added from the processing threads: each thread adds to one of several stripes, so that the threads do not
+ * all wait for a same lock. The stripes are merged when the top keys are read, the merged counts are still upper bounds.
+ */
+public class TopKSketch {
+
+  private final int capacity;
+  private final Stripe[] stripes;
+
+  public TopKSketch(int capacity) {
+    this(capacity, Runtime.getRuntime().availableProcessors());
+  }
+
+  public TopKSketch(int capacity, int stripes) {
+    this.capacity = capacity;
+    this.stripes = new Stripe[Math.max(1, stripes)];
+    for (int i = 0; i < this.stripes.length; i++) {
+      this.stripes[i] = new Stripe(capacity);
+    }
+  }
+
+  public void add(String key) {
+    if (key == null) {
+      return;
+    }
+    stripes[(int) (Thread.currentThread().getId() % stripes.length)].add(key);
+  }
+
+  /**
+   * @return the tracked keys, most frequent first
+   */
+  public List<Map.Entry<String, Long>> top() {
+    return merge(false);
+  }
+
+  /**
+   * @return the tracked keys, most frequent first, and start a new sketch
+   */
+  public List<Map.Entry<String, Long>> topAndReset() {
+    return merge(true);
+  }
+
+  private List<Map.Entry<String, Long>> merge(boolean reset) {
+    Map<String, Long> merged = new HashMap<>();
+    for (Stripe stripe : stripes) {
+      stripe.mergeTo(merged, reset);
+    }
+
+    List<Map.Entry<String, Long>> top = new ArrayList<>(merged.size());
+    merged.forEach((key, count) -> top.add(new AbstractMap.SimpleImmutableEntry<>(key, count)));
+    top.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+    return top.size() > capacity ? new ArrayList<>(top.subList(0, capacity)) : top;
+  }
+
+  private static class Stripe {
+    private final int capacity;
+    private final Map<String, Long> counts;
+
+    private Stripe(int capacity) {
+      this.capacity = capacity;
+      this.counts = new HashMap<>(capacity * 2);
+    }
+
+    private synchronized void add(String key) {
+      Long count = counts.get(key);
+      if (count != null) {
+        counts.put(key, count + 1);
+      } else if (counts.size() < capacity) {
+        counts.put(key, 1L);
+      } else {
+        Map.Entry<String, Long> min = Collections.min(counts.entrySet(), Map.Entry.comparingByValue());
+        counts.remove(min.getKey());
+        counts.put(key, min.getValue() + 1);
+      }
+    }
+
+    private synchronized void mergeTo(Map<String, Long> merged, boolean reset) {
+      counts.forEach((key, count) -> merged.merge(key, count, Long::sum));
+      if (reset) {
+        counts.clear();
+      }
+    }
+  }
+}
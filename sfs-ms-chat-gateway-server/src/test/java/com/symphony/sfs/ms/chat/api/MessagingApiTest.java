@@ -22,6 +22,10 @@
 import com.symphony.sfs.ms.chat.generated.model.SymphonyAttachment;
 import com.symphony.sfs.ms.chat.model.FederatedAccount;
 import com.symphony.sfs.ms.chat.repository.FederatedAccountRepository;
+import com.symphony.sfs.ms.chat.service.AttachmentFetcher;
+import com.symphony.sfs.ms.chat.service.BlockedFileTypesCache;
+import com.symphony.sfs.ms.chat.service.CanChatCache;
+import com.symphony.sfs.ms.chat.service.StreamInfoCache;
 import com.symphony.sfs.ms.chat.service.FederatedAccountSessionService;
 import com.symphony.sfs.ms.chat.service.MessageIOMonitor;
 import com.symphony.sfs.ms.chat.service.SymphonyMessageSender;
@@ -140,7 +144,7 @@ public void setUp(AmazonDynamoDB db, DefaultMockServer mockServer, MessageSource
     messageStatusService = mock(MessageStatusService.class);
 
     messageDecryptor = mock(MessageDecryptor.class);
-    SymphonyMessageService symphonyMessageService = new SymphonyMessageService(empConfig, empClient, tenantDetailRepository, federatedAccountRepository, forwarderQueueConsumer, datafeedSessionPool, symphonyMessageSender, mockAdminClient, null, symphonyService, messageStatusService, podConfiguration, botConfiguration, streamService, new MessageIOMonitor(meterManager), messageSource, messageDecryptor, objectMapper);
+    SymphonyMessageService symphonyMessageService = new SymphonyMessageService(empConfig, empClient, tenantDetailRepository, federatedAccountRepository, forwarderQueueConsumer, datafeedSessionPool, symphonyMessageSender, mockAdminClient, null, symphonyService, messageStatusService, podConfiguration, botConfiguration, streamService, new MessageIOMonitor(meterManager), messageSource, messageDecryptor, objectMapper, new AttachmentFetcher(symphonyService, chatConfiguration, meterManager), new BlockedFileTypesCache(mockAdminClient, chatConfiguration, meterManager), new CanChatCache(mockAdminClient, forwarderQueueConsumer, chatConfiguration, meterManager), new StreamInfoCache(streamService, podConfiguration, datafeedSessionPool, forwarderQueueConsumer, chatConfiguration, meterManager), chatConfiguration);
 
     symphonyMessagingApi = new MessagingApi(symphonyMessageService);
   }
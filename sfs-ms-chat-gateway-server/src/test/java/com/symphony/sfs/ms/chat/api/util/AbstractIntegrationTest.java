@@ -5,6 +5,7 @@
 import com.symphony.sfs.ms.chat.config.DynamoConfiguration;
 import com.symphony.sfs.ms.chat.config.HandlebarsConfiguration;
 import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.chat.datafeed.DatafeedDispatcher;
 import com.symphony.sfs.ms.chat.datafeed.DatafeedSessionPool;
 import com.symphony.sfs.ms.chat.datafeed.ForwarderQueueConsumer;
 import com.symphony.sfs.ms.chat.datafeed.MessageDecryptor;
@@ -18,8 +19,10 @@
 import com.symphony.sfs.ms.chat.service.ConnectionRequestManager;
 import com.symphony.sfs.ms.chat.service.EmpSchemaService;
 import com.symphony.sfs.ms.chat.service.FederatedAccountSessionService;
+import com.symphony.sfs.ms.chat.service.ContentKeyPrefetcher;
 import com.symphony.sfs.ms.chat.service.MessageIOMonitor;
 import com.symphony.sfs.ms.chat.service.RoomService;
+import com.symphony.sfs.ms.chat.service.StreamInfoCache;
 import com.symphony.sfs.ms.chat.service.SymphonyMessageSender;
 import com.symphony.sfs.ms.chat.service.external.EmpClient;
 import com.symphony.sfs.ms.chat.service.external.MockAdminClient;
@@ -104,6 +107,7 @@ public class AbstractIntegrationTest implements ConfiguredDynamoTest, LocalProfi
   private MessageEncryptor messageEncryptor;
   private MessageDecryptor messageDecryptor;
   private SymphonyService symphonyService;
+  private DatafeedDispatcher datafeedDispatcher;
 
   @BeforeEach
   public void setUp(AmazonDynamoDB db, DefaultMockServer mockServer, MessageSource messageSource) throws Exception {
@@ -137,6 +141,8 @@ public void setUp(AmazonDynamoDB db, DefaultMockServer mockServer, MessageSource
     chatConfiguration.setSharedPrivateKey(new PemResource(RsaUtils.encodeRSAKey(keyPair.getPrivate())));
     chatConfiguration.setSharedPublicKey(new PemResource(RsaUtils.encodeRSAKey(keyPair.getPublic())));
     chatConfiguration.setStopImCreationAt("20.0.1-SNAPSHOT");
+    // listeners run on the test thread, before consume returns
+    chatConfiguration.getDispatcher().setLanes(0);
 
     handlebarsConfiguration = new HandlebarsConfiguration();
 
@@ -155,8 +161,10 @@ public void setUp(AmazonDynamoDB db, DefaultMockServer mockServer, MessageSource
     datafeedSessionPool = new DatafeedSessionPool(chatConfiguration, federatedAccountSessionService, symphonyAuthFactory, sessionManager);
 
     ContentKeyManager contentKeyManager = new ContentKeyManager(podConfiguration, datafeedSessionPool);
-    MessageDecryptor messageDecryptor = new MessageDecryptor(contentKeyManager, objectMapper);
-    forwarderQueueConsumer = new ForwarderQueueConsumer(objectMapper, messageDecryptor, datafeedSessionPool, new MessageIOMonitor(meterManager), meterManager, botConfiguration, podConfiguration);
+    MessageIOMonitor messageIOMonitor = new MessageIOMonitor(meterManager);
+    MessageDecryptor messageDecryptor = new MessageDecryptor(contentKeyManager, objectMapper, messageIOMonitor);
+    datafeedDispatcher = new DatafeedDispatcher(chatConfiguration, meterManager);
+    forwarderQueueConsumer = new ForwarderQueueConsumer(objectMapper, messageDecryptor, datafeedSessionPool, messageIOMonitor, meterManager, botConfiguration, podConfiguration, datafeedDispatcher, mock(ContentKeyPrefetcher.class));
 
     channelRepository = new ChannelRepository(db, dynamoConfiguration.getDynamoSchema());
 
@@ -170,7 +178,7 @@ public void setUp(AmazonDynamoDB db, DefaultMockServer mockServer, MessageSource
     // services
     streamService = mock(StreamService.class);
     symphonySystemMessageTemplateProcessor = spy(new SymphonySystemMessageTemplateProcessor(handlebarsConfiguration.handlebars()));
-    symphonyMessageSender = spy(new SymphonyMessageSender(podConfiguration, datafeedSessionPool, federatedAccountRepository, streamService, symphonySystemMessageTemplateProcessor, new MessageIOMonitor(meterManager), messageEncryptor, messageDecryptor, symphonyService, empSchemaService, messageSource, messageInfoMapper, objectMapper));
+    symphonyMessageSender = spy(new SymphonyMessageSender(podConfiguration, datafeedSessionPool, federatedAccountRepository, streamService, symphonySystemMessageTemplateProcessor, messageIOMonitor, messageEncryptor, messageDecryptor, symphonyService, empSchemaService, messageSource, messageInfoMapper, objectMapper, mock(StreamInfoCache.class)));
     connectionsServices = new ConnectionsService(sessionManager);
     connectionRequestManager = spy(new ConnectionRequestManager(connectionsServices, podConfiguration, datafeedSessionPool));
     empSchemaService = new EmpSchemaService(adminClient);
@@ -194,6 +202,7 @@ public void setUp(AmazonDynamoDB db, DefaultMockServer mockServer, MessageSource
 
   @AfterEach
   public void tearDown(AmazonDynamoDB db) {
+    datafeedDispatcher.shutdown();
     deleteTestTable(db);
   }
 
@@ -1,27 +1,63 @@
 package com.symphony.sfs.ms.chat.config;
 
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.chat.service.ContentKeyPrefetcher;
+import com.symphony.sfs.ms.starter.health.MeterManager;
 import com.symphony.sfs.ms.starter.i18n.MessageSourceChain;
 import com.symphony.sfs.ms.starter.symphony.crypto.ContentKeyManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Optional;
 
+import static com.symphony.sfs.ms.starter.testing.MockitoUtils.once;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 class CachingConfigurationTest {
 
   @Test
   void customize() {
-    ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
-    new CachingConfiguration().customize(cacheManager);
+    CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    new CachingConfiguration(new ChatConfiguration(), new MeterManager(new SimpleMeterRegistry(), Optional.empty())).customize(cacheManager);
 
     assertEquals(new HashSet<>(Arrays.asList(ContentKeyManager.CONTENT_KEY_CACHE, MessageSourceChain.CACHE_NAME)), new HashSet<>(cacheManager.getCacheNames()));
+
+    Cache contentKeyCache = cacheManager.getCache(ContentKeyManager.CONTENT_KEY_CACHE);
+    assertNull(contentKeyCache.get("key"));
+    contentKeyCache.put("key", "value");
+    assertEquals("value", contentKeyCache.get("key").get());
+  }
+
+  @Test
+  void contentKeyExpiry() {
+    long ttl = Duration.ofHours(2).toNanos();
+    long refreshWindow = Duration.ofMinutes(15).toNanos();
+    CachingConfiguration.ContentKeyExpiry expiry = new CachingConfiguration.ContentKeyExpiry(ttl, 0.1, refreshWindow);
+
+    for (int i = 0; i < 100; i++) {
+      long created = expiry.expireAfterCreate("key", "value", 0);
+      assertTrue(created >= ttl * 0.9 && created <= ttl * 1.1);
+    }
+    // cold read: expiry is unchanged
+    assertEquals(refreshWindow + 1, expiry.expireAfterRead("key", "value", 0, refreshWindow + 1));
+    // hot read close to expiry: the key is kept for a new ttl
+    assertTrue(expiry.expireAfterRead("key", "value", 0, 1) >= ttl * 0.9);
   }
 
   @Test
   void clearContentKeyCache() {
-    new CachingConfiguration().clearContentKeyCache();
+    ContentKeyPrefetcher contentKeyPrefetcher = mock(ContentKeyPrefetcher.class);
+    new CachingConfiguration.ContentKeyCacheFlushConfiguration(contentKeyPrefetcher).clearContentKeyCache();
+
+    verify(contentKeyPrefetcher, once()).invalidateAll();
   }
 }
@@ -0,0 +1,179 @@
+package com.symphony.sfs.ms.chat.datafeed;
+
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.starter.health.MeterManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatafeedDispatcherTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private DatafeedDispatcher dispatcher;
+
+  @BeforeEach
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    dispatcher.shutdown();
+  }
+
+  @Test
+  void dispatch_inline() {
+    dispatcher = newDispatcher(0, 100, Duration.ofSeconds(30));
+    Thread caller = Thread.currentThread();
+    List<Thread> threads = new ArrayList<>();
+
+    CompletableFuture<Void> processed = dispatcher.dispatch("streamId", () -> threads.add(Thread.currentThread()));
+
+    assertTrue(processed.isDone());
+    assertEquals(List.of(caller), threads);
+  }
+
+  @Test
+  void dispatch_onLane() throws Exception {
+    dispatcher = newDispatcher(4, 100, Duration.ofSeconds(30));
+    Thread caller = Thread.currentThread();
+    List<Thread> threads = new ArrayList<>();
+
+    dispatcher.dispatch("streamId", () -> threads.add(Thread.currentThread())).get(1, TimeUnit.SECONDS);
+
+    assertEquals(1, threads.size());
+    assertNotEquals(caller, threads.get(0));
+  }
+
+  @Test
+  void dispatch_sameKeyFromConcurrentThreads() throws Exception {
+    dispatcher = newDispatcher(4, 1000, Duration.ofSeconds(30));
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger overlaps = new AtomicInteger();
+    List<List<Integer>> processedBySender = IntStream.range(0, 8)
+      .mapToObj(i -> Collections.synchronizedList(new ArrayList<Integer>()))
+      .collect(Collectors.toList());
+
+    ExecutorService sqsThreads = Executors.newFixedThreadPool(processedBySender.size());
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<List<CompletableFuture<Void>>>> senders = IntStream.range(0, processedBySender.size())
+        .mapToObj(sender -> sqsThreads.submit(() -> {
+          start.await();
+          List<CompletableFuture<Void>> events = new ArrayList<>();
+          for (int i = 0; i < 50; i++) {
+            int event = i;
+            events.add(dispatcher.dispatch("streamId", () -> {
+              if (running.incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+              }
+              Thread.yield();
+              processedBySender.get(sender).add(event);
+              running.decrementAndGet();
+            }));
+          }
+          return events;
+        }))
+        .collect(Collectors.toList());
+      start.countDown();
+
+      for (Future<List<CompletableFuture<Void>>> sender : senders) {
+        CompletableFuture.allOf(sender.get().toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      sqsThreads.shutdown();
+    }
+
+    assertEquals(0, overlaps.get());
+    // the events of a same sender keep their order
+    for (List<Integer> processed : processedBySender) {
+      assertEquals(IntStream.range(0, 50).boxed().collect(Collectors.toList()), processed);
+    }
+  }
+
+  @Test
+  void dispatch_fromItsOwnLane() throws Exception {
+    dispatcher = newDispatcher(1, 1, Duration.ofMillis(100));
+    List<String> processed = Collections.synchronizedList(new ArrayList<>());
+
+    dispatcher.dispatch("streamId", () -> {
+      // would wait forever for a room in its own lane
+      dispatcher.dispatch("streamId", () -> processed.add("nested"));
+      processed.add("outer");
+    }).get(1, TimeUnit.SECONDS);
+
+    assertEquals(List.of("nested", "outer"), processed);
+  }
+
+  @Test
+  void dispatch_fullLaneIsRejected() throws Exception {
+    dispatcher = newDispatcher(1, 1, Duration.ofMillis(100));
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch running = new CountDownLatch(1);
+
+    CompletableFuture<Void> blocking = dispatcher.dispatch("streamId", () -> {
+      running.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    assertTrue(running.await(1, TimeUnit.SECONDS));
+    CompletableFuture<Void> queued = dispatcher.dispatch("streamId", () -> {});
+
+    long start = System.nanoTime();
+    assertThrows(RejectedExecutionException.class, () -> dispatcher.dispatch("streamId", () -> {}));
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+    assertEquals(1, meterRegistry.get("sfs.datafeed.dispatch.rejected").counter().count());
+    assertEquals(1, meterRegistry.get("sfs.datafeed.dispatch.queue.depth").tag("lane", "0").gauge().value());
+
+    release.countDown();
+    blocking.get(1, TimeUnit.SECONDS);
+    queued.get(1, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void dispatch_listenerFailureIsPropagated() {
+    dispatcher = newDispatcher(2, 100, Duration.ofSeconds(30));
+
+    CompletableFuture<Void> processed = dispatcher.dispatch("streamId", () -> {
+      throw new IllegalStateException("failure");
+    });
+
+    ExecutionException e = assertThrows(ExecutionException.class, () -> processed.get(1, TimeUnit.SECONDS));
+    assertTrue(e.getCause() instanceof IllegalStateException);
+    assertEquals("failure", e.getCause().getMessage());
+  }
+
+  private DatafeedDispatcher newDispatcher(int lanes, int queueCapacity, Duration offerTimeout) {
+    ChatConfiguration chatConfiguration = new ChatConfiguration();
+    chatConfiguration.getDispatcher().setLanes(lanes);
+    chatConfiguration.getDispatcher().setQueueCapacity(queueCapacity);
+    chatConfiguration.getDispatcher().setOfferTimeout(offerTimeout);
+    return new DatafeedDispatcher(chatConfiguration, new MeterManager(meterRegistry, Optional.empty()));
+  }
+}
@@ -19,10 +19,13 @@
 import com.symphony.security.helper.IClientCryptoHandler;
 import com.symphony.security.helper.KeyIdentifier;
 import com.symphony.sfs.ms.chat.exception.DecryptionException;
+import com.symphony.sfs.ms.chat.service.MessageIOMonitor;
+import com.symphony.sfs.ms.starter.health.MeterManager;
 import com.symphony.sfs.ms.starter.symphony.crypto.ContentKeyManager;
 import com.symphony.sfs.ms.starter.symphony.crypto.exception.ContentKeyRetrievalException;
 import com.symphony.sfs.ms.starter.symphony.crypto.exception.UnknownUserException;
 import com.symphony.sfs.ms.starter.symphony.stream.SBEEventMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
@@ -31,6 +34,7 @@
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.ArrayList;
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -52,7 +56,7 @@ public void setup() throws SymphonyInputException, CiphertextTransportVersionExc
     contentKeyManager = mock(ContentKeyManager.class);
     cryptoHandler = mock(IClientCryptoHandler.class);
 
-    messageDecryptor = new MessageDecryptor(contentKeyManager, new ObjectMapper());
+    messageDecryptor = new MessageDecryptor(contentKeyManager, new ObjectMapper(), new MessageIOMonitor(new MeterManager(new SimpleMeterRegistry(), Optional.empty())));
     ReflectionTestUtils.setField(messageDecryptor, "cryptoHandler", cryptoHandler);
   }
 
@@ -136,6 +140,33 @@ void decryptSBEMessage() throws ContentKeyRetrievalException, UnknownUserExcepti
       }
   }
 
+  @Test
+  void decryptQuotedMessageId() throws ContentKeyRetrievalException, UnknownUserException, CiphertextTransportIsEmptyException, InvalidDataException, SymphonyInputException, CiphertextTransportVersionException, SymphonyEncryptionException, DecryptionException {
+    KeyIdentifier keyIdentifier = new KeyIdentifier("FrgZb_0yPjOuShqA35oAM3___oOQU772dA".getBytes(), 123456789L, 0L);
+    when(contentKeyManager.getContentKeyIdentifier(any(String.class), any(String.class), anyString())).thenReturn(keyIdentifier);
+
+    try(MockedStatic<CiphertextFactory> utilities = mockStatic(CiphertextFactory.class)) {
+      utilities.when(() -> CiphertextFactory.getTransport(anyString())).thenReturn(new CiphertextTransportV4());
+      doAnswer((Answer<String>) invocation -> {
+        String message = invocation.getArgument(1);
+        return mockDecryptMsg(message);
+      }).when(cryptoHandler).decryptMsg(ArgumentMatchers.<byte[]>any(), any(String.class));
+
+      SBEEventMessage reply = SBEEventMessage.builder()
+        .messageId("vXUfu2rsJRLALM0okkK1q3///oOAYQiRbQ==").threadId("FrgZb_0yPjOuShqA35oAM3___oOQU772dA").text(mockEncryptText("Test text"))
+        .customEntities(mockEncryptText("[{\"type\":\"com.symphony.sharing.quote\",\"beginIndex\":0,\"endIndex\":79,\"data\":{\"id\":\"uXUfu2rsJRLALM0okkK1q3///oOAYQiRbQ==\"}}]"))
+        .build();
+      SBEEventMessage message = SBEEventMessage.builder()
+        .messageId("uXUfu2rsJRLALM0okkK1q3///oOAYQiRbQ==").threadId("FrgZb_0yPjOuShqA35oAM3___oOQU772dA").text(mockEncryptText("Test text"))
+        .build();
+
+      assertEquals(Optional.of("uXUfu2rsJRLALM0okkK1q3///oOAYQiRbQ=="), messageDecryptor.decryptQuotedMessageId(reply, "123456789", "userName"));
+      // only the custom entities are read, the message is still encrypted
+      assertEquals("encrypted**Test text**", reply.getText());
+      assertEquals(Optional.empty(), messageDecryptor.decryptQuotedMessageId(message, "123456789", "userName"));
+    }
+  }
+
   @Test
   void decryptSocialMessage() throws ContentKeyRetrievalException, UnknownUserException, CiphertextTransportIsEmptyException, InvalidDataException, SymphonyInputException, CiphertextTransportVersionException, SymphonyEncryptionException, DecryptionException {
     KeyIdentifier keyIdentifier = new KeyIdentifier("FrgZb_0yPjOuShqA35oAM3___oOQU772dA".getBytes(), 123456789L, 0L);
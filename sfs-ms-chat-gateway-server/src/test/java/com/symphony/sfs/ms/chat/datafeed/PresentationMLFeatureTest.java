@@ -0,0 +1,62 @@
+package com.symphony.sfs.ms.chat.datafeed;
+
+import com.symphony.oss.models.chat.canon.facade.IUser;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static com.symphony.sfs.ms.chat.datafeed.PresentationMLFeature.CARD;
+import static com.symphony.sfs.ms.chat.datafeed.PresentationMLFeature.CASHTAG;
+import static com.symphony.sfs.ms.chat.datafeed.PresentationMLFeature.HASHTAG;
+import static com.symphony.sfs.ms.chat.datafeed.PresentationMLFeature.MENTION;
+import static com.symphony.sfs.ms.chat.datafeed.PresentationMLFeature.TABLE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class PresentationMLFeatureTest {
+
+  @Test
+  void scan_text() {
+    assertEquals(EnumSet.noneOf(PresentationMLFeature.class), PresentationMLFeature.scan("<div data-format=\"PresentationML\" data-version=\"2.0\">a &lt;table&gt; 1 < 2</div>"));
+    assertEquals(EnumSet.noneOf(PresentationMLFeature.class), PresentationMLFeature.scan(""));
+    assertEquals(EnumSet.noneOf(PresentationMLFeature.class), PresentationMLFeature.scan(null));
+  }
+
+  @Test
+  void scan_table() {
+    assertEquals(EnumSet.of(TABLE), PresentationMLFeature.scan("<div data-format=\"PresentationML\" data-version=\"2.0\"><TABLE class=\"pasted-table\"><tr><td>1</td></tr></TABLE></div>"));
+    // not a table
+    assertEquals(EnumSet.noneOf(PresentationMLFeature.class), PresentationMLFeature.scan("<div><tablet/><!-- <table> --><span title=\"<table>\">x</span></div>"));
+  }
+
+  @Test
+  void scan_cardAndEntities() {
+    String presentationML = "<div data-format=\"PresentationML\" data-version=\"2.0\">" +
+      "<div class='card barStyle' data-icon-src=\"icon.png\"><div class=\"cardHeader\">Header</div></div>" +
+      "Hello <span class=\"entity\" data-entity-id=\"0\">@John Doe</span>, " +
+      "<span class=\"entity\" data-entity-id=\"1\">#report</span> " +
+      "<span data-entity-id=\"2\" class=\"entity\">$SYM</span></div>";
+
+    assertEquals(EnumSet.of(CARD, MENTION, HASHTAG, CASHTAG), PresentationMLFeature.scan(presentationML));
+    assertEquals(EnumSet.noneOf(PresentationMLFeature.class), PresentationMLFeature.scan("<div class=\"cardHeader\"><span class=\"tag\">@John</span></div>"));
+  }
+
+  @Test
+  void setPresentationMLContent_parsesLazily() {
+    GatewaySocialMessage message = GatewaySocialMessage.builder().fromUser(mock(IUser.class)).members(List.of()).build();
+
+    message.setPresentationMLContent("<div><table><tr><td>1</td></tr></table></div>");
+
+    assertTrue(message.isTable());
+    assertTrue(message.hasPresentationMLFeature(TABLE));
+    assertEquals(1, message.getParsedPresentationML().getElementsByTag("table").size());
+
+    message.setPresentationMLContent("");
+    assertFalse(message.isTable());
+    assertNull(message.getParsedPresentationML());
+  }
+}
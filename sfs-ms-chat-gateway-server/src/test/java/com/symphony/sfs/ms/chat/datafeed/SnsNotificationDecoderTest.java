@@ -0,0 +1,74 @@
+package com.symphony.sfs.ms.chat.datafeed;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.symphony.oss.canon.runtime.IEntityFactory;
+import com.symphony.oss.canon.runtime.ModelRegistry;
+import com.symphony.oss.models.chat.canon.ChatModel;
+import com.symphony.oss.models.chat.canon.MaestroMessage;
+import com.symphony.oss.models.core.canon.CoreModel;
+import com.symphony.oss.models.crypto.canon.CryptoModel;
+import com.symphony.sfs.ms.chat.model.FederatedAccount;
+import org.apache.commons.codec.binary.Base64;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static com.symphony.sfs.ms.chat.api.util.SnsMessageUtil.getAcceptedConnectionRequestMaestroMessage;
+import static com.symphony.sfs.ms.chat.api.util.SnsMessageUtil.getEnvelopeMessage;
+import static com.symphony.sfs.ms.chat.api.util.SnsMessageUtil.getSnsMaestroMessage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SnsNotificationDecoderTest {
+
+  private SnsNotificationDecoder decoder;
+
+  @BeforeEach
+  public void setUp() {
+    IEntityFactory<?, ?, ?>[] factories = Stream.of(CoreModel.FACTORIES, ChatModel.FACTORIES, CryptoModel.FACTORIES)
+      .flatMap(Arrays::stream)
+      .toArray(IEntityFactory<?, ?, ?>[]::new);
+    decoder = new SnsNotificationDecoder(new ObjectMapper().getFactory(), new ModelRegistry().withFactories(factories));
+  }
+
+  @Test
+  void decode() throws Exception {
+    String notification = getSnsMaestroMessage("196", getEnvelopeMessage(getAcceptedConnectionRequestMaestroMessage(newFederatedAccount("1"), newFederatedAccount("2"))));
+
+    SnsNotificationDecoder.SnsNotification decoded = decoder.decode(notification);
+
+    assertEquals(MaestroMessage.TYPE_ID, decoded.getEnvelope().getPayload().getCanonType());
+    assertEquals(1, decoded.getEnvelope().getDistributionList().size());
+    assertEquals("196", decoded.getMessageAttributes().get("podId"));
+    assertEquals("com.symphony.s2.model.chat.MaestroMessage", decoded.getMessageAttributes().get("payloadType"));
+  }
+
+  @Test
+  void decode_urlSafePayload() throws Exception {
+    String envelope = getEnvelopeMessage(getAcceptedConnectionRequestMaestroMessage(newFederatedAccount("1"), newFederatedAccount("2")));
+    String notification = "{\"Type\":\"Notification\",\"Message\":\"{\\\"payload\\\":\\\"" + Base64.encodeBase64URLSafeString(envelope.getBytes(StandardCharsets.UTF_8)) + "\\\"}\"}";
+
+    SnsNotificationDecoder.SnsNotification decoded = decoder.decode(notification);
+
+    assertEquals(MaestroMessage.TYPE_ID, decoded.getEnvelope().getPayload().getCanonType());
+    assertEquals(0, decoded.getMessageAttributes().size());
+  }
+
+  @Test
+  void decode_noPayload() {
+    assertThrows(JsonParseException.class, () -> decoder.decode("{\"Type\":\"Notification\",\"Message\":\"{\\\"other\\\":1}\"}"));
+    assertThrows(JsonParseException.class, () -> decoder.decode("[]"));
+  }
+
+  private static FederatedAccount newFederatedAccount(String symphonyId) {
+    return FederatedAccount.builder()
+      .firstName("First Name " + symphonyId)
+      .lastName("Last Name " + symphonyId)
+      .symphonyUserId(symphonyId)
+      .build();
+  }
+}
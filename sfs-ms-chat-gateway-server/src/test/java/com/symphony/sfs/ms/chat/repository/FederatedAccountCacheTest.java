@@ -0,0 +1,89 @@
+package com.symphony.sfs.ms.chat.repository;
+
+import com.symphony.sfs.ms.chat.config.properties.FederatedAccountCacheConfiguration;
+import com.symphony.sfs.ms.chat.model.FederatedAccount;
+import com.symphony.sfs.ms.starter.health.MeterManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FederatedAccountCacheTest {
+
+  private FederatedAccountCache cache;
+  private AtomicInteger loads;
+  private Function<String, Optional<FederatedAccount>> loader;
+
+  @BeforeEach
+  public void setUp() {
+    cache = new FederatedAccountCache(new FederatedAccountCacheConfiguration(), new MeterManager(new SimpleMeterRegistry(), Optional.empty()));
+    loads = new AtomicInteger();
+    loader = symphonyId -> {
+      loads.incrementAndGet();
+      return "1".equals(symphonyId) ? Optional.of(newFederatedAccount(symphonyId)) : Optional.empty();
+    };
+  }
+
+  @Test
+  void get_loadsOnce() {
+    FederatedAccount first = cache.get("1", loader).get();
+    FederatedAccount second = cache.get("1", loader).get();
+
+    assertEquals(1, loads.get());
+    assertEquals(first, second);
+    assertNotSame(first, second);
+  }
+
+  @Test
+  void get_cachesAbsentAccounts() {
+    assertTrue(cache.get("2", loader).isEmpty());
+    assertTrue(cache.get("2", loader).isEmpty());
+
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void put_replacesAbsentAccount() {
+    assertTrue(cache.get("2", loader).isEmpty());
+    cache.put(newFederatedAccount("2"));
+
+    assertEquals("2", cache.get("2", loader).get().getSymphonyUserId());
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void putAbsent() {
+    cache.get("1", loader);
+    cache.putAbsent("1");
+
+    assertTrue(cache.get("1", loader).isEmpty());
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void disabled() {
+    FederatedAccountCacheConfiguration configuration = new FederatedAccountCacheConfiguration();
+    configuration.setEnabled(false);
+    cache = new FederatedAccountCache(configuration, new MeterManager(new SimpleMeterRegistry(), Optional.empty()));
+
+    cache.get("1", loader);
+    cache.get("1", loader);
+
+    assertEquals(2, loads.get());
+  }
+
+  private static FederatedAccount newFederatedAccount(String symphonyId) {
+    return FederatedAccount.builder()
+      .federatedUserId("federatedUserId" + symphonyId)
+      .emp("WHATSAPP")
+      .symphonyUserId(symphonyId)
+      .build();
+  }
+}
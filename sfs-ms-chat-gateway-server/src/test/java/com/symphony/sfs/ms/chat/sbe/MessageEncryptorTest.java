@@ -4,6 +4,7 @@
 import com.symphony.security.exceptions.CiphertextTransportVersionException;
 import com.symphony.security.exceptions.SymphonyEncryptionException;
 import com.symphony.security.exceptions.SymphonyInputException;
+import com.symphony.security.helper.ClientCryptoHandler;
 import com.symphony.security.helper.KeyIdentifier;
 import com.symphony.sfs.ms.chat.exception.EncryptionException;
 import com.symphony.sfs.ms.starter.symphony.crypto.ContentKeyManager;
@@ -20,13 +21,16 @@
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import static com.symphony.sfs.ms.starter.testing.MockitoUtils.once;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -200,6 +204,35 @@ public void encrypt_shouldPutEncryptedInfoIntoMessage_replyToForwardedMessage()
 
   }
 
+  @Test
+  public void generateSBEEventMessage_encryptedConstants() throws Exception {
+    String threadId = "FrgZb/0yPjOuShqA35oAM3///oOQU772dA==";
+    KeyIdentifier keyIdentifier = new KeyIdentifier(Base64.decodeBase64(threadId), 123456789L, 0L);
+    byte[] contentKey = new byte[32];
+    Arrays.fill(contentKey, (byte) 1);
+    byte[] rotatedContentKey = new byte[32];
+    Arrays.fill(rotatedContentKey, (byte) 2);
+    ClientCryptoHandler cryptoHandler = new ClientCryptoHandler();
+
+    SBEEventMessage first = messageEncryptor.generateSBEEventMessage(keyIdentifier, contentKey, "123456789", threadId, "text", null, null, null, null, null);
+    SBEEventMessage second = messageEncryptor.generateSBEEventMessage(keyIdentifier, contentKey, "123456789", threadId, "text", null, null, null, null, null);
+
+    // built from the cached constants
+    assertSame(first.getEncryptedEntities(), second.getEncryptedEntities());
+    assertSame(first.getEncryptedMedia(), second.getEncryptedMedia());
+    assertEquals("{}", cryptoHandler.decryptMsg(contentKey, second.getEncryptedEntities()));
+    assertEquals("{}", cryptoHandler.decryptMsg(contentKey, second.getEntityJSON()));
+    assertEquals("{\"content\":[],\"mediaType\":\"JSON\"}", cryptoHandler.decryptMsg(contentKey, second.getEncryptedMedia()));
+
+    // same thread, user and rotation but another content key: the constants are encrypted again
+    SBEEventMessage rotated = messageEncryptor.generateSBEEventMessage(keyIdentifier, rotatedContentKey, "123456789", threadId, "text", null, null, null, null, null);
+
+    assertNotEquals(first.getEncryptedEntities(), rotated.getEncryptedEntities());
+    assertEquals("{}", cryptoHandler.decryptMsg(rotatedContentKey, rotated.getEncryptedEntities()));
+    assertEquals("{\"content\":[],\"mediaType\":\"JSON\"}", cryptoHandler.decryptMsg(rotatedContentKey, rotated.getEncryptedMedia()));
+    assertEquals("text", cryptoHandler.decryptMsg(rotatedContentKey, rotated.getText()));
+  }
+
   ///////////////////////////////
   //// Build Forward Message ////
   ///////////////////////////////
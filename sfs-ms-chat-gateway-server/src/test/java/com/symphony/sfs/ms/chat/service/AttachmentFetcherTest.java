@@ -0,0 +1,97 @@
+package com.symphony.sfs.ms.chat.service;
+
+import com.symphony.oss.models.chat.canon.AttachmentEntity;
+import com.symphony.oss.models.chat.canon.IAttachment;
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.chat.service.symphony.SymphonyService;
+import com.symphony.sfs.ms.emp.generated.model.Attachment;
+import com.symphony.sfs.ms.starter.health.MeterManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AttachmentFetcherTest {
+
+  private SymphonyService symphonyService;
+  private SimpleMeterRegistry meterRegistry;
+  private AttachmentFetcher attachmentFetcher;
+
+  @BeforeEach
+  public void setUp() {
+    symphonyService = mock(SymphonyService.class);
+    meterRegistry = new SimpleMeterRegistry();
+    ChatConfiguration chatConfiguration = new ChatConfiguration();
+    chatConfiguration.getAttachmentFetch().setPerMessageConcurrency(2);
+    attachmentFetcher = new AttachmentFetcher(symphonyService, chatConfiguration, new MeterManager(meterRegistry, Optional.empty()));
+  }
+
+  @Test
+  void fetchAttachments_concurrentAndOrdered() {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    // the first attachment is the slowest
+    stubAttachment("1", "first", Duration.ofMillis(300), inFlight, maxInFlight);
+    stubAttachment("2", "second", Duration.ofMillis(100), inFlight, maxInFlight);
+    stubAttachment("3", "third", Duration.ofMillis(100), inFlight, maxInFlight);
+
+    List<Attachment> attachments = attachmentFetcher.fetchAttachments("streamId", "messageId", List.of(attachment("1"), attachment("2"), attachment("3")), null, 1024);
+
+    assertEquals(List.of("first", "second", "third"), attachments.stream().map(Attachment::getData).collect(Collectors.toList()));
+    assertEquals(List.of("file1", "file2", "file3"), attachments.stream().map(Attachment::getFileName).collect(Collectors.toList()));
+    assertEquals(2, maxInFlight.get());
+    assertEquals(3, meterRegistry.get("sfs.symphony.attachment.fetch").timer().count());
+  }
+
+  @Test
+  void fetchAttachments_tooLarge() {
+    AtomicInteger streamedChunks = new AtomicInteger();
+    when(symphonyService.getAttachmentStream(anyString(), anyString(), anyString(), any())).thenAnswer(invocation -> Flux.range(0, 100)
+      .doOnNext(i -> streamedChunks.incrementAndGet())
+      .map(i -> new DefaultDataBufferFactory().wrap(new byte[10])));
+
+    assertThrows(DataBufferLimitException.class, () -> attachmentFetcher.fetchAttachments("streamId", "messageId", List.of(attachment("1"), attachment("2")), null, 500));
+    // 2 attachments of 1000 bytes, the downloads are cancelled once 500 bytes are received
+    assertTrue(streamedChunks.get() < 100);
+  }
+
+  @Test
+  void fetchAttachments_chunked() {
+    when(symphonyService.getAttachmentStream(anyString(), anyString(), anyString(), any())).thenAnswer(invocation -> Flux.just("aGVs", "bG8g", "d29y", "bGQ=")
+      .map(chunk -> new DefaultDataBufferFactory().wrap(chunk.getBytes(StandardCharsets.ISO_8859_1))));
+
+    List<Attachment> attachments = attachmentFetcher.fetchAttachments("streamId", "messageId", List.of(attachment("1")), null, 1024);
+
+    assertEquals(List.of("aGVsbG8gd29ybGQ="), attachments.stream().map(Attachment::getData).collect(Collectors.toList()));
+  }
+
+  private void stubAttachment(String fileId, String content, Duration delay, AtomicInteger inFlight, AtomicInteger maxInFlight) {
+    when(symphonyService.getAttachmentStream(anyString(), anyString(), eq(fileId), any())).thenAnswer(invocation -> Flux.just(content)
+      .doOnSubscribe(s -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+      .delayElements(delay)
+      .doOnComplete(inFlight::decrementAndGet)
+      .map(data -> new DefaultDataBufferFactory().wrap(data.getBytes(StandardCharsets.UTF_8))));
+  }
+
+  private static IAttachment attachment(String fileId) {
+    return new AttachmentEntity.Builder().withFileId(fileId).withName("file" + fileId).withContentType("image/png").build();
+  }
+}
@@ -0,0 +1,92 @@
+package com.symphony.sfs.ms.chat.service;
+
+import com.symphony.sfs.ms.admin.generated.model.BlockedFileTypes;
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.chat.service.BlockedFileTypesCache.FileTypeMatcher;
+import com.symphony.sfs.ms.chat.service.external.AdminClient;
+import com.symphony.sfs.ms.starter.health.MeterManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BlockedFileTypesCacheTest {
+
+  private AdminClient adminClient;
+  private BlockedFileTypesCache blockedFileTypesCache;
+
+  @BeforeEach
+  public void setUp() {
+    adminClient = mock(AdminClient.class);
+    blockedFileTypesCache = new BlockedFileTypesCache(adminClient, new ChatConfiguration(), new MeterManager(new SimpleMeterRegistry(), Optional.empty()));
+  }
+
+  @Test
+  void getMatcher() {
+    when(adminClient.getBlockedFileTypes("streamId", "emp")).thenReturn(Optional.of(blockedFileTypes("image/.*", "application/pdf", "text/[")));
+
+    FileTypeMatcher matcher = blockedFileTypesCache.getMatcher("streamId", "emp");
+
+    assertFalse(matcher.isEmpty());
+    assertTrue(matcher.isBlocked("image/png"));
+    assertTrue(matcher.isBlocked("application/pdf"));
+    // invalid patterns are matched literally
+    assertTrue(matcher.isBlocked("text/["));
+    assertFalse(matcher.isBlocked("text/plain"));
+    assertFalse(matcher.isBlocked("application/pdfx"));
+    assertFalse(matcher.isBlocked(null));
+  }
+
+  @Test
+  void getMatcher_noBlockedTypes() {
+    when(adminClient.getBlockedFileTypes("streamId", "emp")).thenReturn(Optional.of(new BlockedFileTypes()));
+    when(adminClient.getBlockedFileTypes("streamId2", "emp")).thenReturn(Optional.empty());
+
+    assertTrue(blockedFileTypesCache.getMatcher("streamId", "emp").isEmpty());
+    assertTrue(blockedFileTypesCache.getMatcher("streamId2", "emp").isEmpty());
+    assertFalse(blockedFileTypesCache.getMatcher("streamId2", "emp").isBlocked("image/png"));
+  }
+
+  @Test
+  void getMatcher_adminFailureNotCached() {
+    when(adminClient.getBlockedFileTypes("streamId", "emp"))
+      .thenReturn(Optional.empty())
+      .thenReturn(Optional.of(blockedFileTypes("image/.*")));
+
+    assertFalse(blockedFileTypesCache.getMatcher("streamId", "emp").isBlocked("image/png"));
+    assertTrue(blockedFileTypesCache.getMatcher("streamId", "emp").isBlocked("image/png"));
+    verify(adminClient, times(2)).getBlockedFileTypes("streamId", "emp");
+  }
+
+  @Test
+  void getMatcher_cached() {
+    when(adminClient.getBlockedFileTypes("streamId", "emp")).thenReturn(Optional.of(blockedFileTypes("image/.*", "application/pdf")));
+    when(adminClient.getBlockedFileTypes("streamId2", "emp")).thenReturn(Optional.of(blockedFileTypes("application/pdf", "image/.*", "image/.*")));
+
+    FileTypeMatcher matcher = blockedFileTypesCache.getMatcher("streamId", "emp");
+    assertSame(matcher, blockedFileTypesCache.getMatcher("streamId", "emp"));
+    // same policy, the compiled matcher is shared
+    assertSame(matcher, blockedFileTypesCache.getMatcher("streamId2", "emp"));
+    verify(adminClient, times(1)).getBlockedFileTypes("streamId", "emp");
+
+    blockedFileTypesCache.invalidate("streamId", "emp");
+    blockedFileTypesCache.getMatcher("streamId", "emp");
+    verify(adminClient, times(2)).getBlockedFileTypes("streamId", "emp");
+  }
+
+  private static BlockedFileTypes blockedFileTypes(String... types) {
+    BlockedFileTypes blockedFileTypes = new BlockedFileTypes();
+    blockedFileTypes.addAll(List.of(types));
+    return blockedFileTypes;
+  }
+}
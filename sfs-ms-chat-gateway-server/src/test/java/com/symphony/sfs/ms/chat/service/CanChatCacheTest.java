@@ -0,0 +1,89 @@
+package com.symphony.sfs.ms.chat.service;
+
+import com.symphony.oss.models.chat.canon.facade.IUser;
+import com.symphony.oss.models.core.canon.facade.PodAndUserId;
+import com.symphony.sfs.ms.admin.generated.model.CanChatResponse;
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.chat.datafeed.ForwarderQueueConsumer;
+import com.symphony.sfs.ms.chat.service.external.AdminClient;
+import com.symphony.sfs.ms.starter.health.MeterManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CanChatCacheTest {
+
+  private AdminClient adminClient;
+  private SimpleMeterRegistry meterRegistry;
+  private CanChatCache canChatCache;
+
+  @BeforeEach
+  public void setUp() {
+    adminClient = mock(AdminClient.class);
+    meterRegistry = new SimpleMeterRegistry();
+    ChatConfiguration chatConfiguration = new ChatConfiguration();
+    chatConfiguration.getCanChatCache().setDeniedTtl(Duration.ZERO);
+    canChatCache = new CanChatCache(adminClient, mock(ForwarderQueueConsumer.class), chatConfiguration, new MeterManager(meterRegistry, Optional.empty()));
+  }
+
+  @Test
+  void canChat_cached() {
+    when(adminClient.canChat("1", "fed", "emp")).thenReturn(Optional.of(CanChatResponse.CAN_CHAT));
+
+    assertEquals(Optional.of(CanChatResponse.CAN_CHAT), canChatCache.canChat("1", "fed", "emp"));
+    assertEquals(Optional.of(CanChatResponse.CAN_CHAT), canChatCache.canChat("1", "fed", "emp"));
+
+    verify(adminClient, times(1)).canChat("1", "fed", "emp");
+    assertEquals(1, meterRegistry.get("sfs.cache.gets").tag("cache", CanChatCache.CACHE_NAME).tag("result", "hit").counter().count());
+    assertEquals(1, meterRegistry.get("sfs.admin.canchat").tag("response", "CAN_CHAT").counter().count());
+  }
+
+  @Test
+  void canChat_deniedAndEmptyNotKept() {
+    when(adminClient.canChat("1", "fed", "emp")).thenReturn(Optional.of(CanChatResponse.NO_CONTACT));
+    when(adminClient.canChat("2", "fed", "emp")).thenReturn(Optional.empty());
+
+    assertEquals(Optional.of(CanChatResponse.NO_CONTACT), canChatCache.canChat("1", "fed", "emp"));
+    assertEquals(Optional.of(CanChatResponse.NO_CONTACT), canChatCache.canChat("1", "fed", "emp"));
+    assertEquals(Optional.empty(), canChatCache.canChat("2", "fed", "emp"));
+    assertEquals(Optional.empty(), canChatCache.canChat("2", "fed", "emp"));
+
+    verify(adminClient, times(2)).canChat("1", "fed", "emp");
+    verify(adminClient, times(2)).canChat("2", "fed", "emp");
+  }
+
+  @Test
+  void onConnectionDeleted_invalidatesAdvisor() {
+    when(adminClient.canChat("1", "fed", "emp")).thenReturn(Optional.of(CanChatResponse.CAN_CHAT));
+    when(adminClient.canChat("2", "fed", "emp")).thenReturn(Optional.of(CanChatResponse.CAN_CHAT));
+    canChatCache.canChat("1", "fed", "emp");
+    canChatCache.canChat("2", "fed", "emp");
+
+    canChatCache.onConnectionDeleted(user("1"), user("3"));
+    canChatCache.canChat("1", "fed", "emp");
+    canChatCache.canChat("2", "fed", "emp");
+
+    verify(adminClient, times(2)).canChat("1", "fed", "emp");
+    verify(adminClient, times(1)).canChat("2", "fed", "emp");
+
+    canChatCache.onUserLeftRoom("streamId", user("3"), List.of(user("2")));
+    canChatCache.canChat("2", "fed", "emp");
+    verify(adminClient, times(2)).canChat("2", "fed", "emp");
+  }
+
+  private static IUser user(String symphonyId) {
+    IUser user = mock(IUser.class);
+    when(user.getId()).thenReturn(PodAndUserId.newBuilder().build(Long.valueOf(symphonyId)));
+    return user;
+  }
+}
@@ -0,0 +1,133 @@
+package com.symphony.sfs.ms.chat.service;
+
+import com.symphony.oss.models.core.canon.facade.ThreadId;
+import com.symphony.security.helper.KeyIdentifier;
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.chat.datafeed.DatafeedSessionPool;
+import com.symphony.sfs.ms.starter.health.MeterManager;
+import com.symphony.sfs.ms.starter.security.SessionSupplier;
+import com.symphony.sfs.ms.starter.symphony.auth.SymphonySession;
+import com.symphony.sfs.ms.starter.symphony.crypto.ContentKeyManager;
+import com.symphony.sfs.ms.starter.symphony.crypto.exception.ContentKeyRetrievalException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.codec.binary.Base64;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ContentKeyPrefetcherTest {
+
+  private static final String STREAM_ID = "FrgZb_0yPjOuShqA35oAM3___oOQU772dA";
+  private static final String THREAD_ID = "FrgZb/0yPjOuShqA35oAM3///oOQU772dA==";
+
+  private ContentKeyManager contentKeyManager;
+  private DatafeedSessionPool datafeedSessionPool;
+  private SimpleMeterRegistry meterRegistry;
+  private ContentKeyPrefetcher contentKeyPrefetcher;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    contentKeyManager = mock(ContentKeyManager.class);
+    datafeedSessionPool = mock(DatafeedSessionPool.class);
+    meterRegistry = new SimpleMeterRegistry();
+
+    SessionSupplier<SymphonySession> session = mock(SessionSupplier.class);
+    when(session.getPrincipal()).thenReturn("principal");
+    when(datafeedSessionPool.getSessionSupplier("1")).thenReturn(session);
+    when(datafeedSessionPool.getSessionSupplier("2")).thenReturn(session);
+    when(contentKeyManager.getContentKeyIdentifier(anyString(), anyString(), anyString())).thenReturn(new KeyIdentifier(Base64.decodeBase64(THREAD_ID), 1L, 0L));
+
+    contentKeyPrefetcher = new ContentKeyPrefetcher(contentKeyManager, datafeedSessionPool, new ChatConfiguration(), new MeterManager(meterRegistry, Optional.empty()));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    contentKeyPrefetcher.shutdown();
+  }
+
+  @Test
+  void onIMCreated_prefetchesManagedMembers() throws Exception {
+    contentKeyPrefetcher.onIMCreated(STREAM_ID, List.of("1", "2", "3"), null, false);
+
+    verify(contentKeyManager, timeout(1000)).getContentKey(any(ThreadId.class), eq("1"), eq("principal"), eq(0L));
+    verify(contentKeyManager, timeout(1000)).getContentKey(any(ThreadId.class), eq("2"), eq("principal"), eq(0L));
+    verify(contentKeyManager, timeout(1000)).getContentKeyIdentifier(THREAD_ID, "2", "principal");
+    // not managed by the gateway
+    verify(datafeedSessionPool, timeout(1000)).getSessionSupplier("3");
+    verify(contentKeyManager, never()).getContentKeyIdentifier(anyString(), eq("3"), anyString());
+  }
+
+  @Test
+  void prefetch_deduplicated() throws Exception {
+    contentKeyPrefetcher.onUserJoinedRoom(STREAM_ID, List.of("1"), null);
+    contentKeyPrefetcher.onUserJoinedRoom(STREAM_ID, List.of("1", "2"), null);
+
+    verify(contentKeyManager, after(500).times(1)).getContentKey(any(ThreadId.class), eq("1"), anyString(), anyLong());
+    verify(contentKeyManager, times(1)).getContentKey(any(ThreadId.class), eq("2"), anyString(), anyLong());
+    assertEquals(2, meterRegistry.get("sfs.content.key.prefetch").tag("result", "prefetched").counter().count());
+  }
+
+  @Test
+  void onStreamSighted_onlyFirstSighting() throws Exception {
+    contentKeyPrefetcher.onStreamSighted(STREAM_ID, List.of("1"));
+    verify(contentKeyManager, timeout(1000)).getContentKey(any(ThreadId.class), eq("1"), anyString(), anyLong());
+
+    // a member joining afterwards is not seen by a new sighting of the stream
+    contentKeyPrefetcher.onStreamSighted(STREAM_ID, List.of("1", "2"));
+    verify(contentKeyManager, after(500).never()).getContentKey(any(ThreadId.class), eq("2"), anyString(), anyLong());
+  }
+
+  @Test
+  void prefetch_retriedAfterFailure() throws Exception {
+    when(contentKeyManager.getContentKey(any(ThreadId.class), eq("1"), anyString(), anyLong()))
+      .thenThrow(new ContentKeyRetrievalException(THREAD_ID, "1", 0L))
+      .thenReturn(new byte[32]);
+
+    contentKeyPrefetcher.prefetch(STREAM_ID, List.of("1"));
+    verify(contentKeyManager, timeout(1000)).getContentKey(any(ThreadId.class), eq("1"), anyString(), anyLong());
+    // let the prefetch thread release its mark
+    Thread.sleep(100);
+    assertEquals(1, meterRegistry.get("sfs.content.key.prefetch").tag("result", "failed").counter().count());
+
+    contentKeyPrefetcher.prefetch(STREAM_ID, List.of("1"));
+    verify(contentKeyManager, timeout(1000).times(2)).getContentKey(any(ThreadId.class), eq("1"), anyString(), anyLong());
+  }
+
+  @Test
+  void invalidateAll_prefetchedAgain() throws Exception {
+    contentKeyPrefetcher.onStreamSighted(STREAM_ID, List.of("1"));
+    verify(contentKeyManager, timeout(1000)).getContentKey(any(ThreadId.class), eq("1"), anyString(), anyLong());
+
+    // the content key cache was flushed
+    contentKeyPrefetcher.invalidateAll();
+    contentKeyPrefetcher.onStreamSighted(STREAM_ID, List.of("1"));
+    verify(contentKeyManager, timeout(1000).times(2)).getContentKey(any(ThreadId.class), eq("1"), anyString(), anyLong());
+  }
+
+  @Test
+  void markTtl() {
+    ChatConfiguration.KeyCache keyCache = new ChatConfiguration.KeyCache();
+    keyCache.setTtl(Duration.ofHours(2));
+    keyCache.setJitter(0.1);
+
+    // earliest jittered expiry of the keys
+    assertEquals(Duration.ofMinutes(108), ContentKeyPrefetcher.markTtl(keyCache));
+  }
+}
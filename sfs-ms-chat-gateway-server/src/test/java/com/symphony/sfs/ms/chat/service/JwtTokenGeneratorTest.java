@@ -0,0 +1,167 @@
+package com.symphony.sfs.ms.chat.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.chat.service.external.AdminClient;
+import com.symphony.sfs.ms.chat.service.external.DefaultAdminClient;
+import com.symphony.sfs.ms.chat.service.external.EmpClientRegistry;
+import com.symphony.sfs.ms.starter.config.properties.common.PemResource;
+import com.symphony.sfs.ms.starter.exception.ConfigurationException;
+import com.symphony.sfs.ms.starter.security.SfsJwtToken;
+import com.symphony.sfs.ms.starter.util.RsaUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.MockedStatic;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPairGenerator;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static com.symphony.sfs.ms.chat.service.JwtTokenGenerator.MICROSERVICE_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.when;
+
+class JwtTokenGeneratorTest {
+
+  private ChatConfiguration chatConfiguration;
+  private MutableClock clock;
+  private JwtTokenGenerator jwtTokenGenerator;
+  private MockedStatic<SfsJwtToken> sfsJwtToken;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA");
+    kpg.initialize(2048);
+    chatConfiguration = new ChatConfiguration();
+    chatConfiguration.setMsAdminUrl("http://admin.local");
+    chatConfiguration.setPrivateKey(new PemResource(RsaUtils.encodeRSAKey(kpg.generateKeyPair().getPrivate())));
+
+    clock = new MutableClock(Instant.ofEpochSecond(1_000));
+    jwtTokenGenerator = new JwtTokenGenerator(chatConfiguration, clock);
+
+    sfsJwtToken = mockStatic(SfsJwtToken.class);
+    sfsJwtToken.when(() -> SfsJwtToken.generateForMicroservice(eq(MICROSERVICE_NAME), any())).thenReturn(
+      token(1_000, 1_600),
+      token(1_600, 2_200)
+    );
+  }
+
+  @AfterEach
+  public void tearDown() {
+    sfsJwtToken.close();
+    jwtTokenGenerator.shutdown();
+  }
+
+  @ParameterizedTest
+  @ValueSource(doubles = {0, -0.5, 0.95, 1, 2})
+  void refreshRatio_rejected(double refreshRatio) {
+    chatConfiguration.getMicroserviceToken().setRefreshRatio(refreshRatio);
+
+    assertThrows(ConfigurationException.class, () -> new JwtTokenGenerator(chatConfiguration, clock));
+  }
+
+  @Test
+  void generateMicroserviceToken_reused() {
+    String first = jwtTokenGenerator.generateMicroserviceToken();
+    clock.instant = Instant.ofEpochSecond(1_400);
+    String second = jwtTokenGenerator.generateMicroserviceToken();
+
+    assertEquals(token(1_000, 1_600), first);
+    assertEquals(first, second);
+    sfsJwtToken.verify(() -> SfsJwtToken.generateForMicroservice(eq(MICROSERVICE_NAME), any()), times(1));
+  }
+
+  @Test
+  void generateMicroserviceToken_signedAgainCloseToExpiry() {
+    jwtTokenGenerator.generateMicroserviceToken();
+    // background refresh did not happen, less than 10% of the lifetime left
+    clock.instant = Instant.ofEpochSecond(1_550);
+
+    assertEquals(token(1_600, 2_200), jwtTokenGenerator.generateMicroserviceToken());
+    sfsJwtToken.verify(() -> SfsJwtToken.generateForMicroservice(eq(MICROSERVICE_NAME), any()), times(2));
+  }
+
+  @Test
+  void authenticationFilter_adminClient() {
+    List<ClientRequest> requests = new ArrayList<>();
+    AdminClient adminClient = new DefaultAdminClient(recordingWebClient(requests), new ObjectMapper(), chatConfiguration, jwtTokenGenerator);
+
+    adminClient.notifyLeaveRoom("streamId", "requester", List.of("leaver"));
+
+    assertEquals(1, requests.size());
+    assertEquals(List.of("Bearer " + token(1_000, 1_600)), requests.get(0).headers().get(HttpHeaders.AUTHORIZATION));
+  }
+
+  @Test
+  void authenticationFilter_empClient() {
+    List<ClientRequest> requests = new ArrayList<>();
+    EmpMicroserviceResolver empMicroserviceResolver = mock(EmpMicroserviceResolver.class);
+    when(empMicroserviceResolver.getEmpMicroserviceBaseUri("WHATSAPP")).thenReturn("http://whatsapp.local");
+    EmpClientRegistry empClientRegistry = new EmpClientRegistry(recordingWebClient(requests), new ObjectMapper(), empMicroserviceResolver, jwtTokenGenerator);
+
+    empClientRegistry.getClient("WHATSAPP").getUserApi().deleteUserOrFail("symphonyId", "+33612345678", "tenantId");
+
+    assertEquals(1, requests.size());
+    assertEquals("whatsapp.local", requests.get(0).url().getHost());
+    // the sfsAuthentication scheme of the microservice APIs is an http bearer
+    assertEquals(List.of("Bearer " + token(1_000, 1_600)), requests.get(0).headers().get(HttpHeaders.AUTHORIZATION));
+  }
+
+  private static WebClient recordingWebClient(List<ClientRequest> requests) {
+    return WebClient.builder()
+      .exchangeFunction(request -> {
+        requests.add(request);
+        return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+      })
+      .build();
+  }
+
+  private static String token(long issuedAt, long expiresAt) {
+    String claims = "{\"sub\":\"" + MICROSERVICE_NAME + "\",\"iat\":" + issuedAt + ",\"exp\":" + expiresAt + "}";
+    return "e30." + Base64.getUrlEncoder().withoutPadding().encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + ".signature";
+  }
+
+  private static class MutableClock extends Clock {
+    private Instant instant;
+
+    private MutableClock(Instant instant) {
+      this.instant = instant;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
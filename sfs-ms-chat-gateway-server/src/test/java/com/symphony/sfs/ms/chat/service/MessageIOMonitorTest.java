@@ -0,0 +1,64 @@
+package com.symphony.sfs.ms.chat.service;
+
+import com.symphony.sfs.ms.starter.health.MeterManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.BlockingCauseFromSymphony.NO_CONTACT;
+import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.Stage.EMP_SEND;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MessageIOMonitorTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private MessageIOMonitor messageIOMonitor;
+
+  @BeforeEach
+  public void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    messageIOMonitor = new MessageIOMonitor(new MeterManager(meterRegistry, Optional.empty()));
+  }
+
+  @Test
+  void countersDoNotGrowWithStreams() {
+    int meters = meterRegistry.getMeters().size();
+    for (int i = 0; i < 100; i++) {
+      messageIOMonitor.onSendMessageFromSymphony("WHATSAPP", "IM", "user" + i, "stream" + i);
+      messageIOMonitor.onMessageBlockFromSymphony(NO_CONTACT, "WHATSAPP", "IM", "stream" + i);
+      messageIOMonitor.onSendMessageToSymphony("WHATSAPP", "IM", "user" + i, "stream" + i);
+      messageIOMonitor.onSocialMessageRetry("company" + i);
+    }
+
+    // one sent counter in each direction and one blocked counter for WHATSAPP IMs, the others were registered at startup
+    assertEquals(meters + 3, meterRegistry.getMeters().size());
+    assertEquals(100, meterRegistry.get("sfs.messages.sent.from.symphony").tag("emp", "WHATSAPP").tag("chatType", "IM").counter().count());
+    assertEquals(100, meterRegistry.get("sfs.messages.blocked.from.symphony").tag("cause", "no contact").tag("emp", "WHATSAPP").counter().count());
+    assertEquals(100, meterRegistry.get("sfs.messages.sent.to.symphony").tag("emp", "WHATSAPP").tag("chatType", "IM").counter().count());
+    assertEquals(100, meterRegistry.get("sfs.social.message.retries").counter().count());
+  }
+
+  @Test
+  void onStage() {
+    messageIOMonitor.onStage(EMP_SEND, "WHATSAPP", MessageIOMonitor.chatType("CHATROOM"), System.nanoTime());
+    messageIOMonitor.onStage(EMP_SEND, "WHATSAPP", MessageIOMonitor.chatType("CHATROOM"), System.nanoTime());
+
+    assertEquals(2, meterRegistry.get("sfs.message.stage.time").tag("stage", "emp send").tag("emp", "WHATSAPP").tag("chatType", "ROOM").timer().count());
+  }
+
+  @Test
+  void onAlertsSent() {
+    messageIOMonitor.onAlertsSent(3, 0);
+    messageIOMonitor.onAlertsSent(3, 1);
+    messageIOMonitor.onAlertsSent(2, 2);
+    // nobody to alert
+    messageIOMonitor.onAlertsSent(0, 0);
+
+    assertEquals(1, meterRegistry.get("sfs.alerts.fanout").tag("result", "sent").summary().count());
+    assertEquals(1, meterRegistry.get("sfs.alerts.fanout").tag("result", "partially sent").summary().count());
+    assertEquals(1, meterRegistry.get("sfs.alerts.fanout").tag("result", "not sent").summary().count());
+    assertEquals(2, meterRegistry.get("sfs.alerts.fanout").tag("result", "not sent").summary().totalAmount());
+  }
+}
@@ -15,6 +15,7 @@
 import com.symphony.sfs.ms.admin.generated.model.EmpSchema;
 import com.symphony.sfs.ms.admin.generated.model.EmpschemaSupportedFeatures;
 import com.symphony.sfs.ms.chat.config.EmpConfig;
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
 import com.symphony.sfs.ms.chat.datafeed.DatafeedSessionPool;
 import com.symphony.sfs.ms.chat.datafeed.ForwarderQueueConsumer;
 import com.symphony.sfs.ms.chat.datafeed.GatewaySocialMessage;
@@ -72,7 +73,10 @@
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InOrder;
 import org.springframework.context.MessageSource;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
 
+import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.NoSuchAlgorithmException;
 import java.time.OffsetDateTime;
@@ -85,11 +89,13 @@
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import static com.symphony.sfs.ms.starter.testing.MockitoUtils.once;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.inOrder;
@@ -174,7 +180,7 @@ public void setUp(MessageSource messageSource) throws NoSuchAlgorithmException {
 
     objectMapper = spy(new ObjectMapper());
 
-    messageService = new SymphonyMessageService(empConfig, empClient, tenantDetailRepository, federatedAccountRepository, mock(ForwarderQueueConsumer.class), datafeedSessionPool, symphonyMessageSender, adminClient, empSchemaService, symphonyService, messageStatusService, podConfiguration, botConfiguration, streamService, new MessageIOMonitor(meterManager), messageSource, mock(MessageDecryptor.class), objectMapper);
+    messageService = new SymphonyMessageService(empConfig, empClient, tenantDetailRepository, federatedAccountRepository, mock(ForwarderQueueConsumer.class), datafeedSessionPool, symphonyMessageSender, adminClient, empSchemaService, symphonyService, messageStatusService, podConfiguration, botConfiguration, streamService, new MessageIOMonitor(meterManager), messageSource, mock(MessageDecryptor.class), objectMapper, new AttachmentFetcher(symphonyService, new ChatConfiguration(), meterManager), new BlockedFileTypesCache(adminClient, new ChatConfiguration(), meterManager), new CanChatCache(adminClient, mock(ForwarderQueueConsumer.class), new ChatConfiguration(), meterManager), new StreamInfoCache(streamService, podConfiguration, datafeedSessionPool, mock(ForwarderQueueConsumer.class), new ChatConfiguration(), meterManager), new ChatConfiguration());
 
     botSession = authenticationService.authenticate(podConfiguration.getSessionAuth(), podConfiguration.getKeyAuth(), botConfiguration.getUsername(), botConfiguration.getPrivateKey().getData());
 
@@ -202,8 +208,8 @@ private void spySymphonyMessageSender(MessageSource messageSource) {
     MessageInfoMapper messageInfoMapper = new MessageInfoMapperImpl();
 
     // really instantiate SymphonyMessageSender to test Handlebars templates.
-    symphonyMessageSender = spy(new SymphonyMessageSender(podConfiguration, datafeedSessionPool, federatedAccountRepository, streamService, templateProcessor, messageMetrics, messageEncryptor, messageDecryptor, symphonyService, empSchemaService, messageSource, messageInfoMapper, new ObjectMapper()));
-    messageService = new SymphonyMessageService(empConfig, empClient, tenantDetailRepository, federatedAccountRepository, mock(ForwarderQueueConsumer.class), datafeedSessionPool, symphonyMessageSender, adminClient, empSchemaService, symphonyService, messageStatusService, podConfiguration, botConfiguration, streamService, new MessageIOMonitor(meterManager), messageSource, messageDecryptor, objectMapper);
+    symphonyMessageSender = spy(new SymphonyMessageSender(podConfiguration, datafeedSessionPool, federatedAccountRepository, streamService, templateProcessor, messageMetrics, messageEncryptor, messageDecryptor, symphonyService, empSchemaService, messageSource, messageInfoMapper, new ObjectMapper(), mock(StreamInfoCache.class)));
+    messageService = new SymphonyMessageService(empConfig, empClient, tenantDetailRepository, federatedAccountRepository, mock(ForwarderQueueConsumer.class), datafeedSessionPool, symphonyMessageSender, adminClient, empSchemaService, symphonyService, messageStatusService, podConfiguration, botConfiguration, streamService, new MessageIOMonitor(meterManager), messageSource, messageDecryptor, objectMapper, new AttachmentFetcher(symphonyService, new ChatConfiguration(), meterManager), new BlockedFileTypesCache(adminClient, new ChatConfiguration(), meterManager), new CanChatCache(adminClient, mock(ForwarderQueueConsumer.class), new ChatConfiguration(), meterManager), new StreamInfoCache(streamService, podConfiguration, datafeedSessionPool, mock(ForwarderQueueConsumer.class), new ChatConfiguration(), meterManager), new ChatConfiguration());
   }
 
   @Test
@@ -370,7 +376,7 @@ void onMessageReplyToBot() {
     verify(federatedAccountRepository, once()).findBySymphonyId(TO_SYMPHONY_USER_ID);
     verify(empClient, never()).sendMessage("emp", "streamId", "messageId", message.getFromUser(), Collections.singletonList(toFederatedAccount), NOW, "text", "", null, null, null);
     // session is mocked, null for now
-    verify(symphonyMessageSender, once()).sendAlertMessage(null, "streamId", "You can't reply to this type of message.", Collections.emptyList());
+    verify(symphonyMessageSender, once()).sendAlertMessages(Collections.singletonList(null), "streamId", "You can't reply to this type of message.", Collections.emptyList());
   }
 
   private static Stream<Arguments> textProvider() {
@@ -422,7 +428,7 @@ void onIMMessageWithAttachments_noBlockConfigured() {
     IUser fromSymphonyUser = buildDefaultFromUser();
 
     when(federatedAccountRepository.findBySymphonyId(TO_SYMPHONY_USER_ID)).thenReturn(Optional.of(toFederatedAccount));
-    when(symphonyService.getAttachment(anyString(), anyString(), anyString(), any())).thenReturn("abc");
+    when(symphonyService.getAttachmentStream(anyString(), anyString(), anyString(), any())).thenAnswer(invocation -> Flux.just(new DefaultDataBufferFactory().wrap("abc".getBytes(StandardCharsets.UTF_8))));
     GatewaySocialMessage message = GatewaySocialMessage.builder().streamId("streamId").messageId("messageId").fromUser(fromSymphonyUser).members(Arrays.asList(FROM_SYMPHONY_USER_ID, TO_SYMPHONY_USER_ID)).timestamp(NOW).textContent("input")
       .attachments(List.of(new AttachmentEntity.Builder().withFileId("123").withName("filename.opus").withContentType("audio/ogg; codecs=opus").build()))
       .build();
@@ -434,6 +440,31 @@ void onIMMessageWithAttachments_noBlockConfigured() {
     verify(empClient, once()).sendMessage("emp", "streamId", "messageId", fromSymphonyUser, Collections.singletonList(toFederatedAccount), NOW, "input", "", attachments, null, null);
   }
 
+  @Test
+  void onIMMessageWithAttachments_tooLarge() {
+    when(adminClient.canChat(FROM_SYMPHONY_USER_ID, "fed", "emp")).thenReturn(Optional.of(CanChatResponse.CAN_CHAT));
+    FederatedAccount toFederatedAccount = buildDefaultToFederatedAccount();
+
+    IUser fromSymphonyUser = buildDefaultFromUser();
+
+    when(federatedAccountRepository.findBySymphonyId(TO_SYMPHONY_USER_ID)).thenReturn(Optional.of(toFederatedAccount));
+    // 100 MB streamed by chunks of 1 MB
+    byte[] chunk = new byte[1024 * 1024];
+    AtomicInteger streamedChunks = new AtomicInteger();
+    when(symphonyService.getAttachmentStream(anyString(), anyString(), anyString(), any())).thenAnswer(invocation -> Flux.range(0, 100)
+      .doOnNext(i -> streamedChunks.incrementAndGet())
+      .map(i -> new DefaultDataBufferFactory().wrap(chunk)));
+    GatewaySocialMessage message = GatewaySocialMessage.builder().streamId("streamId").messageId("messageId").fromUser(fromSymphonyUser).members(Arrays.asList(FROM_SYMPHONY_USER_ID, TO_SYMPHONY_USER_ID)).timestamp(NOW).textContent("input")
+      .attachments(List.of(new AttachmentEntity.Builder().withFileId("123").withName("filename.opus").withContentType("audio/ogg; codecs=opus").build()))
+      .build();
+    messageService.onIMMessage(message);
+
+    verify(symphonyMessageSender, once()).sendAlertMessages(anyList(), eq("streamId"), eq("Some of your message was not delivered. You can't send attachments more than 25MB (messageId : messageId)."), eq(Collections.emptyList()));
+    verify(empClient, never()).sendMessage(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+    // the download is aborted as soon as the limit is exceeded
+    Assertions.assertTrue(streamedChunks.get() < 100);
+  }
+
   @Test
   void onIMMessageWithAttachments_notBlocked() {
     when(adminClient.canChat(FROM_SYMPHONY_USER_ID, "fed", "emp")).thenReturn(Optional.of(CanChatResponse.CAN_CHAT));
@@ -446,7 +477,7 @@ void onIMMessageWithAttachments_notBlocked() {
 
     when(tenantDetailRepository.findByPodId(PODID)).thenReturn(Optional.of(tenantDetailEntity));
     when(federatedAccountRepository.findBySymphonyId(TO_SYMPHONY_USER_ID)).thenReturn(Optional.of(toFederatedAccount));
-    when(symphonyService.getAttachment(anyString(), anyString(), anyString(), any())).thenReturn("abc");
+    when(symphonyService.getAttachmentStream(anyString(), anyString(), anyString(), any())).thenAnswer(invocation -> Flux.just(new DefaultDataBufferFactory().wrap("abc".getBytes(StandardCharsets.UTF_8))));
     GatewaySocialMessage message = GatewaySocialMessage.builder().streamId("streamId").messageId("messageId").fromUser(fromSymphonyUser).members(Arrays.asList(FROM_SYMPHONY_USER_ID, TO_SYMPHONY_USER_ID)).timestamp(NOW).textContent("input")
       .attachments(List.of(new AttachmentEntity.Builder().withFileId("123").withName("filename.opus").withContentType("audio/ogg; codecs=opus").build()))
       .build();
@@ -470,7 +501,7 @@ void onIMMessageWithAttachments_BlockedWithMessage() {
     when(adminClient.getBlockedFileTypes(anyString(), anyString())).thenReturn(Optional.of(blockedFileTypes));
 
     when(federatedAccountRepository.findBySymphonyId(TO_SYMPHONY_USER_ID)).thenReturn(Optional.of(toFederatedAccount));
-    when(symphonyService.getAttachment(anyString(), anyString(), anyString(), any())).thenReturn("abc");
+    when(symphonyService.getAttachmentStream(anyString(), anyString(), anyString(), any())).thenAnswer(invocation -> Flux.just(new DefaultDataBufferFactory().wrap("abc".getBytes(StandardCharsets.UTF_8))));
     GatewaySocialMessage message = GatewaySocialMessage.builder().streamId("streamId").messageId("messageId").fromUser(fromSymphonyUser).members(Arrays.asList(FROM_SYMPHONY_USER_ID, TO_SYMPHONY_USER_ID)).timestamp(NOW).textContent("input")
       .attachments(List.of(new AttachmentEntity.Builder().withFileId("123").withName("filename.opus").withContentType("audio/ogg; codecs=opus").build()))
       .chatType("CHATROOM")
@@ -482,7 +513,7 @@ void onIMMessageWithAttachments_BlockedWithMessage() {
     verify(federatedAccountRepository, once()).findBySymphonyId(FROM_SYMPHONY_USER_ID);
     verify(federatedAccountRepository, once()).findBySymphonyId(TO_SYMPHONY_USER_ID);
     verify(empClient, once()).sendMessage("emp", "streamId", "messageId", fromSymphonyUser, Collections.singletonList(toFederatedAccount), NOW, "input", "", Collections.emptyList(), null, null);
-    verify(symphonyMessageSender, once()).sendAlertMessage(any(), eq("streamId"), eq("Attachment undelivered. Your corporate policies prevent sharing audio/ogg; codecs=opus attachments in WhatsApp Connect rooms."), eq(Collections.emptyList()));
+    verify(symphonyMessageSender, once()).sendAlertMessages(anyList(), eq("streamId"), eq("Attachment undelivered. Your corporate policies prevent sharing audio/ogg; codecs=opus attachments in WhatsApp Connect rooms."), eq(Collections.emptyList()));
 
   }
 
@@ -498,7 +529,7 @@ void onIMMessageWithAttachments_AllBlocked() {
     when(adminClient.getBlockedFileTypes(anyString(), anyString())).thenReturn(Optional.of(blockedFileTypes));
 
     when(federatedAccountRepository.findBySymphonyId(TO_SYMPHONY_USER_ID)).thenReturn(Optional.of(toFederatedAccount));
-    when(symphonyService.getAttachment(anyString(), anyString(), anyString(), any())).thenReturn("abc");
+    when(symphonyService.getAttachmentStream(anyString(), anyString(), anyString(), any())).thenAnswer(invocation -> Flux.just(new DefaultDataBufferFactory().wrap("abc".getBytes(StandardCharsets.UTF_8))));
     GatewaySocialMessage message = GatewaySocialMessage.builder().streamId("streamId").messageId("messageId").fromUser(fromSymphonyUser).members(Arrays.asList(FROM_SYMPHONY_USER_ID, TO_SYMPHONY_USER_ID)).timestamp(NOW).textContent("input")
       .attachments(List.of(new AttachmentEntity.Builder().withFileId("123").withName("filename.opus").withContentType("audio/ogg; codecs=opus").build()))
       .chatType("CHATROOM")
@@ -510,7 +541,7 @@ void onIMMessageWithAttachments_AllBlocked() {
     verify(federatedAccountRepository, once()).findBySymphonyId(FROM_SYMPHONY_USER_ID);
     verify(federatedAccountRepository, once()).findBySymphonyId(TO_SYMPHONY_USER_ID);
     verify(empClient, once()).sendMessage("emp", "streamId", "messageId", fromSymphonyUser, Collections.singletonList(toFederatedAccount), NOW, "input", "", Collections.emptyList(), null, null);
-    verify(symphonyMessageSender, once()).sendAlertMessage(any(), eq("streamId"), eq("Attachment undelivered. Your corporate policies prevent sharing audio/ogg; codecs=opus attachments in WhatsApp Connect rooms."), eq(Collections.emptyList()));
+    verify(symphonyMessageSender, once()).sendAlertMessages(anyList(), eq("streamId"), eq("Attachment undelivered. Your corporate policies prevent sharing audio/ogg; codecs=opus attachments in WhatsApp Connect rooms."), eq(Collections.emptyList()));
   }
 
   @Test
@@ -525,7 +556,7 @@ void onIMMessageWithAttachments_BlockedByType() {
     when(adminClient.getBlockedFileTypes(anyString(), anyString())).thenReturn(Optional.of(blockedFileTypes));
 
     when(federatedAccountRepository.findBySymphonyId(TO_SYMPHONY_USER_ID)).thenReturn(Optional.of(toFederatedAccount));
-    when(symphonyService.getAttachment(anyString(), anyString(), anyString(), any())).thenReturn("abc");
+    when(symphonyService.getAttachmentStream(anyString(), anyString(), anyString(), any())).thenAnswer(invocation -> Flux.just(new DefaultDataBufferFactory().wrap("abc".getBytes(StandardCharsets.UTF_8))));
     GatewaySocialMessage message = GatewaySocialMessage.builder().streamId("streamId").messageId("messageId").fromUser(fromSymphonyUser).members(Arrays.asList(FROM_SYMPHONY_USER_ID, TO_SYMPHONY_USER_ID)).timestamp(NOW).textContent("text")
       .attachments(List.of(
         new AttachmentEntity.Builder().withFileId("123").withName("filename.mp4").withContentType("audio/mp4").build(),
@@ -540,7 +571,7 @@ void onIMMessageWithAttachments_BlockedByType() {
     verify(federatedAccountRepository, once()).findBySymphonyId(TO_SYMPHONY_USER_ID);
     List<Attachment> attachments = Collections.singletonList(new Attachment().fileName("filename.pdf").contentType("application/pdf").data("abc"));
     verify(empClient, once()).sendMessage("emp", "streamId", "messageId", fromSymphonyUser, Collections.singletonList(toFederatedAccount), NOW, "text", "", attachments, null, null);
-    verify(symphonyMessageSender, once()).sendAlertMessage(any(), eq("streamId"), eq("Attachment undelivered. Your corporate policies prevent sharing audio/mp4 attachments in WhatsApp Connect rooms."), eq(Collections.emptyList()));
+    verify(symphonyMessageSender, once()).sendAlertMessages(anyList(), eq("streamId"), eq("Attachment undelivered. Your corporate policies prevent sharing audio/mp4 attachments in WhatsApp Connect rooms."), eq(Collections.emptyList()));
   }
 
   @Test
@@ -555,7 +586,7 @@ void onIMMessageWithAttachments_BlockedNoMessage() {
     when(adminClient.getBlockedFileTypes(anyString(), anyString())).thenReturn(Optional.of(blockedFileTypes));
 
     when(federatedAccountRepository.findBySymphonyId(TO_SYMPHONY_USER_ID)).thenReturn(Optional.of(toFederatedAccount));
-    when(symphonyService.getAttachment(anyString(), anyString(), anyString(), any())).thenReturn("abc");
+    when(symphonyService.getAttachmentStream(anyString(), anyString(), anyString(), any())).thenAnswer(invocation -> Flux.just(new DefaultDataBufferFactory().wrap("abc".getBytes(StandardCharsets.UTF_8))));
     GatewaySocialMessage message = GatewaySocialMessage.builder().streamId("streamId").messageId("messageId").fromUser(fromSymphonyUser).members(Arrays.asList(FROM_SYMPHONY_USER_ID, TO_SYMPHONY_USER_ID)).timestamp(NOW)
       .attachments(List.of(new AttachmentEntity.Builder().withFileId("123").withName("filename.opus").withContentType("audio/ogg; codecs=opus").build()))
       .chatType("CHATROOM")
@@ -567,7 +598,7 @@ void onIMMessageWithAttachments_BlockedNoMessage() {
     verify(federatedAccountRepository, once()).findBySymphonyId(FROM_SYMPHONY_USER_ID);
     verify(federatedAccountRepository, once()).findBySymphonyId(TO_SYMPHONY_USER_ID);
     verify(empClient, never()).sendMessage("emp", "streamId", "messageId", fromSymphonyUser, Collections.singletonList(toFederatedAccount), NOW, "input", "", Collections.emptyList(), null, null);
-    verify(symphonyMessageSender, once()).sendAlertMessage(any(), eq("streamId"), eq("Attachment undelivered. Your corporate policies prevent sharing audio/ogg; codecs=opus attachments in WhatsApp Connect rooms."), eq(Collections.emptyList()));
+    verify(symphonyMessageSender, once()).sendAlertMessages(anyList(), eq("streamId"), eq("Attachment undelivered. Your corporate policies prevent sharing audio/ogg; codecs=opus attachments in WhatsApp Connect rooms."), eq(Collections.emptyList()));
 
   }
 
@@ -583,7 +614,7 @@ void onIMMessageWithAttachments_PartiallyBlocked() {
     when(adminClient.getBlockedFileTypes(anyString(), anyString())).thenReturn(Optional.of(blockedFileTypes));
 
     when(federatedAccountRepository.findBySymphonyId(TO_SYMPHONY_USER_ID)).thenReturn(Optional.of(toFederatedAccount));
-    when(symphonyService.getAttachment(anyString(), anyString(), anyString(), any())).thenReturn("abc");
+    when(symphonyService.getAttachmentStream(anyString(), anyString(), anyString(), any())).thenAnswer(invocation -> Flux.just(new DefaultDataBufferFactory().wrap("abc".getBytes(StandardCharsets.UTF_8))));
     GatewaySocialMessage message = GatewaySocialMessage.builder().streamId("streamId").messageId("messageId").fromUser(fromSymphonyUser).members(Arrays.asList(FROM_SYMPHONY_USER_ID, TO_SYMPHONY_USER_ID)).timestamp(NOW)
       .attachments(List.of(
         new AttachmentEntity.Builder().withFileId("123").withName("filename.opus").withContentType("audio/ogg; codecs=opus").build(),
@@ -599,7 +630,7 @@ void onIMMessageWithAttachments_PartiallyBlocked() {
     verify(federatedAccountRepository, once()).findBySymphonyId(TO_SYMPHONY_USER_ID);
     List<Attachment> attachments = Collections.singletonList(new Attachment().fileName("img.png").contentType("image/png").data("abc"));
     verify(empClient, once()).sendMessage("emp", "streamId", "messageId", fromSymphonyUser, Collections.singletonList(toFederatedAccount), NOW, null, "", attachments, null, null);
-    verify(symphonyMessageSender, once()).sendAlertMessage(any(), eq("streamId"), eq("Attachment undelivered. Your corporate policies prevent sharing audio/ogg; codecs=opus attachments in WhatsApp Connect rooms."), eq(Collections.emptyList()));
+    verify(symphonyMessageSender, once()).sendAlertMessages(anyList(), eq("streamId"), eq("Attachment undelivered. Your corporate policies prevent sharing audio/ogg; codecs=opus attachments in WhatsApp Connect rooms."), eq(Collections.emptyList()));
 
   }
 
@@ -622,7 +653,7 @@ void onIMMessage_No_entitlements() {
     verify(federatedAccountRepository, once()).findBySymphonyId(TO_SYMPHONY_USER_ID);
     verify(empClient, never()).sendMessage("emp", "streamId", "messageId", fromSymphonyUser, Collections.singletonList(toFederatedAccount), NOW, "text", "", null, null, null);
     // session is mocked, null for now
-    verify(symphonyMessageSender, once()).sendAlertMessage(null, "streamId", "You are not permitted to send messages to emp users.", Collections.emptyList());
+    verify(symphonyMessageSender, once()).sendAlertMessages(Collections.singletonList(null), "streamId", "You are not permitted to send messages to emp users.", Collections.emptyList());
   }
 
   @Test
@@ -665,7 +696,7 @@ void onIMMessage_No_PartiallySent() throws GeneralSecurityException {
     // session is mocked, null for now
     SessionSupplier<SymphonySession> symphonySession = null;// new SessionSupplier<>("username", new SymphonyRsaAuthFunction(authenticationService, podConfiguration, parseRSAPrivateKey(chatConfiguration.getSharedPrivateKey().getData())));
 
-    verify(symphonyMessageSender, once()).sendAlertMessage(symphonySession, "streamId", "Some users did not receive the message (messageId : messageId): firstName 2 lastName 2.", null);
+    verify(symphonyMessageSender, once()).sendAlertMessages(Collections.singletonList(symphonySession), "streamId", "Some users did not receive the message (messageId : messageId): firstName 2 lastName 2.", null);
   }
 
   @Test
@@ -715,7 +746,7 @@ void onIMMessage_No_PartiallySent_WithErrors(MessageSource messageSource) throws
 
     messageService.onIMMessage(message);
     // session is mocked, null for now
-    verify(symphonyMessageSender, once()).sendAlertMessage(null, "streamId", "Some users did not receive the message (messageId : messageId): firstName 2 lastName 2.",
+    verify(symphonyMessageSender, once()).sendAlertMessages(Collections.singletonList(null), "streamId", "Some users did not receive the message (messageId : messageId): firstName 2 lastName 2.",
       Arrays.asList("error coming directly from EMP"));
     String expectedMessage = "<messageML>\n" +
       "  <div>\n" +
@@ -761,7 +792,7 @@ void onIMMessage_No_Contact() {
     verify(federatedAccountRepository, once()).findBySymphonyId(TO_SYMPHONY_USER_ID);
     verify(empClient, never()).sendMessage("emp", "streamId", "messageId", fromSymphonyUser, Collections.singletonList(toFederatedAccount), NOW, "text", "", null, null, null);
     // session is mocked, null for now
-    verify(symphonyMessageSender, once()).sendAlertMessage(null, "streamId", "Sorry, you're not permitted to chat with this user.", Collections.emptyList());
+    verify(symphonyMessageSender, once()).sendAlertMessages(Collections.singletonList(null), "streamId", "Sorry, you're not permitted to chat with this user.", Collections.emptyList());
   }
 
   private static IUser buildDefaultFromUser() {
@@ -801,7 +832,7 @@ void onIMMessage_UnsupportedContents_nullSupportedFeatures(FederatedAccount toFe
 
     verify(empClient, never()).sendMessage("emp", "streamId", "messageId", message.getFromUser(), Collections.singletonList(toFederatedAccount), NOW, "text", "", null, null, null);
     // session is mocked, null for now
-    verify(symphonyMessageSender, once()).sendAlertMessage(null, "streamId", expectedAlertMessage, Collections.emptyList());
+    verify(symphonyMessageSender, once()).sendAlertMessages(Collections.singletonList(null), "streamId", expectedAlertMessage, Collections.emptyList());
   }
 
   @Test
@@ -821,7 +852,7 @@ void onIMMessage_chimeNotSupported_null() {
     messageService.onIMMessage(message);
 
     verify(empClient, never()).sendMessage("emp", "streamId", "messageId", message.getFromUser(), Collections.singletonList(toFederatedAccount), NOW, "text", "", null, null, null);
-    verify(symphonyMessageSender, once()).sendAlertMessage(null, "streamId", "You cannot chime your contacts here.", Collections.emptyList());
+    verify(symphonyMessageSender, once()).sendAlertMessages(Collections.singletonList(null), "streamId", "You cannot chime your contacts here.", Collections.emptyList());
   }
 
   @Test
@@ -841,7 +872,7 @@ void onIMMessage_chimeNotSupported_false() {
     messageService.onIMMessage(message);
 
     verify(empClient, never()).sendMessage("emp", "streamId", "messageId", message.getFromUser(), Collections.singletonList(toFederatedAccount), NOW, "text", "", null, null, null);
-    verify(symphonyMessageSender, once()).sendAlertMessage(null, "streamId", "You cannot chime your contacts here.", Collections.emptyList());
+    verify(symphonyMessageSender, once()).sendAlertMessages(Collections.singletonList(null), "streamId", "You cannot chime your contacts here.", Collections.emptyList());
   }
 
   @Test
@@ -861,7 +892,7 @@ void onIMMessage_chimeSupported() {
     messageService.onIMMessage(message);
 
     verify(empClient, once()).sendMessage("emp", "streamId", "messageId", message.getFromUser(), Collections.singletonList(toFederatedAccount), NOW, "text", "", null, null, null);
-    verify(symphonyMessageSender, never()).sendAlertMessage(null, "streamId", "You cannot chime your contacts here.", Collections.emptyList());
+    verify(symphonyMessageSender, never()).sendAlertMessages(Collections.singletonList(null), "streamId", "You cannot chime your contacts here.", Collections.emptyList());
   }
 
   @Test
@@ -881,7 +912,7 @@ void onIMMessage_tableNotSupported_null() {
     messageService.onIMMessage(message);
 
     verify(empClient, never()).sendMessage("emp", "streamId", "messageId", message.getFromUser(), Collections.singletonList(toFederatedAccount), NOW, "text", "", null, null, null);
-    verify(symphonyMessageSender, once()).sendAlertMessage(null, "streamId", "Sorry, you can't send tables here.", Collections.emptyList());
+    verify(symphonyMessageSender, once()).sendAlertMessages(Collections.singletonList(null), "streamId", "Sorry, you can't send tables here.", Collections.emptyList());
   }
 
   @Test
@@ -901,7 +932,7 @@ void onIMMessage_tableNotSupported_false() {
     messageService.onIMMessage(message);
 
     verify(empClient, never()).sendMessage("emp", "streamId", "messageId", message.getFromUser(), Collections.singletonList(toFederatedAccount), NOW, "text", "", null, null, null);
-    verify(symphonyMessageSender, once()).sendAlertMessage(null, "streamId", "Sorry, you can't send tables here.", Collections.emptyList());
+    verify(symphonyMessageSender, once()).sendAlertMessages(Collections.singletonList(null), "streamId", "Sorry, you can't send tables here.", Collections.emptyList());
   }
 
   @Test
@@ -921,7 +952,7 @@ void onIMMessage_tableSupported() {
     messageService.onIMMessage(message);
 
     verify(empClient, once()).sendMessage("emp", "streamId", "messageId", message.getFromUser(), Collections.singletonList(toFederatedAccount), NOW, "text", "", null, null, null);
-    verify(symphonyMessageSender, never()).sendAlertMessage(null, "streamId", "Sorry, you can't send tables here.", Collections.emptyList());
+    verify(symphonyMessageSender, never()).sendAlertMessages(Collections.singletonList(null), "streamId", "Sorry, you can't send tables here.", Collections.emptyList());
   }
 
   @Test
@@ -1069,7 +1100,7 @@ void sendChime_NotSupported() {
 
     messageService.onIMMessage(gatewaySocialMessage);
 
-    verify(symphonyMessageSender, once()).sendAlertMessage(null, STREAM_ID_1, "You cannot chime your contacts here.", Collections.emptyList());
+    verify(symphonyMessageSender, once()).sendAlertMessages(Collections.singletonList(null), STREAM_ID_1, "You cannot chime your contacts here.", Collections.emptyList());
   }
 
   /*
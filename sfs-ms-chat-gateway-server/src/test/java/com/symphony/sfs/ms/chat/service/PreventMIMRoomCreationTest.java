@@ -14,6 +14,7 @@
 import com.symphony.sfs.ms.chat.api.util.AbstractIntegrationTest;
 import com.symphony.sfs.ms.chat.config.EmpConfig;
 import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.chat.datafeed.DatafeedDispatcher;
 import com.symphony.sfs.ms.chat.datafeed.DatafeedSessionPool;
 import com.symphony.sfs.ms.chat.datafeed.ForwarderQueueConsumer;
 import com.symphony.sfs.ms.chat.datafeed.GatewaySocialMessage;
@@ -37,12 +38,16 @@
 import com.symphony.sfs.ms.starter.symphony.stream.StreamService;
 import com.symphony.sfs.ms.starter.symphony.tds.TenantDetailEntity;
 import com.symphony.sfs.ms.starter.util.RsaUtils;
+import io.awspring.cloud.messaging.listener.Acknowledgment;
 import model.UserInfo;
 import org.apache.commons.codec.binary.Base64;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.context.MessageSource;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
 
+import java.nio.charset.StandardCharsets;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.PrivateKey;
@@ -122,6 +127,8 @@ public void setUp(MessageSource messageSource) throws Exception {
     ChatConfiguration chatConfiguration = new ChatConfiguration();
     chatConfiguration.setSharedPrivateKey(new PemResource(RsaUtils.encodeRSAKey(keyPair.getPrivate())));
     chatConfiguration.setSharedPublicKey(new PemResource(RsaUtils.encodeRSAKey(keyPair.getPublic())));
+    // listeners run on the test thread, before consume returns
+    chatConfiguration.getDispatcher().setLanes(0);
 
     adminClient = mock(DefaultAdminClient.class);
     FederatedAccountSessionService federatedAccountSessionService = new FederatedAccountSessionService(federatedAccountRepository);
@@ -130,7 +137,7 @@ public void setUp(MessageSource messageSource) throws Exception {
     ObjectMapper objectMapper = new JacksonConfiguration().configureJackson(new ObjectMapper());
 
     messageDecryptor = mock(MessageDecryptor.class);
-    forwarderQueueConsumer = new ForwarderQueueConsumer(objectMapper, messageDecryptor, datafeedSessionPool, new MessageIOMonitor(meterManager), meterManager, botConfiguration, podConfiguration);
+    forwarderQueueConsumer = new ForwarderQueueConsumer(objectMapper, messageDecryptor, datafeedSessionPool, new MessageIOMonitor(meterManager), meterManager, botConfiguration, podConfiguration, new DatafeedDispatcher(chatConfiguration, meterManager), mock(ContentKeyPrefetcher.class));
 
     when(adminClient.getEmpList()).thenReturn(new EmpList());
     EmpSchemaService empSchemaService = mock(EmpSchemaService.class);
@@ -141,7 +148,7 @@ public void setUp(MessageSource messageSource) throws Exception {
 
     MessageStatusService messageStatusService = mock(MessageStatusService.class);
 
-    symphonyMessageService = spy(new SymphonyMessageService(empConfig, empClient, tenantDetailRepository, federatedAccountRepository, forwarderQueueConsumer, datafeedSessionPool, symphonyMessageSender, adminClient, empSchemaService, symphonyService, messageStatusService, podConfiguration, botConfiguration, streamService, new MessageIOMonitor(meterManager), messageSource, null, objectMapper));
+    symphonyMessageService = spy(new SymphonyMessageService(empConfig, empClient, tenantDetailRepository, federatedAccountRepository, forwarderQueueConsumer, datafeedSessionPool, symphonyMessageSender, adminClient, empSchemaService, symphonyService, messageStatusService, podConfiguration, botConfiguration, streamService, new MessageIOMonitor(meterManager), messageSource, null, objectMapper, new AttachmentFetcher(symphonyService, chatConfiguration, meterManager), new BlockedFileTypesCache(adminClient, chatConfiguration, meterManager), new CanChatCache(adminClient, forwarderQueueConsumer, chatConfiguration, meterManager), new StreamInfoCache(streamService, podConfiguration, datafeedSessionPool, forwarderQueueConsumer, chatConfiguration, meterManager), chatConfiguration));
     symphonyMessageService.registerAsDatafeedListener();
 
     ChannelService channelService = new ChannelService(symphonyMessageSender, empClient, forwarderQueueConsumer, datafeedSessionPool, federatedAccountRepository, empSchemaService, channelRepository, messageSource);
@@ -159,7 +166,7 @@ public void setUp(MessageSource messageSource) throws Exception {
   public void onUserUpdated_byConnectBot() throws Exception {
     String notification = getSnsMaestroMessage("196", getEnvelopeMessage(getUpdateUserMaestroMessageByConnectBot(), MaestroEventType.UPDATE_USER, "196"));
 
-    forwarderQueueConsumer.consumeCustomersPodEvents(notification);
+    forwarderQueueConsumer.consumeCustomersPodEvents(notification, mock(Acknowledgment.class));
 
     verify(advisorService, never()).onUserUpdated(any(IMaestroMessage.class), eq("196"));
   }
@@ -169,7 +176,7 @@ public void onUserUpdated_byConnectBot() throws Exception {
   public void onUserUpdated_byCustomer_notUnknownPod() throws Exception {
     String notification = getSnsMaestroMessage("123", getEnvelopeMessage(getUpdateUserMaestroMessageByUser_Advisor(), MaestroEventType.UPDATE_USER, "123"));
 
-    forwarderQueueConsumer.consumeCustomersPodEvents(notification);
+    forwarderQueueConsumer.consumeCustomersPodEvents(notification, mock(Acknowledgment.class));
 
     verify(advisorService).onUserUpdated(any(IMaestroMessage.class), eq("123"));
 
@@ -182,7 +189,7 @@ public void onUserUpdated_byCustomer_customerPod_advisor() throws Exception {
 
     String notification = getSnsMaestroMessage("123", getEnvelopeMessage(getUpdateUserMaestroMessageByUser_Advisor(), MaestroEventType.UPDATE_USER, "123"));
 
-    forwarderQueueConsumer.consumeCustomersPodEvents(notification);
+    forwarderQueueConsumer.consumeCustomersPodEvents(notification, mock(Acknowledgment.class));
 
     verify(advisorService).onUserUpdated(any(IMaestroMessage.class), eq("123"));
 
@@ -205,7 +212,7 @@ public void onUserUpdated_byCustomer_customerPod_bot() throws Exception {
 
     String notification = getSnsMaestroMessage("123", getEnvelopeMessage(getUpdateUserMaestroMessageByUser_Bot(), MaestroEventType.UPDATE_USER, "123"));
 
-    forwarderQueueConsumer.consumeCustomersPodEvents(notification);
+    forwarderQueueConsumer.consumeCustomersPodEvents(notification, mock(Acknowledgment.class));
 
     verify(advisorService).onUserUpdated(any(IMaestroMessage.class), eq("123"));
 
@@ -250,7 +257,7 @@ public void createMIMChannel() throws Exception {
       inviter
     ), MaestroEventType.CREATE_IM, "196"));
 
-    forwarderQueueConsumer.consume(notification, "1");
+    forwarderQueueConsumer.consume(notification, "1", mock(Acknowledgment.class));
     assertEquals(0, empClient.getChannels().size());
   }
 
@@ -276,7 +283,7 @@ public void createIMChannel() throws Exception {
       inviter
     ), MaestroEventType.CREATE_IM, "196"));
 
-    forwarderQueueConsumer.consume(notification, "1");
+    forwarderQueueConsumer.consume(notification, "1", mock(Acknowledgment.class));
 
   }
 
@@ -303,7 +310,7 @@ public void onUserJoinedRoom() throws Exception {
       inviter
     ), MaestroEventType.JOIN_ROOM, "196"));
 
-    forwarderQueueConsumer.consume(notification, "1");
+    forwarderQueueConsumer.consume(notification, "1", mock(Acknowledgment.class));
   }
 
   @Test
@@ -329,9 +336,9 @@ public void onIMMessageNotEntitled() throws Exception {
       sender
     ), MaestroEventType.CREATE_IM, "196"));
     doNothing().when(messageDecryptor).decrypt(any(ISocialMessage.class), eq(whatsAppUser.getSymphonyUserId()), any(), any());
-    forwarderQueueConsumer.consume(notification, "1");
+    forwarderQueueConsumer.consume(notification, "1", mock(Acknowledgment.class));
 
-    verify(symphonyMessageSender, once()).sendAlertMessage(eq(session), eq("KdO82B8UMTU7og2M4vOFqn___pINMV_OdA"), eq("You are not permitted to send messages to WHATSAPP users."), eq(Collections.emptyList()));
+    verify(symphonyMessageSender, once()).sendAlertMessages(eq(Collections.singletonList(session)), eq("KdO82B8UMTU7og2M4vOFqn___pINMV_OdA"), eq("You are not permitted to send messages to WHATSAPP users."), eq(Collections.emptyList()));
   }
 
 
@@ -372,11 +379,11 @@ public void onIMMessage() throws Exception {
     }).when(messageDecryptor).decrypt(any(ISocialMessage.class), eq(whatsAppUser.getSymphonyUserId()), any(), any());
     when(adminClient.canChat("1", "federatedUserId", "WHATSAPP")).thenReturn(Optional.of(CanChatResponse.CAN_CHAT));
     when(authenticationService.getUserInfo(podConfiguration.getUrl(), new StaticSessionSupplier<>(session), true)).thenReturn(Optional.of(receipter));
-    when(symphonyService.getAttachment(anyString(), anyString(), anyString(), any(SessionSupplier.class))).thenAnswer(ans -> ans.getArgument(2));
+    when(symphonyService.getAttachmentStream(anyString(), anyString(), anyString(), any(SessionSupplier.class))).thenAnswer(ans -> Flux.just(new DefaultDataBufferFactory().wrap(ans.<String>getArgument(2).getBytes(StandardCharsets.UTF_8))));
 
-    forwarderQueueConsumer.consume(notification, "1");
+    forwarderQueueConsumer.consume(notification, "1", mock(Acknowledgment.class));
 
-    verify(symphonyMessageSender, never()).sendAlertMessage(any(), anyString(), anyString(), anyList());
+    verify(symphonyMessageSender, never()).sendAlertMessages(anyList(), anyString(), anyString(), anyList());
 
     verify(symphonyMessageService, once()).onIMMessage(any(GatewaySocialMessage.class));
     verify(symphonyMessageService, once()).onIMMessage(argThat(arg -> {
@@ -423,11 +430,11 @@ public void onRoomMessage() throws Exception {
       return answer;
     }).when(messageDecryptor).decrypt(any(ISocialMessage.class), eq(whatsAppUser.getSymphonyUserId()), any(), any());
     when(authenticationService.getUserInfo(podConfiguration.getUrl(), new StaticSessionSupplier<>(session), true)).thenReturn(Optional.of(receipter));
-    when(symphonyService.getAttachment(anyString(), anyString(), anyString(), any(SessionSupplier.class))).thenAnswer(ans -> ans.getArgument(2));
+    when(symphonyService.getAttachmentStream(anyString(), anyString(), anyString(), any(SessionSupplier.class))).thenAnswer(ans -> Flux.just(new DefaultDataBufferFactory().wrap(ans.<String>getArgument(2).getBytes(StandardCharsets.UTF_8))));
     long messageNumber = empClient.getMessages().size();
-    forwarderQueueConsumer.consume(notification, "1");
+    forwarderQueueConsumer.consume(notification, "1", mock(Acknowledgment.class));
     assertEquals(messageNumber + 1, empClient.getMessages().size());
-    verify(symphonyMessageSender, never()).sendAlertMessage(any(), anyString(), anyString(), anyList());
+    verify(symphonyMessageSender, never()).sendAlertMessages(anyList(), anyString(), anyString(), anyList());
 
     verify(symphonyMessageService, once()).onIMMessage(any(GatewaySocialMessage.class));
     verify(symphonyMessageService, once()).onIMMessage(argThat(arg -> {
@@ -474,11 +481,11 @@ public void onRoomMessage_fromBot() throws Exception {
       return answer;
     }).when(messageDecryptor).decrypt(any(ISocialMessage.class), eq(whatsAppUser.getSymphonyUserId()), any(), any());
     when(authenticationService.getUserInfo(podConfiguration.getUrl(), new StaticSessionSupplier<>(session), true)).thenReturn(Optional.of(receipter));
-    when(symphonyService.getAttachment(anyString(), anyString(), anyString(), any(SessionSupplier.class))).thenAnswer(ans -> ans.getArgument(2));
+    when(symphonyService.getAttachmentStream(anyString(), anyString(), anyString(), any(SessionSupplier.class))).thenAnswer(ans -> Flux.just(new DefaultDataBufferFactory().wrap(ans.<String>getArgument(2).getBytes(StandardCharsets.UTF_8))));
     long messageNumber = empClient.getMessages().size();
-    forwarderQueueConsumer.consume(notification, "1");
+    forwarderQueueConsumer.consume(notification, "1", mock(Acknowledgment.class));
     assertEquals(messageNumber, empClient.getMessages().size());
-    verify(symphonyMessageSender, never()).sendAlertMessage(any(), anyString(), anyString(), anyList());
+    verify(symphonyMessageSender, never()).sendAlertMessages(anyList(), anyString(), anyString(), anyList());
 
     verify(symphonyMessageService, once()).onIMMessage(any(GatewaySocialMessage.class));
     verify(symphonyMessageService, once()).onIMMessage(argThat(arg -> {
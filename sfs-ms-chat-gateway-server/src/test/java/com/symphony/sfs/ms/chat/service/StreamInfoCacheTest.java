@@ -0,0 +1,94 @@
+package com.symphony.sfs.ms.chat.service;
+
+import com.symphony.sfs.ms.chat.config.properties.ChatConfiguration;
+import com.symphony.sfs.ms.chat.datafeed.DatafeedSessionPool;
+import com.symphony.sfs.ms.chat.datafeed.ForwarderQueueConsumer;
+import com.symphony.sfs.ms.chat.generated.model.CannotRetrieveStreamIdProblem;
+import com.symphony.sfs.ms.starter.config.properties.PodConfiguration;
+import com.symphony.sfs.ms.starter.health.MeterManager;
+import com.symphony.sfs.ms.starter.symphony.stream.StreamAttributes;
+import com.symphony.sfs.ms.starter.symphony.stream.StreamInfo;
+import com.symphony.sfs.ms.starter.symphony.stream.StreamService;
+import com.symphony.sfs.ms.starter.symphony.stream.StreamType;
+import com.symphony.sfs.ms.starter.symphony.stream.StreamTypes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StreamInfoCacheTest {
+
+  private StreamService streamService;
+  private StreamInfoCache streamInfoCache;
+
+  @BeforeEach
+  public void setUp() {
+    streamService = mock(StreamService.class);
+    streamInfoCache = new StreamInfoCache(streamService, new PodConfiguration(), mock(DatafeedSessionPool.class), mock(ForwarderQueueConsumer.class), new ChatConfiguration(), new MeterManager(new SimpleMeterRegistry(), Optional.empty()));
+  }
+
+  @Test
+  void getStreamInfo_cached() {
+    StreamInfo streamInfo = streamInfo(StreamTypes.IM, 1L, 2L);
+    when(streamService.getStreamInfo(any(), any(), eq("streamId"))).thenReturn(Optional.of(streamInfo));
+
+    assertSame(streamInfo, streamInfoCache.getStreamInfo("streamId"));
+    assertEquals(StreamTypes.IM, streamInfoCache.getStreamType("streamId"));
+    assertSame(streamInfo, streamInfoCache.getStreamInfo("streamId"));
+
+    verify(streamService, times(1)).getStreamInfo(any(), any(), anyString());
+  }
+
+  @Test
+  void onUserJoinedRoom_invalidatesMembersOnly() {
+    when(streamService.getStreamInfo(any(), any(), eq("streamId"))).thenReturn(Optional.of(streamInfo(StreamTypes.ROOM, 1L)), Optional.of(streamInfo(StreamTypes.ROOM, 1L, 2L)));
+    streamInfoCache.getStreamInfo("streamId");
+
+    streamInfoCache.onUserJoinedRoom("streamId", List.of("2"), null);
+
+    // the stream type is still known
+    assertEquals(StreamTypes.ROOM, streamInfoCache.getStreamType("streamId"));
+    verify(streamService, times(1)).getStreamInfo(any(), any(), anyString());
+    assertEquals(List.of(1L, 2L), streamInfoCache.getStreamInfo("streamId").getStreamAttributes().getMembers());
+    verify(streamService, times(2)).getStreamInfo(any(), any(), anyString());
+  }
+
+  @Test
+  void getKnownStreamType() {
+    when(streamService.getStreamInfo(any(), any(), eq("streamId"))).thenReturn(Optional.of(streamInfo(StreamTypes.ROOM, 1L)));
+
+    assertEquals(Optional.empty(), streamInfoCache.getKnownStreamType("streamId"));
+    verify(streamService, never()).getStreamInfo(any(), any(), anyString());
+
+    streamInfoCache.getStreamInfo("streamId");
+    assertEquals(Optional.of(StreamTypes.ROOM), streamInfoCache.getKnownStreamType("streamId"));
+  }
+
+  @Test
+  void getStreamInfo_notFound() {
+    when(streamService.getStreamInfo(any(), any(), eq("streamId"))).thenReturn(Optional.empty());
+
+    assertThrows(CannotRetrieveStreamIdProblem.class, () -> streamInfoCache.getStreamType("streamId"));
+    assertThrows(CannotRetrieveStreamIdProblem.class, () -> streamInfoCache.getStreamInfo("streamId"));
+    verify(streamService, times(2)).getStreamInfo(any(), any(), anyString());
+  }
+
+  private static StreamInfo streamInfo(StreamTypes type, Long... members) {
+    StreamAttributes streamAttributes = StreamAttributes.builder().members(List.of(members)).build();
+    return StreamInfo.builder().streamAttributes(streamAttributes).streamType(new StreamType(type)).build();
+  }
+}
@@ -22,18 +22,30 @@
 import com.symphony.sfs.ms.starter.symphony.stream.CustomEntity;
 import com.symphony.sfs.ms.starter.symphony.stream.MessageAttachment;
 import com.symphony.sfs.ms.starter.symphony.stream.SBEEventMessage;
+import com.symphony.sfs.ms.starter.symphony.stream.StreamTypes;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.stubbing.Answer;
 import org.springframework.context.MessageSource;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.BlockingCauseToSymphony.BLAST_ATTACHMENTS_UPLOAD_FAILED;
 import static com.symphony.sfs.ms.chat.service.MessageIOMonitor.BlockingCauseToSymphony.ENCRYPTION_FAILED;
@@ -43,11 +55,13 @@
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -61,6 +75,7 @@ public class SymphonyMessageSenderTest extends AbstractIntegrationTest {
   private MessageEncryptor messageEncryptor;
   private SymphonyService symphonyService;
   private SessionSupplier<SymphonySession> userSession;
+  private StreamInfoCache streamInfoCache;
 
 
   @BeforeEach
@@ -70,8 +85,10 @@ public void setUp(MessageSource messageSource) throws Exception {
     messageEncryptor = mock(MessageEncryptor.class);
     messageDecryptor = mock(MessageDecryptor.class);
     symphonyService = mock(SymphonyService.class);
+    streamInfoCache = mock(StreamInfoCache.class);
+    when(streamInfoCache.getKnownStreamType("streamId")).thenReturn(Optional.of(StreamTypes.IM));
     MessageInfoMapper messageInfoMapper = new MessageInfoMapperImpl();
-    symphonyMessageSender = new SymphonyMessageSender(podConfiguration, datafeedSessionPool, federatedAccountRepository, streamService, templateProcessor, messageMetrics, messageEncryptor, messageDecryptor, symphonyService, empSchemaService, messageSource, messageInfoMapper, objectMapper);
+    symphonyMessageSender = new SymphonyMessageSender(podConfiguration, datafeedSessionPool, federatedAccountRepository, streamService, templateProcessor, messageMetrics, messageEncryptor, messageDecryptor, symphonyService, empSchemaService, messageSource, messageInfoMapper, objectMapper, streamInfoCache);
     userSession = new SessionSupplier<>("username", new SymphonyRsaAuthFunction(authenticationService, podConfiguration, parseRSAPrivateKey(chatConfiguration.getSharedPrivateKey().getData())));
   }
 
@@ -93,11 +110,11 @@ public void sendReply_DecryptionEncryptionProblem() throws EncryptionException {
     federatedAccountRepository.save(FederatedAccount.builder().symphonyUserId("123456789").symphonyUsername("wa_bot_user_name").build());
 
     SBEEventMessage parentMessage = SBEEventMessage.builder().build();
-    when(symphonyService.getEncryptedMessage(eq("message_id"), any(SessionSupplier.class))).thenReturn(Optional.of(parentMessage));
+    when(symphonyService.getEncryptedMessageAsync(eq("message_id"), any(SessionSupplier.class))).thenReturn(Mono.just(parentMessage));
     when(messageEncryptor.buildReplyMessage("123456789", "wa_bot_user_name", "streamId", "message text", parentMessage, Collections.emptyList())).thenThrow(new EncryptionException(null));
     Optional<MessageInfoWithCustomEntities> newMessage = symphonyMessageSender.sendReplyMessage("streamId", "123456789", "message text", "message_id", false, Optional.empty());
 
-    verify(messageMetrics, times(1)).onMessageBlockToSymphony(ENCRYPTION_FAILED, "streamId");
+    verify(messageMetrics, times(1)).onMessageBlockToSymphony(ENCRYPTION_FAILED, null, "IM", "streamId");
     assertTrue(newMessage.isEmpty());
   }
 
@@ -109,7 +126,7 @@ public void sendReplyMessageSuccesfully_AttachmentNotSupported() throws Encrypti
       .messageId("message_id")
       .attachments(Collections.singletonList(MessageAttachment.builder().fileId("attachment_id").build()))
       .build();
-    when(symphonyService.getEncryptedMessage(any(String.class), any(SessionSupplier.class))).thenReturn(Optional.of(parentMessage));
+    when(symphonyService.getEncryptedMessageAsync(any(String.class), any(SessionSupplier.class))).thenReturn(Mono.just(parentMessage));
 
     assertThrows(InlineReplyMessageException.class, () -> {
       symphonyMessageSender.sendReplyMessage("streamId", "123456789", "message text", "message_id", false, Optional.empty());
@@ -127,14 +144,14 @@ public void sendReplyMessageSuccesfully_Text() throws EncryptionException, JsonP
     federatedAccountRepository.save(FederatedAccount.builder().symphonyUserId("123456789").symphonyUsername("wa_bot_user_name").build());
 
     SBEEventMessage parentMessage = SBEEventMessage.builder().build();
-    when(symphonyService.getEncryptedMessage(eq("message_id"), any(SessionSupplier.class))).thenReturn(Optional.of(parentMessage));
+    when(symphonyService.getEncryptedMessageAsync(eq("message_id"), any(SessionSupplier.class))).thenReturn(Mono.just(parentMessage));
     SBEEventMessage messageToBeSent = SBEEventMessage.builder().build();
     when(messageEncryptor.buildReplyMessage("123456789", "wa_bot_user_name", "streamId", "message text", parentMessage, Collections.emptyList())).thenReturn(messageToBeSent);
     when(symphonyService.sendReplyMessage(eq(messageToBeSent), any(SessionSupplier.class))).thenReturn(SBEEventMessage.builder().messageId("NxqDE3jYX/ePoCu+ytgVXH///oOG+B9FdA==").build());
 
     Optional<MessageInfoWithCustomEntities> newMessage = symphonyMessageSender.sendReplyMessage("streamId", "123456789", "message text", "message_id", false, Optional.empty());
 
-    verify(messageMetrics, times(1)).onSendMessageToSymphony("123456789", "streamId");
+    verify(messageMetrics, times(1)).onSendMessageToSymphony(null, "IM", "123456789", "streamId");
     assertEquals(newMessage.get().getMessageId(), "NxqDE3jYX_ePoCu-ytgVXH___oOG-B9FdA");
 
   }
@@ -157,8 +174,8 @@ public void sendReplyMessageSuccesfully_Attachments() throws EncryptionException
 
     doAnswer(invocation -> {
       String messageId = invocation.getArgument(0);
-      return StringUtils.equals(messageId, "message_id") ? Optional.of(parentMessage) : Optional.of(attachmentMessage);
-    }).when(symphonyService).getEncryptedMessage(any(String.class), any(SessionSupplier.class));
+      return StringUtils.equals(messageId, "message_id") ? Mono.just(parentMessage) : Mono.just(attachmentMessage);
+    }).when(symphonyService).getEncryptedMessageAsync(any(String.class), any(SessionSupplier.class));
 
     doAnswer(invocation -> invocation.getArgument(4)).when(messageEncryptor).buildReplyMessage(anyString(), anyString(), anyString(), anyString(), any(SBEEventMessage.class), any(List.class));
 
@@ -167,10 +184,10 @@ public void sendReplyMessageSuccesfully_Attachments() throws EncryptionException
     Optional<MessageInfoWithCustomEntities> newMessage = symphonyMessageSender.sendReplyMessage("streamId", "123456789", "message text", "message_id", true,
       Optional.of(Collections.singletonList("attachment_message_id")));
 
-    verify(symphonyService, times(1)).getEncryptedMessage(eq("message_id"), any(SessionSupplier.class));
-    verify(symphonyService, times(1)).getEncryptedMessage(eq("attachment_message_id"), any(SessionSupplier.class));
+    verify(symphonyService, times(1)).getEncryptedMessageAsync(eq("message_id"), any(SessionSupplier.class));
+    verify(symphonyService, times(1)).getEncryptedMessageAsync(eq("attachment_message_id"), any(SessionSupplier.class));
     verify(messageEncryptor, times(1)).buildReplyMessage("123456789", "wa_bot_user_name", "streamId", "message text", parentMessage, List.of(parentMessageAttachment, addedAttachment));
-    verify(messageMetrics, times(1)).onSendMessageToSymphony("123456789", "streamId");
+    verify(messageMetrics, times(1)).onSendMessageToSymphony(null, "IM", "123456789", "streamId");
     assertEquals(newMessage.get().getMessageId(), "NxqDE3jYX_ePoCu-ytgVXH___oOG-B9FdA");
 
   }
@@ -180,12 +197,12 @@ public void sendReplyToHistoricMessage() throws EncryptionException, JsonProcess
     federatedAccountRepository.save(FederatedAccount.builder().symphonyUserId("123456789").symphonyUsername("wa_bot_user_name").build());
 
     SBEEventMessage parentMessage = SBEEventMessage.builder().build();
-    when(symphonyService.getEncryptedMessage(eq("message_id"), any(SessionSupplier.class))).thenAnswer((Answer<Optional<SBEEventMessage>>) invocation -> {
+    when(symphonyService.getEncryptedMessageAsync(eq("message_id"), any(SessionSupplier.class))).thenAnswer((Answer<Mono<SBEEventMessage>>) invocation -> {
         SessionSupplier<SymphonySession> session = invocation.getArgument(1);
         if ("bot".equals(session.getPrincipal())) {
-          return Optional.of(parentMessage);
+          return Mono.just(parentMessage);
         } else {
-          throw new RuntimeException();
+          return Mono.error(new RuntimeException());
         }
     });
     SBEEventMessage messageToBeSent = SBEEventMessage.builder().build();
@@ -194,7 +211,7 @@ public void sendReplyToHistoricMessage() throws EncryptionException, JsonProcess
 
     Optional<MessageInfoWithCustomEntities> newMessage = symphonyMessageSender.sendReplyMessage("streamId", "123456789", "message text", "message_id", false, Optional.empty());
 
-    verify(symphonyService, times(2)).getEncryptedMessage(any(String.class), any(SessionSupplier.class));
+    verify(symphonyService, times(2)).getEncryptedMessageAsync(any(String.class), any(SessionSupplier.class));
     assertEquals(newMessage.get().getMessageId(), "NxqDE3jYX_ePoCu-ytgVXH___oOG-B9FdA");
 
   }
@@ -214,7 +231,7 @@ public void sendForwardedMessage_text_works() throws EncryptionException, JsonPr
 
     Optional<MessageInfoWithCustomEntities> newMessage = symphonyMessageSender.sendForwardedMessage("streamId", "123456789", "message text", Collections.emptyList());
 
-    verify(messageMetrics, times(1)).onSendMessageToSymphony("123456789", "streamId");
+    verify(messageMetrics, times(1)).onSendMessageToSymphony("WHATSAPP", "IM", "123456789", "streamId");
     assertEquals(newMessage.get().getMessageId(), "NxqDE3jYX_ePoCu-ytgVXH___oOG-B9FdA");
 
   }
@@ -226,11 +243,11 @@ public void sendForwardedMessage_withAttachments_works() throws EncryptionExcept
     MessageAttachment[] uploadedAttachments = { MessageAttachment.builder().fileId("new_attachment_id").build() };
     when(messageEncryptor.buildForwardedMessage(eq("123456789"), eq("wa_bot_user_name"),eq("streamId"), eq("message text"), eq("from WHATSAPP\n"), eq(Arrays.asList(uploadedAttachments)), any(byte[].class))).thenReturn(messageToBeSent);
     when(symphonyService.sendBulkMessage(eq(messageToBeSent), any(SessionSupplier.class))).thenReturn(SBEEventMessage.builder().messageId("NxqDE3jYX/ePoCu+ytgVXH///oOG+B9FdA==").build());
-    when(symphonyService.uploadBlastAttachment(any(SessionSupplier.class), any(String.class), any(String.class), any(byte[].class))).thenReturn(uploadedAttachments);
+    when(symphonyService.uploadBlastAttachmentAsync(any(SessionSupplier.class), any(String.class), any(String.class), any(byte[].class))).thenReturn(Mono.just(uploadedAttachments));
 
     Optional<MessageInfoWithCustomEntities> newMessage = symphonyMessageSender.sendForwardedMessage("streamId", "123456789", "message text", Collections.singletonList(new SymphonyAttachment().fileName("file_name").contentType("image/png").data("data")));
 
-    verify(messageMetrics, times(1)).onSendMessageToSymphony("123456789", "streamId");
+    verify(messageMetrics, times(1)).onSendMessageToSymphony("WHATSAPP", "IM", "123456789", "streamId");
     assertEquals(newMessage.get().getMessageId(), "NxqDE3jYX_ePoCu-ytgVXH___oOG-B9FdA");
 
   }
@@ -238,12 +255,12 @@ public void sendForwardedMessage_withAttachments_works() throws EncryptionExcept
   @Test
   public void sendForwardedMessage_withAttachments_failedUploadBlastAttachment() throws EncryptionException, JsonProcessingException {
     federatedAccountRepository.save(FederatedAccount.builder().symphonyUserId("123456789").symphonyUsername("wa_bot_user_name").emp("WHATSAPP").build());
-    when(symphonyService.uploadBlastAttachment(any(SessionSupplier.class), any(String.class), any(String.class), any(byte[].class))).thenReturn(null);
+    when(symphonyService.uploadBlastAttachmentAsync(any(SessionSupplier.class), any(String.class), any(String.class), any(byte[].class))).thenReturn(Mono.empty());
 
 
     Optional<MessageInfoWithCustomEntities> newMessage = symphonyMessageSender.sendForwardedMessage("streamId", "123456789", "message text", Collections.singletonList(new SymphonyAttachment().fileName("file_name")));
     assertTrue(newMessage.isEmpty());
-    verify(messageMetrics, times(1)).onMessageBlockToSymphony(BLAST_ATTACHMENTS_UPLOAD_FAILED, "streamId");
+    verify(messageMetrics, times(1)).onMessageBlockToSymphony(BLAST_ATTACHMENTS_UPLOAD_FAILED, "WHATSAPP", "IM", "streamId");
 
   }
 
@@ -255,10 +272,52 @@ public void sendForwardedMessage_withAttachments_failedEncryptAttachment() throw
     Optional<MessageInfoWithCustomEntities> newMessage = symphonyMessageSender.sendForwardedMessage("streamId", "123456789", "message text", Collections.singletonList(new SymphonyAttachment().fileName("file_name").contentType("image/png").data(null)));
 
     assertTrue(newMessage.isEmpty());
-    verify(messageMetrics, times(1)).onMessageBlockToSymphony(BLAST_ATTACHMENTS_UPLOAD_FAILED, "streamId");
+    verify(messageMetrics, times(1)).onMessageBlockToSymphony(BLAST_ATTACHMENTS_UPLOAD_FAILED, "WHATSAPP", "IM", "streamId");
 
   }
 
+  @Test
+  public void sendForwardedMessage_withAttachments_concurrentAndOrdered() throws EncryptionException {
+    federatedAccountRepository.save(FederatedAccount.builder().symphonyUserId("123456789").symphonyUsername("wa_bot_user_name").emp("WHATSAPP").build());
+    List<MessageAttachment> uploadedAttachments = Arrays.asList(MessageAttachment.builder().fileId("id1").build(), MessageAttachment.builder().fileId("id2").build(), MessageAttachment.builder().fileId("id3").build());
+    SBEEventMessage messageToBeSent = SBEEventMessage.builder().build();
+    when(messageEncryptor.buildForwardedMessage(eq("123456789"), eq("wa_bot_user_name"), eq("streamId"), eq("message text"), eq("from WHATSAPP\n"), eq(uploadedAttachments), any(byte[].class))).thenReturn(messageToBeSent);
+    when(symphonyService.sendBulkMessage(eq(messageToBeSent), any(SessionSupplier.class))).thenReturn(SBEEventMessage.builder().messageId("NxqDE3jYX/ePoCu+ytgVXH///oOG+B9FdA==").build());
+    // the first attachment is the slowest to upload
+    when(symphonyService.uploadBlastAttachmentAsync(any(SessionSupplier.class), anyString(), eq("file1"), any(byte[].class))).thenReturn(Mono.delay(Duration.ofMillis(300)).map(t -> new MessageAttachment[]{uploadedAttachments.get(0)}));
+    when(symphonyService.uploadBlastAttachmentAsync(any(SessionSupplier.class), anyString(), eq("file2"), any(byte[].class))).thenReturn(Mono.delay(Duration.ofMillis(300)).map(t -> new MessageAttachment[]{uploadedAttachments.get(1)}));
+    when(symphonyService.uploadBlastAttachmentAsync(any(SessionSupplier.class), anyString(), eq("file3"), any(byte[].class))).thenReturn(Mono.just(new MessageAttachment[]{uploadedAttachments.get(2)}));
+
+    long start = System.nanoTime();
+    Optional<MessageInfoWithCustomEntities> newMessage = symphonyMessageSender.sendForwardedMessage("streamId", "123456789", "message text", Arrays.asList(
+      new SymphonyAttachment().fileName("file1").contentType("image/png").data("data"),
+      new SymphonyAttachment().fileName("file2").contentType("image/png").data("data"),
+      new SymphonyAttachment().fileName("file3").contentType("image/png").data("data")));
+
+    assertTrue(newMessage.isPresent());
+    assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 600);
+    // recorded once the upload has completed, possibly after the message is sent
+    verify(messageMetrics, timeout(1000).times(3)).onBlastAttachmentUpload(eq("uploaded"), anyLong());
+  }
+
+  @Test
+  public void sendForwardedMessage_withAttachments_failureCancelsOtherUploads() throws EncryptionException {
+    federatedAccountRepository.save(FederatedAccount.builder().symphonyUserId("123456789").symphonyUsername("wa_bot_user_name").emp("WHATSAPP").build());
+    when(symphonyService.uploadBlastAttachmentAsync(any(SessionSupplier.class), anyString(), eq("file1"), any(byte[].class))).thenReturn(Mono.delay(Duration.ofSeconds(10)).map(t -> new MessageAttachment[0]));
+    when(symphonyService.uploadBlastAttachmentAsync(any(SessionSupplier.class), anyString(), eq("file2"), any(byte[].class))).thenReturn(Mono.error(new IllegalStateException()));
+
+    long start = System.nanoTime();
+    Optional<MessageInfoWithCustomEntities> newMessage = symphonyMessageSender.sendForwardedMessage("streamId", "123456789", "message text", Arrays.asList(
+      new SymphonyAttachment().fileName("file1").contentType("image/png").data("data"),
+      new SymphonyAttachment().fileName("file2").contentType("image/png").data("data")));
+
+    assertTrue(newMessage.isEmpty());
+    assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5000);
+    verify(messageMetrics, times(1)).onMessageBlockToSymphony(BLAST_ATTACHMENTS_UPLOAD_FAILED, "WHATSAPP", "IM", "streamId");
+    verify(messageMetrics, timeout(1000)).onBlastAttachmentUpload(eq("failed"), anyLong());
+    verify(messageMetrics, timeout(1000)).onBlastAttachmentUpload(eq("cancelled"), anyLong());
+  }
+
   @Test
   public void sendForwardedMessage_noFederatedAccount() throws EncryptionException, JsonProcessingException {
     assertThrows(SendMessageFailedProblem.class, () -> {
@@ -274,7 +333,7 @@ public void sendForward_DecryptionEncryptionProblem() throws EncryptionException
 
     Optional<MessageInfoWithCustomEntities> newMessage = symphonyMessageSender.sendForwardedMessage("streamId", "123456789", "message text", Collections.emptyList());
 
-    verify(messageMetrics, times(1)).onMessageBlockToSymphony(ENCRYPTION_FAILED, "streamId");
+    verify(messageMetrics, times(1)).onMessageBlockToSymphony(ENCRYPTION_FAILED, "WHATSAPP", "IM", "streamId");
     assertTrue(newMessage.isEmpty());
   }
 
@@ -320,9 +379,9 @@ public void decryptAndBuildMessageInfo_WithQuote() throws DecryptionException, J
       .ingestionDate(1665413648L)
       .attachments(List.of(MessageAttachment.builder().fileId("fileId").name("fileName.pdf").contentType("application/pdf").sizeInBytes(123L).images(Map.of("600", "fileId600")).build()))
       .build();
-    Map<String, SBEEventMessage> retrievedMessage = new HashMap<>();
-    retrievedMessage.put("messageId1___n1ZVrIxbQ", sbeEventMessage1);
-    retrievedMessage.put("messageId2___n2ZVrIxbQ", sbeEventMessage2);
+    Map<String, CompletableFuture<SBEEventMessage>> retrievedMessage = new HashMap<>();
+    retrievedMessage.put("messageId1___n1ZVrIxbQ", CompletableFuture.completedFuture(sbeEventMessage1));
+    retrievedMessage.put("messageId2___n2ZVrIxbQ", CompletableFuture.completedFuture(sbeEventMessage2));
 
     doNothing().when(messageDecryptor).decrypt(any(SBEEventMessage.class), eq(symphonyUserId), eq(userSession.getPrincipal()));
 
@@ -346,6 +405,43 @@ public void decryptAndBuildMessageInfo_WithQuote() throws DecryptionException, J
       messageInfoWithCustomEntities2);
   }
 
+  @Test
+  public void decryptAndBuildMessageInfo_sameQuoteFetchedOnce() throws Exception {
+    String symphonyUserId = "123456789";
+    String customEntities = "[{\"type\": \"com.symphony.sharing.quote\", \"beginIndex\": 0, \"endIndex\": 13, \"data\": {\"id\": \"messageId1///n1ZVrIxbQ==\"}}]";
+    List<CustomEntity> parsedCustomEntities = Arrays.asList(objectMapper.readValue(customEntities, CustomEntity[].class));
+    SBEEventMessage reply1 = SBEEventMessage.builder().messageId("messageId2///n2ZVrIxbQ==").text("In reply to: reply 1").customEntities(customEntities).parsedCustomEntities(parsedCustomEntities).build();
+    SBEEventMessage reply2 = SBEEventMessage.builder().messageId("messageId3///n3ZVrIxbQ==").text("In reply to: reply 2").customEntities(customEntities).parsedCustomEntities(parsedCustomEntities).build();
+
+    doNothing().when(messageDecryptor).decrypt(any(SBEEventMessage.class), eq(symphonyUserId), eq(userSession.getPrincipal()));
+    // slow enough for both decryptions to wait on the quoted message
+    when(symphonyService.getEncryptedMessage("messageId1___n1ZVrIxbQ", userSession)).thenAnswer(invocation -> {
+      Thread.sleep(200);
+      return Optional.of(SBEEventMessage.builder().messageId("messageId1///n1ZVrIxbQ==").text("Message").build());
+    });
+
+    Map<String, CompletableFuture<SBEEventMessage>> quotedMessages = new ConcurrentHashMap<>();
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<MessageInfoWithCustomEntities>> decrypted = Stream.of(reply1, reply2)
+        .map(reply -> executor.submit(() -> {
+          start.await();
+          return symphonyMessageSender.decryptAndBuildMessageInfo(reply, symphonyUserId, userSession, quotedMessages);
+        }))
+        .collect(Collectors.toList());
+      start.countDown();
+
+      for (Future<MessageInfoWithCustomEntities> messageInfo : decrypted) {
+        assertEquals("Message", messageInfo.get(5, TimeUnit.SECONDS).getParentMessage().getMessage());
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    verify(symphonyService, times(1)).getEncryptedMessage(anyString(), any());
+  }
+
   //////////////////////
   //// Send Contact ////
   //////////////////////
@@ -365,7 +461,7 @@ public void sendContactMessage_EncryptionProblem() throws EncryptionException {
 
     Optional<MessageInfoWithCustomEntities> newMessage = symphonyMessageSender.sendContactMessage("streamId", "123456789", "text", "{ \"type\": \"unknownType\"}", "<div data-format=\"PresentationML\" data-version=\"2.0\">PresentationML Content</div>");
 
-    verify(messageMetrics, times(1)).onMessageBlockToSymphony(ENCRYPTION_FAILED, "streamId");
+    verify(messageMetrics, times(1)).onMessageBlockToSymphony(ENCRYPTION_FAILED, null, "IM", "streamId");
     assertTrue(newMessage.isEmpty());
   }
 
@@ -379,7 +475,7 @@ public void sendContactMessage_OK() throws EncryptionException, JsonProcessingEx
 
     Optional<MessageInfoWithCustomEntities> newMessage = symphonyMessageSender.sendContactMessage("streamId", "123456789", "text", "{ \"type\": \"send_contacts\"}", "<div data-format=\"PresentationML\" data-version=\"2.0\">PresentationML Content</div>");
 
-    verify(messageMetrics, times(1)).onSendMessageToSymphony("123456789", "streamId");
+    verify(messageMetrics, times(1)).onSendMessageToSymphony(null, "IM", "123456789", "streamId");
     assertEquals(newMessage.get().getMessageId(), "NxqDE3jYX_ePoCu-ytgVXH___oOG-B9FdA");
 
   }
@@ -9,6 +9,7 @@
 import com.symphony.sfs.ms.chat.exception.DecryptionException;
 import com.symphony.sfs.ms.chat.exception.UnknownDatafeedUserException;
 import com.symphony.sfs.ms.chat.generated.model.MessageId;
+import com.symphony.sfs.ms.chat.generated.model.MessageInfo;
 import com.symphony.sfs.ms.chat.generated.model.MessageInfoWithCustomEntities;
 import com.symphony.sfs.ms.chat.generated.model.RetrieveMessagesResponse;
 import com.symphony.sfs.ms.chat.generated.model.SendMessageFailedProblem;
@@ -32,6 +33,7 @@
 import com.symphony.sfs.ms.starter.symphony.auth.SymphonyRsaAuthFunction;
 import com.symphony.sfs.ms.starter.symphony.auth.SymphonySession;
 import com.symphony.sfs.ms.starter.symphony.message.MessageStatusService;
+import com.symphony.sfs.ms.starter.symphony.stream.CustomEntity;
 import com.symphony.sfs.ms.starter.symphony.stream.MessageEnvelope;
 import com.symphony.sfs.ms.starter.symphony.stream.SBEEventMessage;
 import com.symphony.sfs.ms.starter.symphony.stream.StreamService;
@@ -41,6 +43,7 @@
 import com.symphony.sfs.ms.starter.symphony.stream.ThreadMessagesResponse;
 import com.symphony.sfs.ms.starter.symphony.tds.TenantDetailRepository;
 import com.symphony.sfs.ms.starter.util.RsaUtils;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import model.InboundMessage;
 import org.apache.commons.codec.binary.Base64;
@@ -51,18 +54,26 @@
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.slf4j.MDC;
 import org.springframework.context.MessageSource;
 import org.springframework.http.MediaType;
 
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.symphony.sfs.ms.chat.service.SymphonyMessageSender.SYSTEM_MESSAGE_ALERT_HANDLEBARS_TEMPLATE;
@@ -73,13 +84,18 @@
 import static com.symphony.sfs.ms.starter.util.RsaUtils.parseRSAPrivateKey;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -110,11 +126,13 @@ class SymphonyMessageServiceTest {
   private EmpSchemaService empSchemaService;
   private MessageStatusService messageStatusService;
   private ObjectMapper objectMapper;
+  private SimpleMeterRegistry meterRegistry;
 
 
   @BeforeEach
   public void setUp() throws Exception {
-    MeterManager meterManager = new MeterManager(new SimpleMeterRegistry(), Optional.empty());
+    meterRegistry = new SimpleMeterRegistry();
+    MeterManager meterManager = new MeterManager(meterRegistry, Optional.empty());
 
     // keys
     KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA");
@@ -149,7 +167,7 @@ public void setUp() throws Exception {
 
     MessageInfoMapper messageInfoMapper = new MessageInfoMapperImpl();
 
-    symphonyMessageSender = spy(new SymphonyMessageSender(podConfiguration, datafeedSessionPool, federatedAccountRepository, streamService, templateProcessor, new MessageIOMonitor(meterManager), messageEncryptor, messageDecryptor, symphonyService, null, null, messageInfoMapper, new ObjectMapper()));
+    symphonyMessageSender = spy(new SymphonyMessageSender(podConfiguration, datafeedSessionPool, federatedAccountRepository, streamService, templateProcessor, new MessageIOMonitor(meterManager), messageEncryptor, messageDecryptor, symphonyService, null, null, messageInfoMapper, new ObjectMapper(), mock(StreamInfoCache.class)));
     empClient = mock(EmpClient.class);
     empConfig = new EmpConfig();
     tenantDetailRepository = mock(TenantDetailRepository.class);
@@ -158,7 +176,7 @@ public void setUp() throws Exception {
     messageStatusService = mock(MessageStatusService.class);
     objectMapper = spy(new JacksonConfiguration().configureJackson(new ObjectMapper()));
 
-    symphonyMessageService = new SymphonyMessageService(empConfig, empClient, tenantDetailRepository, federatedAccountRepository, mock(ForwarderQueueConsumer.class), datafeedSessionPool, symphonyMessageSender, adminClient, empSchemaService, symphonyService, messageStatusService, podConfiguration, botConfiguration, streamService, new MessageIOMonitor(meterManager), mock(MessageSource.class), mock(MessageDecryptor.class), objectMapper);
+    symphonyMessageService = new SymphonyMessageService(empConfig, empClient, tenantDetailRepository, federatedAccountRepository, mock(ForwarderQueueConsumer.class), datafeedSessionPool, symphonyMessageSender, adminClient, empSchemaService, symphonyService, messageStatusService, podConfiguration, botConfiguration, streamService, new MessageIOMonitor(meterManager), mock(MessageSource.class), messageDecryptor, objectMapper, new AttachmentFetcher(symphonyService, chatConfiguration, meterManager), new BlockedFileTypesCache(adminClient, chatConfiguration, meterManager), new CanChatCache(adminClient, mock(ForwarderQueueConsumer.class), chatConfiguration, meterManager), new StreamInfoCache(streamService, podConfiguration, datafeedSessionPool, mock(ForwarderQueueConsumer.class), chatConfiguration, meterManager), chatConfiguration);
 
   }
 
@@ -248,6 +266,47 @@ void sendAlertMessage() {
     orderVerifier.verify(templateProcessor, once()).process("templatizedText", null, Collections.emptyList(), SYSTEM_MESSAGE_ALERT_HANDLEBARS_TEMPLATE);
   }
 
+  @Test
+  void sendAlertMessages() {
+    @SuppressWarnings("unchecked")
+    SessionSupplier<SymphonySession> otherSession = mock(SessionSupplier.class);
+    when(templateProcessor.process("templatizedText", null, Collections.emptyList(), SYSTEM_MESSAGE_ALERT_HANDLEBARS_TEMPLATE)).thenReturn("alertDetemplatizedText");
+    when(streamService.sendMessage("podUrl", userSession, "streamId", "alertDetemplatizedText")).thenReturn(Optional.of(new InboundMessage()));
+    when(streamService.sendMessage("podUrl", otherSession, "streamId", "alertDetemplatizedText")).thenReturn(Optional.empty());
+
+    List<Optional<MessageInfoWithCustomEntities>> outcomes = symphonyMessageSender.sendAlertMessages(List.of(userSession, otherSession), "streamId", "templatizedText", Collections.emptyList());
+
+    // rendered once, the failure to alert a user does not prevent alerting the others
+    verify(templateProcessor, once()).process("templatizedText", null, Collections.emptyList(), SYSTEM_MESSAGE_ALERT_HANDLEBARS_TEMPLATE);
+    verify(streamService, once()).sendMessage("podUrl", userSession, "streamId", "alertDetemplatizedText");
+    verify(streamService, once()).sendMessage("podUrl", otherSession, "streamId", "alertDetemplatizedText");
+    assertEquals(2, outcomes.size());
+    assertTrue(outcomes.get(0).isPresent());
+    assertTrue(outcomes.get(1).isEmpty());
+  }
+
+  @Test
+  void sendAlertMessages_keepsTheMdc() {
+    @SuppressWarnings("unchecked")
+    SessionSupplier<SymphonySession> otherSession = mock(SessionSupplier.class);
+    List<String> loggedStreamIds = Collections.synchronizedList(new ArrayList<>());
+    when(templateProcessor.process("templatizedText", null, Collections.emptyList(), SYSTEM_MESSAGE_ALERT_HANDLEBARS_TEMPLATE)).thenReturn("alertDetemplatizedText");
+    when(streamService.sendMessage(eq("podUrl"), any(), eq("streamId"), eq("alertDetemplatizedText"))).thenAnswer(invocation -> {
+      loggedStreamIds.add(MDC.get("streamId"));
+      return Optional.of(new InboundMessage());
+    });
+
+    MDC.put("streamId", "streamId");
+    try {
+      symphonyMessageSender.sendAlertMessages(List.of(userSession, otherSession), "streamId", "templatizedText", Collections.emptyList());
+      assertEquals("streamId", MDC.get("streamId"));
+    } finally {
+      MDC.clear();
+    }
+
+    assertEquals(List.of("streamId", "streamId"), loggedStreamIds);
+  }
+
   @Test
   void sendRawMessage_FromSymphonyUserNotFound() {
     when(federatedAccountRepository.findBySymphonyId("fromSymphonyUserId")).thenReturn(Optional.empty());
@@ -283,6 +342,127 @@ public void retrieveMessagesTest() throws UnknownDatafeedUserException, Decrypti
     assertEquals("messageId1___n1ZVrIxbQ", response.getMessages().get(0).getMessageId());
   }
 
+  @Test
+  public void retrieveMessages_stopsPagingOnceAllFound() throws UnknownDatafeedUserException, DecryptionException {
+    String fromSymphonyUserId = "fromSymphonyUserId";
+    OffsetDateTime start = OffsetDateTime.now().minusHours(1);
+    OffsetDateTime end = OffsetDateTime.now();
+
+    // a full page, the thread could have older messages
+    List<MessageEnvelope> messageEnvelopes = new ArrayList<>();
+    for (int i = 0; i < SymphonyMessageService.POD_BATCH_REQUEST_SIZE; i++) {
+      messageEnvelopes.add(MessageEnvelope.builder().message(SBEEventMessage.builder().messageId(String.format("message%03d///n1ZVrIxbQ==", i)).ingestionDate(1000L - i).build()).build());
+    }
+    when(datafeedSessionPool.getSessionSupplierOrFail(fromSymphonyUserId)).thenReturn(userSession);
+    when(streamService.retrieveSocialMessagesList(any(), any(), any(), anyInt(), anyLong(), anyLong())).thenReturn(Optional.of(ThreadMessagesResponse.builder().envelopes(messageEnvelopes).build()));
+    doAnswer(SymphonyMessageServiceTest::messageInfoWithEncryptedId)
+      .when(symphonyMessageSender).decryptAndBuildMessageInfo(any(SBEEventMessage.class), eq(fromSymphonyUserId), eq(userSession), any());
+
+    RetrieveMessagesResponse response = symphonyMessageService.retrieveMessages("threadId", Arrays.asList(new MessageId().messageId("message007___n1ZVrIxbQ"), new MessageId().messageId("message003___n1ZVrIxbQ")), fromSymphonyUserId, start, end);
+
+    assertEquals(Arrays.asList("message007///n1ZVrIxbQ==", "message003///n1ZVrIxbQ=="), response.getMessages().stream().map(MessageInfo::getMessage).collect(Collectors.toList()));
+    verify(streamService, once()).retrieveSocialMessagesList(any(), any(), any(), anyInt(), anyLong(), anyLong());
+    verify(symphonyService, never()).getEncryptedMessage(any(), any());
+  }
+
+  @Test
+  public void retrieveMessages_fetchesMissingMessagesInOrder() throws UnknownDatafeedUserException, DecryptionException {
+    String fromSymphonyUserId = "fromSymphonyUserId";
+    OffsetDateTime start = OffsetDateTime.now().minusHours(1);
+    OffsetDateTime end = OffsetDateTime.now();
+
+    MessageEnvelope messageEnvelope = MessageEnvelope.builder().message(SBEEventMessage.builder().messageId("message002///n1ZVrIxbQ==").build()).build();
+    when(datafeedSessionPool.getSessionSupplierOrFail(fromSymphonyUserId)).thenReturn(userSession);
+    when(streamService.retrieveSocialMessagesList(any(), any(), any(), anyInt(), anyLong(), anyLong())).thenReturn(Optional.of(ThreadMessagesResponse.builder().envelopes(Collections.singletonList(messageEnvelope)).build()));
+    when(symphonyService.getEncryptedMessage("message001___n1ZVrIxbQ", userSession)).thenReturn(Optional.of(SBEEventMessage.builder().messageId("message001///n1ZVrIxbQ==").build()));
+    when(symphonyService.getEncryptedMessage("message003___n1ZVrIxbQ", userSession)).thenReturn(Optional.of(SBEEventMessage.builder().messageId("message003///n1ZVrIxbQ==").build()));
+    doAnswer(SymphonyMessageServiceTest::messageInfoWithEncryptedId)
+      .when(symphonyMessageSender).decryptAndBuildMessageInfo(any(SBEEventMessage.class), eq(fromSymphonyUserId), eq(userSession), any());
+
+    RetrieveMessagesResponse response = symphonyMessageService.retrieveMessages("threadId", Arrays.asList(
+      new MessageId().messageId("message003___n1ZVrIxbQ"),
+      new MessageId().messageId("message002___n1ZVrIxbQ"),
+      new MessageId().messageId("message001___n1ZVrIxbQ")), fromSymphonyUserId, start, end);
+
+    assertEquals(Arrays.asList("message003///n1ZVrIxbQ==", "message002///n1ZVrIxbQ==", "message001///n1ZVrIxbQ=="), response.getMessages().stream().map(MessageInfo::getMessage).collect(Collectors.toList()));
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void retrieveMessages_incrementalKeepsOnlyRequestedMessages(boolean incremental) throws UnknownDatafeedUserException, DecryptionException {
+    chatConfiguration.getMessageRetrieval().setIncremental(incremental);
+    String fromSymphonyUserId = "fromSymphonyUserId";
+    OffsetDateTime start = OffsetDateTime.now().minusHours(1);
+    OffsetDateTime end = OffsetDateTime.now();
+
+    List<MessageEnvelope> firstPage = new ArrayList<>();
+    for (int i = 0; i < SymphonyMessageService.POD_BATCH_REQUEST_SIZE; i++) {
+      firstPage.add(MessageEnvelope.builder().message(SBEEventMessage.builder().messageId(String.format("message%03d///n1ZVrIxbQ==", i)).ingestionDate(1000L - i).build()).build());
+    }
+    MessageEnvelope lastPage = MessageEnvelope.builder().message(SBEEventMessage.builder().messageId("message999///n1ZVrIxbQ==").ingestionDate(1L).build()).build();
+    when(datafeedSessionPool.getSessionSupplierOrFail(fromSymphonyUserId)).thenReturn(userSession);
+    when(streamService.retrieveSocialMessagesList(any(), any(), any(), anyInt(), anyLong(), anyLong()))
+      .thenReturn(Optional.of(ThreadMessagesResponse.builder().envelopes(firstPage).build()))
+      .thenReturn(Optional.of(ThreadMessagesResponse.builder().envelopes(Collections.singletonList(lastPage)).build()));
+    Map<String, CompletableFuture<SBEEventMessage>> retrievedMessages = new HashMap<>();
+    doAnswer(invocation -> {
+      retrievedMessages.putAll(invocation.getArgument(3));
+      return messageInfoWithEncryptedId(invocation);
+    }).when(symphonyMessageSender).decryptAndBuildMessageInfo(any(SBEEventMessage.class), eq(fromSymphonyUserId), eq(userSession), any());
+
+    RetrieveMessagesResponse response = symphonyMessageService.retrieveMessages("threadId", Arrays.asList(new MessageId().messageId("message999___n1ZVrIxbQ"), new MessageId().messageId("message003___n1ZVrIxbQ")), fromSymphonyUserId, start, end);
+
+    assertEquals(Arrays.asList("message999///n1ZVrIxbQ==", "message003///n1ZVrIxbQ=="), response.getMessages().stream().map(MessageInfo::getMessage).collect(Collectors.toList()));
+    assertEquals(incremental ? 2 : SymphonyMessageService.POD_BATCH_REQUEST_SIZE + 1, retrievedMessages.size());
+    DistributionSummary pages = meterRegistry.get("sfs.messages.retrieve.pages").summary();
+    assertEquals(1, pages.count());
+    assertEquals(2, pages.totalAmount());
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void retrieveMessages_quotedMessageInTheWindow(boolean incremental) throws Exception {
+    chatConfiguration.getMessageRetrieval().setIncremental(incremental);
+    String fromSymphonyUserId = "fromSymphonyUserId";
+    OffsetDateTime start = OffsetDateTime.now().minusHours(1);
+    OffsetDateTime end = OffsetDateTime.now();
+
+    String customEntities = "[{\"type\": \"com.symphony.sharing.quote\", \"beginIndex\": 0, \"endIndex\": 13, \"data\": {\"id\": \"message005///n1ZVrIxbQ==\"}}]";
+    List<MessageEnvelope> messageEnvelopes = new ArrayList<>();
+    messageEnvelopes.add(MessageEnvelope.builder().message(SBEEventMessage.builder()
+      .messageId("message000///n1ZVrIxbQ==")
+      .text("In reply to: reply")
+      .ingestionDate(1000L)
+      .customEntities(customEntities)
+      .parsedCustomEntities(Arrays.asList(objectMapper.readValue(customEntities, CustomEntity[].class)))
+      .build()).build());
+    for (int i = 1; i < 10; i++) {
+      messageEnvelopes.add(MessageEnvelope.builder().message(SBEEventMessage.builder().messageId(String.format("message%03d///n1ZVrIxbQ==", i)).text("quoted").ingestionDate(1000L - i).build()).build());
+    }
+    when(datafeedSessionPool.getSessionSupplierOrFail(fromSymphonyUserId)).thenReturn(userSession);
+    when(streamService.retrieveSocialMessagesList(any(), any(), any(), anyInt(), anyLong(), anyLong())).thenReturn(Optional.of(ThreadMessagesResponse.builder().envelopes(messageEnvelopes).build()));
+    when(messageDecryptor.decryptQuotedMessageId(any(SBEEventMessage.class), eq(fromSymphonyUserId), any())).thenReturn(Optional.of("message005///n1ZVrIxbQ=="));
+    Map<String, CompletableFuture<SBEEventMessage>> keptMessages = new HashMap<>();
+    doAnswer(invocation -> {
+      keptMessages.putAll(invocation.getArgument(3));
+      return invocation.callRealMethod();
+    }).when(symphonyMessageSender).decryptAndBuildMessageInfo(any(SBEEventMessage.class), eq(fromSymphonyUserId), eq(userSession), any());
+
+    RetrieveMessagesResponse response = symphonyMessageService.retrieveMessages("threadId", Collections.singletonList(new MessageId().messageId("message000___n1ZVrIxbQ")), fromSymphonyUserId, start, end);
+
+    assertEquals("quoted", response.getMessages().get(0).getParentMessage().getMessage());
+    // the incremental mode keeps the quoted message too, it is not fetched again
+    assertTrue(keptMessages.containsKey("message005___n1ZVrIxbQ"));
+    assertEquals(incremental ? 2 : 10, keptMessages.size());
+    verify(symphonyService, never()).getEncryptedMessage(any(), any());
+  }
+
+  private static MessageInfoWithCustomEntities messageInfoWithEncryptedId(InvocationOnMock invocation) {
+    MessageInfoWithCustomEntities messageInfo = new MessageInfoWithCustomEntities();
+    messageInfo.setMessage(invocation.getArgument(0, SBEEventMessage.class).getMessageId());
+    return messageInfo;
+  }
+
   @FunctionalInterface
   private interface TriConsumer<T, U, V> {
     /**
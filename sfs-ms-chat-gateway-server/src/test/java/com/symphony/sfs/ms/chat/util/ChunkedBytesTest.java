@@ -0,0 +1,50 @@
+package com.symphony.sfs.ms.chat.util;
+
+import com.amazonaws.util.Base64;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChunkedBytesTest {
+
+  @Test
+  void decodeBase64_sameAsWholeDecoding() {
+    Random random = new Random(42);
+    for (int length : new int[]{0, 1, 2, 3, 4, 5, 47, 48, 49, 1000, 100_000}) {
+      byte[] file = new byte[length];
+      random.nextBytes(file);
+      String base64 = Base64.encodeAsString(file);
+
+      for (int chunkSize : new int[]{1, 3, 4, 48, 1024, ChunkedBytes.DEFAULT_CHUNK_SIZE}) {
+        assertArrayEquals(Base64.decode(base64), ChunkedBytes.decodeBase64(base64, chunkSize), "length=" + length + " chunkSize=" + chunkSize);
+      }
+    }
+  }
+
+  @Test
+  void decodeBase64_wrapped() {
+    byte[] file = new byte[1000];
+    new Random(42).nextBytes(file);
+    // MIME style lines of 76 characters
+    String wrapped = Base64.encodeAsString(file).replaceAll("(.{76})", "$1\r\n");
+    String spaced = " " + Base64.encodeAsString(file).replaceAll("(.{10})", "$1 \n") + "\n";
+
+    for (int chunkSize : new int[]{1, 3, 48, 1024}) {
+      assertArrayEquals(Base64.decode(wrapped), ChunkedBytes.decodeBase64(wrapped, chunkSize), "chunkSize=" + chunkSize);
+      assertArrayEquals(file, ChunkedBytes.decodeBase64(spaced, chunkSize), "chunkSize=" + chunkSize);
+    }
+    assertArrayEquals(new byte[0], ChunkedBytes.decodeBase64("\r\n", 3));
+    assertNull(ChunkedBytes.decodeBase64(null, 3));
+  }
+
+  @Test
+  void decodeBase64_invalid() {
+    assertThrows(IllegalArgumentException.class, () -> ChunkedBytes.decodeBase64("QQ==QQ==", 3));
+    assertThrows(IllegalArgumentException.class, () -> ChunkedBytes.decodeBase64("QUJD*A==", 3));
+    assertThrows(IllegalArgumentException.class, () -> ChunkedBytes.decodeBase64("QUJDŁA==", 3));
+  }
+}
@@ -0,0 +1,31 @@
+package com.symphony.sfs.ms.chat.util;
+
+import com.symphony.sfs.ms.chat.exception.DecryptionException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MonoUtilsTest {
+
+  @Test
+  void blockUnwrapping() throws DecryptionException {
+    assertEquals("value", MonoUtils.blockUnwrapping(Mono.just("value"), DecryptionException.class));
+  }
+
+  @Test
+  void blockUnwrapping_checkedException() {
+    DecryptionException error = new DecryptionException(new IllegalStateException("failure"));
+
+    assertSame(error, assertThrows(DecryptionException.class, () -> MonoUtils.blockUnwrapping(Mono.error(error), DecryptionException.class)));
+  }
+
+  @Test
+  void blockUnwrapping_runtimeException() {
+    IllegalStateException error = new IllegalStateException("failure");
+
+    assertSame(error, assertThrows(IllegalStateException.class, () -> MonoUtils.blockUnwrapping(Mono.error(error), DecryptionException.class)));
+  }
+}
@@ -1,15 +1,25 @@
 package com.symphony.sfs.ms.chat.util;
 
 import com.github.jknack.handlebars.Handlebars;
+import com.github.jknack.handlebars.io.ClassPathTemplateLoader;
+import com.github.jknack.handlebars.io.TemplateLoader;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
 
+import static com.symphony.sfs.ms.starter.testing.MockitoUtils.once;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.matchesPattern;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 class SymphonySystemMessageTemplateProcessorTest {
 
@@ -69,4 +79,24 @@ void testProcess_NoExistingTemplate() {
     // content and title entries in any order
     assertThat(message, matchesPattern("\\{(?=.*title=title)(?=.*content=content).*\\}"));
   }
+
+  @Test
+  void testCompileTemplates() throws IOException {
+    TemplateLoader loader = new ClassPathTemplateLoader();
+    loader.setPrefix("/templates");
+    loader.setSuffix(".hbs");
+    Handlebars handlebars = spy(new Handlebars(loader));
+    templateProcessor = new SymphonySystemMessageTemplateProcessor(handlebars);
+
+    templateProcessor.compileTemplates();
+
+    // compiled at startup, not on first use
+    verify(handlebars, once()).compile("system_message_alert");
+    verify(handlebars, once()).compile("system_message_simple");
+    clearInvocations(handlebars);
+    templateProcessor.requireTemplates("system_message_alert", "system_message_simple");
+    verify(handlebars, never()).compile(anyString());
+
+    assertThrows(IllegalStateException.class, () -> templateProcessor.requireTemplates("system_message_alert", "symphony_message_test_no_existing_template"));
+  }
 }
@@ -0,0 +1,66 @@
+package com.symphony.sfs.ms.chat.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopKSketchTest {
+
+  @Test
+  void frequentKeysAreKept() {
+    TopKSketch sketch = new TopKSketch(10);
+    for (int i = 0; i < 1000; i++) {
+      sketch.add("hot");
+      if (i % 2 == 0) {
+        sketch.add("warm");
+      }
+      sketch.add("cold" + i);
+    }
+
+    assertEquals(10, sketch.top().size());
+    assertEquals("hot", sketch.top().get(0).getKey());
+    assertEquals("warm", sketch.top().get(1).getKey());
+  }
+
+  @Test
+  void topAndReset() {
+    TopKSketch sketch = new TopKSketch(3);
+    sketch.add("a");
+    sketch.add("b");
+    sketch.add("b");
+
+    assertEquals(List.of(new AbstractMap.SimpleImmutableEntry<>("b", 2L), new AbstractMap.SimpleImmutableEntry<>("a", 1L)), sketch.topAndReset());
+    assertTrue(sketch.top().isEmpty());
+  }
+
+  @Test
+  void concurrentAdds() throws Exception {
+    TopKSketch sketch = new TopKSketch(10, 4);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      int thread = t;
+      threads.add(new Thread(() -> {
+        for (int i = 0; i < 1000; i++) {
+          sketch.add("hot");
+          sketch.add("cold" + thread + "-" + i);
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    List<Map.Entry<String, Long>> top = sketch.top();
+    assertEquals(10, top.size());
+    // the hot key is tracked by every stripe that got it, the merged count is an upper bound
+    assertEquals("hot", top.get(0).getKey());
+    assertTrue(top.get(0).getValue() >= 8000L);
+  }
+}